@@ -2,8 +2,15 @@ package com.maggessibernardo.webserviceproject;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// R2DBC é usado só pela pilha reativa (ReactiveReadServer), que tem o seu próprio contexto
+@SpringBootApplication(exclude = { R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class })
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class WebserviceprojectApplication {
 
 	public static void main(String[] args) {
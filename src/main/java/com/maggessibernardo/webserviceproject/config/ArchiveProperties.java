@@ -0,0 +1,62 @@
+package com.maggessibernardo.webserviceproject.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.maggessibernardo.webserviceproject.entities.enums.OrderStatus;
+
+/**
+ * Configuração do arquivamento de pedidos antigos (app.archive.*).
+ *
+ * Pedidos com um dos status configurados e criados há mais de min-age são movidos,
+ * com itens e pagamento, das tabelas quentes para tb_order_archive. O intervalo
+ * entre execuções é lido diretamente de app.archive.interval.
+ */
+@ConfigurationProperties(prefix = "app.archive")
+public class ArchiveProperties {
+
+	private boolean enabled = false;
+
+	private Duration minAge = Duration.ofDays(365);
+
+	// Pedidos movidos por transação
+	private int batchSize = 500;
+
+	private List<OrderStatus> statuses = new ArrayList<>(
+			List.of(OrderStatus.PAID, OrderStatus.DELIVERED, OrderStatus.CANCELED));
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Duration getMinAge() {
+		return minAge;
+	}
+
+	public void setMinAge(Duration minAge) {
+		this.minAge = minAge;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public List<OrderStatus> getStatuses() {
+		return statuses;
+	}
+
+	public void setStatuses(List<OrderStatus> statuses) {
+		this.statuses = statuses;
+	}
+}
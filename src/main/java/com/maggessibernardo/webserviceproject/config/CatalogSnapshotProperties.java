@@ -0,0 +1,49 @@
+package com.maggessibernardo.webserviceproject.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuração do catálogo em memória e do seu snapshot em disco
+ * (app.catalog.snapshot.*).
+ *
+ * Com enabled, produtos e categorias são servidos de memória; na inicialização o
+ * catálogo vem do arquivo em file quando ele corresponde ao banco. A cada
+ * refresh-interval a versão do banco é conferida (recarregando o catálogo se
+ * mudou) e o arquivo é regravado se houver novidade.
+ */
+@ConfigurationProperties(prefix = "app.catalog.snapshot")
+public class CatalogSnapshotProperties {
+
+	private boolean enabled = false;
+
+	private Path file = Path.of(System.getProperty("java.io.tmpdir"), "webserviceproject", "catalog.snapshot");
+
+	private Duration refreshInterval = Duration.ofMinutes(1);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	public void setFile(Path file) {
+		this.file = file;
+	}
+
+	public Duration getRefreshInterval() {
+		return refreshInterval;
+	}
+
+	public void setRefreshInterval(Duration refreshInterval) {
+		this.refreshInterval = refreshInterval;
+	}
+}
@@ -0,0 +1,363 @@
+package com.maggessibernardo.webserviceproject.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.maggessibernardo.webserviceproject.entities.enums.OrderStatus;
+
+/**
+ * Gerador de massa de dados sintética para reproduzir localmente o comportamento
+ * com volumes de produção (perfil "datagen", usado junto com "test":
+ * --spring.profiles.active=test,datagen).
+ *
+ * Os registros são inseridos via JDBC batch, sem passar pelo Hibernate, e cada
+ * tabela de uma mesma fase é gerada em paralelo: primeiro categorias, produtos e
+ * usuários; depois vínculos produto-categoria e pedidos; por fim itens e
+ * pagamentos. Cada linha é derivada apenas de (semente, tabela, índice), então a
+ * mesma configuração gera sempre os mesmos dados, independentemente da ordem de
+ * execução das threads.
+ *
+ * As distribuições imitam um e-commerce real: poucos clientes concentram muitos
+ * pedidos e poucos produtos concentram muitas vendas (Zipf), pedidos recentes são
+ * mais frequentes que antigos, e o status do pedido depende da sua idade.
+ *
+ * @author BERNARDO MAGGESSI
+ */
+@Configuration
+@Profile("datagen")
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class DataGeneratorConfig implements CommandLineRunner {
+
+	private static final Logger log = LoggerFactory.getLogger(DataGeneratorConfig.class);
+
+	// Identificadores das "tabelas" na derivação das sementes
+	private static final long CATEGORIES = 1, PRODUCTS = 2, USERS = 3, LINKS = 4, ORDERS = 5, ITEMS = 6;
+
+	private static final String[] ADJECTIVES = { "Smart", "Ultra", "Compact", "Classic", "Pro", "Eco", "Wireless",
+			"Portable", "Deluxe", "Gamer" };
+	private static final String[] NOUNS = { "TV", "Notebook", "Phone", "Book", "Headset", "Monitor", "Keyboard",
+			"Camera", "Speaker", "Watch", "Tablet", "Chair" };
+	private static final String[] FIRST_NAMES = { "Maria", "Alex", "Ana", "Bruno", "Carla", "Diego", "Elisa",
+			"Felipe", "Gabriela", "Hugo", "Julia", "Lucas" };
+	private static final String[] LAST_NAMES = { "Brown", "Green", "Silva", "Souza", "Costa", "Oliveira", "Lima",
+			"Pereira", "Almeida", "Rocha" };
+
+	private final JdbcTemplate jdbcTemplate;
+	private final PasswordEncoder passwordEncoder;
+	private final DataGeneratorProperties props;
+
+	private long categoryOffset, productOffset, userOffset, orderOffset;
+
+	public DataGeneratorConfig(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder,
+			DataGeneratorProperties props) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.passwordEncoder = passwordEncoder;
+		this.props = props;
+	}
+
+	@Override
+	public void run(String... args) throws Exception {
+		long start = System.nanoTime();
+		log.info("Generating synthetic dataset: seed={}, users={}, products={}, categories={}, orders={}",
+				props.getSeed(), props.getUsers(), props.getProducts(), props.getCategories(), props.getOrders());
+
+		// Os ids são atribuídos explicitamente a partir do maior id existente
+		categoryOffset = maxId("tb_category");
+		productOffset = maxId("tb_product");
+		userOffset = maxId("tb_user");
+		orderOffset = maxId("tb_order");
+
+		String passwordHash = passwordEncoder.encode(props.getPassword());
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			runPhase(executor, List.of(
+					() -> insertCategories(),
+					() -> insertProducts(),
+					() -> insertUsers(passwordHash)));
+			runPhase(executor, List.of(
+					() -> insertProductCategories(),
+					() -> insertOrders()));
+			runPhase(executor, List.of(
+					() -> insertOrderItems(),
+					() -> insertPayments()));
+		} finally {
+			executor.shutdown();
+		}
+
+		restartIdentity("tb_category", categoryOffset + props.getCategories());
+		restartIdentity("tb_product", productOffset + props.getProducts());
+		restartIdentity("tb_user", userOffset + props.getUsers());
+		restartIdentity("tb_order", orderOffset + props.getOrders());
+
+		log.info("Synthetic dataset generated in {}", Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	private void runPhase(ExecutorService executor, List<Runnable> tasks) throws Exception {
+		List<Future<?>> futures = new ArrayList<>();
+		for (Runnable task : tasks) {
+			futures.add(executor.submit(task));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+	}
+
+	private void insertCategories() {
+		insertBatched("tb_category", "insert into tb_category (id, name) values (?, ?)", props.getCategories(),
+				(ps, i) -> {
+					ps.setLong(1, categoryOffset + i + 1);
+					ps.setString(2, NOUNS[i % NOUNS.length] + "s " + (i + 1));
+					ps.addBatch();
+				});
+	}
+
+	private void insertProducts() {
+		insertBatched("tb_product",
+				"insert into tb_product (id, name, description, price_cents, img_url) values (?, ?, ?, ?, ?)",
+				props.getProducts(), (ps, i) -> {
+					SplittableRandom rnd = random(PRODUCTS, i);
+					ps.setLong(1, productOffset + i + 1);
+					ps.setString(2, pick(rnd, ADJECTIVES) + " " + pick(rnd, NOUNS) + " " + (i + 1));
+					ps.setString(3, "Synthetic product generated from seed " + props.getSeed() + ".");
+					ps.setLong(4, productPriceCents(i));
+					ps.setString(5, "");
+					ps.addBatch();
+				});
+	}
+
+	private void insertUsers(String passwordHash) {
+		insertBatched("tb_user",
+				"insert into tb_user (id, name, email, phone, password, role) values (?, ?, ?, ?, ?, ?)",
+				props.getUsers(), (ps, i) -> {
+					SplittableRandom rnd = random(USERS, i);
+					long id = userOffset + i + 1;
+					ps.setLong(1, id);
+					ps.setString(2, pick(rnd, FIRST_NAMES) + " " + pick(rnd, LAST_NAMES));
+					ps.setString(3, "user" + id + "@datagen.local");
+					ps.setString(4, "9" + (10_000_000 + rnd.nextInt(90_000_000)));
+					ps.setString(5, passwordHash);
+					ps.setString(6, "ROLE_USER");
+					ps.addBatch();
+				});
+	}
+
+	private void insertProductCategories() {
+		insertBatched("tb_product_category",
+				"insert into tb_product_category (product_id, category_id) values (?, ?)", props.getProducts(),
+				(ps, i) -> {
+					SplittableRandom rnd = random(LINKS, i);
+					int count = 1 + rnd.nextInt(props.getMaxCategoriesPerProduct());
+					long[] chosen = new long[count];
+					for (int c = 0; c < count; c++) {
+						long categoryId = categoryOffset + 1 + zipf(rnd, props.getCategories());
+						if (!contains(chosen, c, categoryId)) {
+							chosen[c] = categoryId;
+							ps.setLong(1, productOffset + i + 1);
+							ps.setLong(2, categoryId);
+							ps.addBatch();
+						}
+					}
+				});
+	}
+
+	private void insertOrders() {
+		insertBatched("tb_order", "insert into tb_order (id, moment, order_status, client_id) values (?, ?, ?, ?)",
+				props.getOrders(), (ps, i) -> {
+					SplittableRandom rnd = random(ORDERS, i);
+					Instant moment = orderMoment(rnd);
+					ps.setLong(1, orderOffset + i + 1);
+					ps.setTimestamp(2, Timestamp.from(moment));
+					ps.setInt(3, orderStatus(rnd, moment).getCode());
+					ps.setLong(4, userOffset + 1 + zipf(rnd, props.getUsers()));
+					ps.addBatch();
+				});
+	}
+
+	private void insertOrderItems() {
+		insertBatched("tb_order_item",
+				"insert into tb_order_item (order_id, product_id, quantity, price_cents) values (?, ?, ?, ?)",
+				props.getOrders(), (ps, i) -> {
+					SplittableRandom rnd = random(ITEMS, i);
+					// Quantidade de itens com distribuição geométrica: a maioria dos pedidos tem 1 ou 2
+					int count = 1;
+					while (count < props.getMaxItemsPerOrder() && rnd.nextDouble() < 0.45) {
+						count++;
+					}
+					long[] chosen = new long[count];
+					for (int c = 0; c < count; c++) {
+						int productIndex = zipf(rnd, props.getProducts());
+						long productId = productOffset + 1 + productIndex;
+						if (!contains(chosen, c, productId)) {
+							chosen[c] = productId;
+							ps.setLong(1, orderOffset + i + 1);
+							ps.setLong(2, productId);
+							ps.setInt(3, rnd.nextDouble() < 0.8 ? 1 : 2 + rnd.nextInt(4));
+							ps.setLong(4, productPriceCents(productIndex));
+							ps.addBatch();
+						}
+					}
+				});
+	}
+
+	private void insertPayments() {
+		insertBatched("tb_payment", "insert into tb_payment (order_id, moment) values (?, ?)", props.getOrders(),
+				(ps, i) -> {
+					// Refaz a derivação do pedido para saber seu momento e status
+					SplittableRandom rnd = random(ORDERS, i);
+					Instant moment = orderMoment(rnd);
+					OrderStatus status = orderStatus(rnd, moment);
+					if (status != OrderStatus.WAITING_PAYMENT && status != OrderStatus.CANCELED) {
+						ps.setLong(1, orderOffset + i + 1);
+						ps.setTimestamp(2, Timestamp.from(moment.plusSeconds(60 + random(ITEMS, i).nextInt(7200))));
+						ps.addBatch();
+					}
+				});
+	}
+
+	/**
+	 * Pedidos recentes são mais frequentes: a idade segue 1 - sqrt(u).
+	 */
+	private Instant orderMoment(SplittableRandom rnd) {
+		long window = Duration.ofDays(props.getHistoryDays()).getSeconds();
+		long age = (long) (window * (1.0 - Math.sqrt(rnd.nextDouble())));
+		return props.getEpoch().minusSeconds(age);
+	}
+
+	private OrderStatus orderStatus(SplittableRandom rnd, Instant moment) {
+		double r = rnd.nextDouble();
+		if (r < 0.05) {
+			return OrderStatus.CANCELED;
+		}
+		long ageDays = Duration.between(moment, props.getEpoch()).toDays();
+		if (ageDays > 30) {
+			return OrderStatus.DELIVERED;
+		}
+		if (ageDays > 7) {
+			return r < 0.5 ? OrderStatus.SHIPPED : OrderStatus.DELIVERED;
+		}
+		return r < 0.45 ? OrderStatus.WAITING_PAYMENT : r < 0.8 ? OrderStatus.PAID : OrderStatus.SHIPPED;
+	}
+
+	/**
+	 * Preço em centavos com distribuição log-normal (mediana por volta de 100,00).
+	 */
+	private long productPriceCents(int productIndex) {
+		SplittableRandom rnd = random(PRODUCTS + 100, productIndex);
+		double gaussian = Math.sqrt(-2 * Math.log(1 - rnd.nextDouble())) * Math.cos(2 * Math.PI * rnd.nextDouble());
+		return Math.max(99, Math.round(Math.exp(4.6 + 1.1 * gaussian) * 100));
+	}
+
+	/**
+	 * Amostra aproximada de uma distribuição de Zipf (s = 1) em [0, n), espalhada
+	 * por uma permutação multiplicativa para que os ids "quentes" não fiquem todos
+	 * no começo da tabela.
+	 */
+	private static int zipf(SplittableRandom rnd, int n) {
+		long rank = Math.min(n, (long) Math.pow(n + 1.0, rnd.nextDouble())) - 1;
+		return (int) Math.floorMod(rank * 2654435761L, (long) n);
+	}
+
+	private SplittableRandom random(long table, long index) {
+		return new SplittableRandom(mix(props.getSeed() * 0x9E3779B97F4A7C15L + table * 0xBF58476D1CE4E5B9L + index));
+	}
+
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	private static String pick(SplittableRandom rnd, String[] values) {
+		return values[rnd.nextInt(values.length)];
+	}
+
+	private static boolean contains(long[] values, int size, long value) {
+		for (int i = 0; i < size; i++) {
+			if (values[i] == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private long maxId(String table) {
+		Long max = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+		return max == null ? 0 : max;
+	}
+
+	/**
+	 * Ajusta a identidade da tabela para depois do último id gerado, no dialeto do
+	 * banco (H2 e HSQLDB, PostgreSQL, MySQL e MariaDB); nos demais só avisa no log.
+	 */
+	private void restartIdentity(String table, long lastId) {
+		String database = jdbcTemplate.execute(
+				(ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+		long next = lastId + 1;
+		switch (database) {
+		case "H2", "HSQL Database Engine" ->
+			jdbcTemplate.execute("alter table " + table + " alter column id restart with " + next);
+		case "PostgreSQL" ->
+			jdbcTemplate.queryForObject("select setval(pg_get_serial_sequence(?, 'id'), ?, false)", Long.class,
+					table, next);
+		case "MySQL", "MariaDB" -> jdbcTemplate.execute("alter table " + table + " auto_increment = " + next);
+		default -> log.warn("Cannot restart the identity of {} on {}: the next generated id must be {}", table,
+				database, next);
+		}
+	}
+
+	/**
+	 * Insere "count" linhas lógicas em lotes, com um commit por lote.
+	 */
+	private void insertBatched(String table, String sql, int count, RowWriter writer) {
+		long start = System.nanoTime();
+		jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+			boolean autoCommit = con.getAutoCommit();
+			con.setAutoCommit(false);
+			try (PreparedStatement ps = con.prepareStatement(sql)) {
+				for (int i = 0; i < count; i++) {
+					writer.write(ps, i);
+					if ((i + 1) % props.getBatchSize() == 0) {
+						flush(con, ps);
+					}
+				}
+				flush(con, ps);
+			} finally {
+				con.setAutoCommit(autoCommit);
+			}
+			return null;
+		});
+		log.info("Generated {} ({} source rows) in {}", table, count, Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	private static void flush(Connection con, PreparedStatement ps) throws SQLException {
+		ps.executeBatch();
+		con.commit();
+	}
+
+	@FunctionalInterface
+	private interface RowWriter {
+		void write(PreparedStatement ps, int index) throws SQLException;
+	}
+}
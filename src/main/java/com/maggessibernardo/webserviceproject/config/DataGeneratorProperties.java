@@ -0,0 +1,124 @@
+package com.maggessibernardo.webserviceproject.config;
+
+import java.time.Instant;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Parâmetros do gerador de massa de dados sintética (perfil "datagen").
+ *
+ * A mesma semente ({@code seed}) e os mesmos volumes geram sempre exatamente os
+ * mesmos registros, o que permite repetir benchmarks. A data de referência
+ * ({@code epoch}) também é fixa para que os instantes gerados não dependam do
+ * relógio da máquina.
+ */
+@ConfigurationProperties(prefix = "app.datagen")
+public class DataGeneratorProperties {
+
+	private long seed = 42L;
+	private Instant epoch = Instant.parse("2025-01-01T00:00:00Z");
+
+	private int users = 200_000;
+	private int products = 20_000;
+	private int categories = 100;
+	private int orders = 1_000_000;
+
+	private int maxCategoriesPerProduct = 3;
+	private int maxItemsPerOrder = 6;
+
+	// Janela de tempo (em dias antes de epoch) em que os pedidos são distribuídos
+	private int historyDays = 3 * 365;
+
+	private int batchSize = 5_000;
+
+	// Senha (em texto puro) de todos os usuários gerados; o hash é calculado uma única vez
+	private String password = "123456";
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public Instant getEpoch() {
+		return epoch;
+	}
+
+	public void setEpoch(Instant epoch) {
+		this.epoch = epoch;
+	}
+
+	public int getUsers() {
+		return users;
+	}
+
+	public void setUsers(int users) {
+		this.users = users;
+	}
+
+	public int getProducts() {
+		return products;
+	}
+
+	public void setProducts(int products) {
+		this.products = products;
+	}
+
+	public int getCategories() {
+		return categories;
+	}
+
+	public void setCategories(int categories) {
+		this.categories = categories;
+	}
+
+	public int getOrders() {
+		return orders;
+	}
+
+	public void setOrders(int orders) {
+		this.orders = orders;
+	}
+
+	public int getMaxCategoriesPerProduct() {
+		return maxCategoriesPerProduct;
+	}
+
+	public void setMaxCategoriesPerProduct(int maxCategoriesPerProduct) {
+		this.maxCategoriesPerProduct = maxCategoriesPerProduct;
+	}
+
+	public int getMaxItemsPerOrder() {
+		return maxItemsPerOrder;
+	}
+
+	public void setMaxItemsPerOrder(int maxItemsPerOrder) {
+		this.maxItemsPerOrder = maxItemsPerOrder;
+	}
+
+	public int getHistoryDays() {
+		return historyDays;
+	}
+
+	public void setHistoryDays(int historyDays) {
+		this.historyDays = historyDays;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public void setPassword(String password) {
+		this.password = password;
+	}
+}
@@ -0,0 +1,96 @@
+package com.maggessibernardo.webserviceproject.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuração das imagens de produto (app.images.*).
+ *
+ * Os originais ficam em store-dir, com o SHA-256 do conteúdo como nome; as
+ * miniaturas são geradas no primeiro pedido em cache-dir, limitado a
+ * cache-max-size com descarte do menos usado. Só os tamanhos listados em
+ * thumbnail-sizes são aceitos, para que o cache não cresça com tamanhos
+ * arbitrários. Imagens com mais de max-pixels pixels são recusadas no envio e
+ * nunca são decodificadas.
+ */
+@ConfigurationProperties(prefix = "app.images")
+public class ImageProperties {
+
+	private Path storeDir = Path.of(System.getProperty("java.io.tmpdir"), "webserviceproject", "images");
+
+	private Path cacheDir = Path.of(System.getProperty("java.io.tmpdir"), "webserviceproject", "image-cache");
+
+	private DataSize cacheMaxSize = DataSize.ofMegabytes(256);
+
+	// Maior dimensão da miniatura, em pixels
+	private List<Integer> thumbnailSizes = new ArrayList<>(List.of(64, 128, 256, 512));
+
+	// Cache HTTP de URLs sem versão (?v=); as versionadas são imutáveis
+	private Duration maxAge = Duration.ofHours(1);
+
+	private DataSize maxUploadSize = DataSize.ofMegabytes(10);
+
+	// Largura x altura máxima; um PNG pequeno pode declarar dimensões enormes
+	private long maxPixels = 40_000_000;
+
+	public Path getStoreDir() {
+		return storeDir;
+	}
+
+	public void setStoreDir(Path storeDir) {
+		this.storeDir = storeDir;
+	}
+
+	public Path getCacheDir() {
+		return cacheDir;
+	}
+
+	public void setCacheDir(Path cacheDir) {
+		this.cacheDir = cacheDir;
+	}
+
+	public DataSize getCacheMaxSize() {
+		return cacheMaxSize;
+	}
+
+	public void setCacheMaxSize(DataSize cacheMaxSize) {
+		this.cacheMaxSize = cacheMaxSize;
+	}
+
+	public List<Integer> getThumbnailSizes() {
+		return thumbnailSizes;
+	}
+
+	public void setThumbnailSizes(List<Integer> thumbnailSizes) {
+		this.thumbnailSizes = thumbnailSizes;
+	}
+
+	public Duration getMaxAge() {
+		return maxAge;
+	}
+
+	public void setMaxAge(Duration maxAge) {
+		this.maxAge = maxAge;
+	}
+
+	public DataSize getMaxUploadSize() {
+		return maxUploadSize;
+	}
+
+	public void setMaxUploadSize(DataSize maxUploadSize) {
+		this.maxUploadSize = maxUploadSize;
+	}
+
+	public long getMaxPixels() {
+		return maxPixels;
+	}
+
+	public void setMaxPixels(long maxPixels) {
+		this.maxPixels = maxPixels;
+	}
+}
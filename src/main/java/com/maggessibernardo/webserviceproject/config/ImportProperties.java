@@ -0,0 +1,72 @@
+package com.maggessibernardo.webserviceproject.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuração da importação de produtos por CSV (app.import.*).
+ *
+ * O arquivo enviado é movido para work-dir e lido de lá em segundo plano; cada
+ * lote de batch-size linhas é gravado e confirmado em uma transação. Só os
+ * primeiros max-errors erros por linha são guardados no andamento (os demais só
+ * são contados), e importações terminadas ficam consultáveis por retention.
+ *
+ * max-size limita o CSV enviado como corpo (Content-Type text/csv); o envio em
+ * multipart segue o limite global spring.servlet.multipart.max-file-size.
+ */
+@ConfigurationProperties(prefix = "app.import")
+public class ImportProperties {
+
+	private Path workDir = Path.of(System.getProperty("java.io.tmpdir"), "webserviceproject", "imports");
+
+	private int batchSize = 500;
+
+	private int maxErrors = 1000;
+
+	private Duration retention = Duration.ofHours(1);
+
+	private DataSize maxSize = DataSize.ofMegabytes(512);
+
+	public Path getWorkDir() {
+		return workDir;
+	}
+
+	public void setWorkDir(Path workDir) {
+		this.workDir = workDir;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public int getMaxErrors() {
+		return maxErrors;
+	}
+
+	public void setMaxErrors(int maxErrors) {
+		this.maxErrors = maxErrors;
+	}
+
+	public Duration getRetention() {
+		return retention;
+	}
+
+	public void setRetention(Duration retention) {
+		this.retention = retention;
+	}
+
+	public DataSize getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(DataSize maxSize) {
+		this.maxSize = maxSize;
+	}
+}
@@ -0,0 +1,94 @@
+package com.maggessibernardo.webserviceproject.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuração das chaves de assinatura dos tokens JWT (app.jwt.*).
+ *
+ * As chaves vêm de app.jwt.keys.&lt;kid&gt; (segredo em texto ou "base64:...") e,
+ * opcionalmente, de um keystore PKCS12 em app.jwt.keystore.path, onde cada entrada
+ * de chave secreta vira uma chave cujo kid é o alias. Os tokens novos são
+ * assinados com app.jwt.active-key-id; os demais kids continuam aceitos na
+ * validação, o que permite a rotação sem invalidar tokens já emitidos.
+ */
+@ConfigurationProperties(prefix = "app.jwt")
+public class JwtProperties {
+
+	private String activeKeyId;
+
+	private Duration expiration = Duration.ofDays(1);
+
+	private Map<String, String> keys = new LinkedHashMap<>();
+
+	private Keystore keystore = new Keystore();
+
+	public String getActiveKeyId() {
+		return activeKeyId;
+	}
+
+	public void setActiveKeyId(String activeKeyId) {
+		this.activeKeyId = activeKeyId;
+	}
+
+	public Duration getExpiration() {
+		return expiration;
+	}
+
+	public void setExpiration(Duration expiration) {
+		this.expiration = expiration;
+	}
+
+	public Map<String, String> getKeys() {
+		return keys;
+	}
+
+	public void setKeys(Map<String, String> keys) {
+		this.keys = keys;
+	}
+
+	public Keystore getKeystore() {
+		return keystore;
+	}
+
+	public void setKeystore(Keystore keystore) {
+		this.keystore = keystore;
+	}
+
+	/**
+	 * Keystore local com chaves secretas HMAC (um alias por kid).
+	 */
+	public static class Keystore {
+
+		private String path;
+		private String password = "";
+		private String type = "PKCS12";
+
+		public String getPath() {
+			return path;
+		}
+
+		public void setPath(String path) {
+			this.path = path;
+		}
+
+		public String getPassword() {
+			return password;
+		}
+
+		public void setPassword(String password) {
+			this.password = password;
+		}
+
+		public String getType() {
+			return type;
+		}
+
+		public void setType(String type) {
+			this.type = type;
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.maggessibernardo.webserviceproject.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuração do limite de requisições por usuário autenticado (app.rate-limit.*).
+ *
+ * Cada papel (o valor de {@code User.role}, por exemplo ROLE_ADMIN) pode ter sua
+ * própria política em app.rate-limit.roles.&lt;papel&gt;; papéis sem política
+ * configurada usam app.rate-limit.default-policy.
+ */
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+	private boolean enabled = true;
+
+	// Quantidade máxima de buckets em memória e tempo ocioso até a expiração
+	private long maxBuckets = 100_000;
+	private Duration idleExpiry = Duration.ofMinutes(10);
+
+	private Policy defaultPolicy = new Policy();
+	private Map<String, Policy> roles = new HashMap<>();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getMaxBuckets() {
+		return maxBuckets;
+	}
+
+	public void setMaxBuckets(long maxBuckets) {
+		this.maxBuckets = maxBuckets;
+	}
+
+	public Duration getIdleExpiry() {
+		return idleExpiry;
+	}
+
+	public void setIdleExpiry(Duration idleExpiry) {
+		this.idleExpiry = idleExpiry;
+	}
+
+	public Policy getDefaultPolicy() {
+		return defaultPolicy;
+	}
+
+	public void setDefaultPolicy(Policy defaultPolicy) {
+		this.defaultPolicy = defaultPolicy;
+	}
+
+	public Map<String, Policy> getRoles() {
+		return roles;
+	}
+
+	public void setRoles(Map<String, Policy> roles) {
+		this.roles = roles;
+	}
+
+	/**
+	 * Política de um token bucket: capacidade (rajada) e reposição por segundo.
+	 */
+	public static class Policy {
+
+		private int capacity = 50;
+		private double refillPerSecond = 10;
+
+		public int getCapacity() {
+			return capacity;
+		}
+
+		public void setCapacity(int capacity) {
+			this.capacity = capacity;
+		}
+
+		public double getRefillPerSecond() {
+			return refillPerSecond;
+		}
+
+		public void setRefillPerSecond(double refillPerSecond) {
+			this.refillPerSecond = refillPerSecond;
+		}
+	}
+}
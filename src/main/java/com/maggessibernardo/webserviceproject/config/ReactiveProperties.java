@@ -0,0 +1,78 @@
+package com.maggessibernardo.webserviceproject.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuração da pilha de leitura reativa (app.reactive.*), ativada pelo perfil
+ * "reactive".
+ *
+ * Os endpoints de leitura (/products, /categories e /orders/{id}) passam a ser
+ * servidos também por WebFlux em Netty, em uma porta própria, lendo o mesmo banco
+ * por R2DBC.
+ */
+@ConfigurationProperties(prefix = "app.reactive")
+public class ReactiveProperties {
+
+	private boolean enabled = false;
+
+	// Porta do servidor Netty (0 escolhe uma porta livre)
+	private int port = 8081;
+
+	// Mesmo banco da aplicação (jdbc:h2:mem:testdb), acessado por R2DBC
+	private String r2dbcUrl = "r2dbc:h2:mem:///testdb";
+
+	private String username = "sa";
+
+	private String password = "";
+
+	// Conexões R2DBC no pool
+	private int maxConnections = 20;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	public String getR2dbcUrl() {
+		return r2dbcUrl;
+	}
+
+	public void setR2dbcUrl(String r2dbcUrl) {
+		this.r2dbcUrl = r2dbcUrl;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public void setUsername(String username) {
+		this.username = username;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public void setPassword(String password) {
+		this.password = password;
+	}
+
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	public void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+}
@@ -2,6 +2,7 @@ package com.maggessibernardo.webserviceproject.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -12,6 +13,8 @@ import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 import com.maggessibernardo.webserviceproject.services.JwtAuthenticationFilter;
 
+import jakarta.servlet.DispatcherType;
+
 /**
  * Configuração de segurança da aplicação.
  */
@@ -30,8 +33,14 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .headers(headers -> headers.frameOptions(frame -> frame.disable())) 
             .authorizeHttpRequests(auth -> auth
+                // Respostas assíncronas (SSE) já foram autorizadas no dispatch original
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers(AntPathRequestMatcher.antMatcher("/h2-console/**")).permitAll() // Permite acesso ao H2 Console
+                .requestMatchers(HttpMethod.POST, "/orders/status").hasRole("ADMIN") // Transição de status em lote
+                .requestMatchers(HttpMethod.GET, "/orders/summary").hasRole("ADMIN") // Totais de vendas
+                .requestMatchers("/products/import", "/products/import/*").hasRole("ADMIN") // Importação de CSV
+                .requestMatchers(HttpMethod.GET, "/products/*/image").permitAll() // Imagens públicas, em cache compartilhado
                 .anyRequest().authenticated()
             )
             .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
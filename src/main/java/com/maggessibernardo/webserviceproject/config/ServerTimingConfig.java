@@ -0,0 +1,64 @@
+package com.maggessibernardo.webserviceproject.config;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maggessibernardo.webserviceproject.services.RequestTiming;
+import com.maggessibernardo.webserviceproject.services.TimedDataSource;
+
+/**
+ * Pontos de medição do Server-Timing fora dos filtros (ServerTimingFilter): o
+ * DataSource passa a ser um {@link TimedDataSource} e o conversor JSON do Spring
+ * MVC registra o tempo de serialização. Sem app.server-timing.enabled=true nada
+ * disso é instalado e o caminho das requisições não muda.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.server-timing.enabled", havingValue = "true")
+public class ServerTimingConfig {
+
+	// Estático: o pós-processador precisa existir antes do DataSource
+	@Bean
+	static BeanPostProcessor timedDataSourcePostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return bean instanceof DataSource dataSource && !(bean instanceof TimedDataSource)
+						? new TimedDataSource(dataSource)
+						: bean;
+			}
+		};
+	}
+
+	// Substitui o conversor padrão do Spring Boot, com o mesmo ObjectMapper
+	@Bean
+	MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+		return new MappingJackson2HttpMessageConverter(objectMapper) {
+			@Override
+			protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+					throws IOException, HttpMessageNotWritableException {
+				RequestTiming timing = RequestTiming.current();
+				if (timing == null) {
+					super.writeInternal(object, type, outputMessage);
+					return;
+				}
+				timing.serializationStarted();
+				try {
+					super.writeInternal(object, type, outputMessage);
+				} finally {
+					timing.serializationFinished();
+				}
+			}
+		};
+	}
+}
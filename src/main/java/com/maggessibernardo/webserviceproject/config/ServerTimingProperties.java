@@ -0,0 +1,58 @@
+package com.maggessibernardo.webserviceproject.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuração da contabilidade de tempo por requisição (app.server-timing.*).
+ *
+ * Com enabled, cada requisição mede o tempo de autenticação, de SQL (e quantos
+ * statements), de leitura dos resultados e de serialização. Com header, o
+ * resultado vai no cabeçalho Server-Timing da resposta; uma fração
+ * log-sample-rate das requisições (e todas as mais lentas que slow-threshold)
+ * também gera uma linha de log.
+ */
+@ConfigurationProperties(prefix = "app.server-timing")
+public class ServerTimingProperties {
+
+	private boolean enabled = false;
+
+	private boolean header = true;
+
+	private double logSampleRate = 0.01;
+
+	private Duration slowThreshold = Duration.ofSeconds(1);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public boolean isHeader() {
+		return header;
+	}
+
+	public void setHeader(boolean header) {
+		this.header = header;
+	}
+
+	public double getLogSampleRate() {
+		return logSampleRate;
+	}
+
+	public void setLogSampleRate(double logSampleRate) {
+		this.logSampleRate = logSampleRate;
+	}
+
+	public Duration getSlowThreshold() {
+		return slowThreshold;
+	}
+
+	public void setSlowThreshold(Duration slowThreshold) {
+		this.slowThreshold = slowThreshold;
+	}
+}
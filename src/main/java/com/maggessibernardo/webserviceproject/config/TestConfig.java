@@ -11,6 +11,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import com.maggessibernardo.webserviceproject.entities.Category;
+import com.maggessibernardo.webserviceproject.entities.Money;
 import com.maggessibernardo.webserviceproject.entities.Order;
 import com.maggessibernardo.webserviceproject.entities.OrderItem;
 import com.maggessibernardo.webserviceproject.entities.Payment;
@@ -46,15 +47,20 @@ public class TestConfig implements CommandLineRunner {
 	public void run(String... args) throws Exception {
 			//implementação da interface CommandLineRunner
 			
+			// O banco em memória é compartilhado entre contextos (ex.: testes); só popula uma vez
+			if (categoryRepository.count() > 0) {
+				return;
+			}
+			
 			Category cat1 = new Category(null, "Electronics");
 			Category cat2 = new Category(null, "Books");
 			Category cat3 = new Category(null, "Computers");
 			
-			Product p1 = new Product(null, "The Lord of the Rings", "Lorem ipsum dolor sit amet, consectetur.", 90.5, "");
-			Product p2 = new Product(null, "Smart TV", "Nulla eu imperdiet purus. Maecenas ante.", 2190.0, "");
-			Product p3 = new Product(null, "Macbook Pro", "Nam eleifend maximus tortor, at mollis.", 1250.0, "");
-			Product p4 = new Product(null, "PC Gamer", "Donec aliquet odio ac rhoncus cursus.", 1200.0, "");
-			Product p5 = new Product(null, "Rails for Dummies", "Cras fringilla convallis sem vel faucibus.", 100.99, "");
+			Product p1 = new Product(null, "The Lord of the Rings", "Lorem ipsum dolor sit amet, consectetur.", Money.of("90.50"), "");
+			Product p2 = new Product(null, "Smart TV", "Nulla eu imperdiet purus. Maecenas ante.", Money.of("2190.00"), "");
+			Product p3 = new Product(null, "Macbook Pro", "Nam eleifend maximus tortor, at mollis.", Money.of("1250.00"), "");
+			Product p4 = new Product(null, "PC Gamer", "Donec aliquet odio ac rhoncus cursus.", Money.of("1200.00"), "");
+			Product p5 = new Product(null, "Rails for Dummies", "Cras fringilla convallis sem vel faucibus.", Money.of("100.99"), "");
 			
 			categoryRepository.saveAll(Arrays.asList(cat1,cat2,cat3));
 			productRepository.saveAll(Arrays.asList(p1,p2,p3,p4,p5));
@@ -94,6 +100,9 @@ public class TestConfig implements CommandLineRunner {
 			@Bean
 			public CommandLineRunner demo(UserRepository userRepository, BCryptPasswordEncoder encoder) {
 			    return (args) -> {
+			        if (userRepository.findByEmail("admin@admin.com").isPresent()) {
+			            return;
+			        }
 			        User admin = new User();
 			        admin.setName("Admin");
 			        admin.setEmail("admin@admin.com");
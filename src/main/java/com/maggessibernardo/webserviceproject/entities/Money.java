@@ -0,0 +1,78 @@
+package com.maggessibernardo.webserviceproject.entities;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Valor monetário exato, guardado como um long de centavos.
+ *
+ * Preços em Double acumulam erro de ponto flutuante nas somas (0.1 + 0.2 não é
+ * 0.3). Em centavos, soma e multiplicação por quantidade são exatas, com estouro
+ * detectado, e totais podem ser somados direto sobre {@link #cents()} sem criar
+ * objetos. No banco vira bigint ({@link MoneyConverter}); no JSON continua um
+ * número decimal com duas casas (ex.: 90.50).
+ */
+public record Money(long cents) implements Comparable<Money>, Serializable {
+
+	public static final Money ZERO = new Money(0);
+
+	public static Money ofCents(long cents) {
+		return cents == 0 ? ZERO : new Money(cents);
+	}
+
+	/**
+	 * @throws IllegalArgumentException se o valor tiver mais de duas casas decimais.
+	 */
+	@JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+	public static Money of(BigDecimal amount) {
+		try {
+			return ofCents(amount.movePointRight(2).longValueExact());
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException("Invalid monetary amount (at most 2 decimal places): " + amount);
+		}
+	}
+
+	public static Money of(String amount) {
+		return of(new BigDecimal(amount));
+	}
+
+	// Números vindos de JSON genérico (Integer, Double...) pela representação decimal
+	public static Money of(Number amount) {
+		return amount instanceof BigDecimal decimal ? of(decimal) : of(new BigDecimal(amount.toString()));
+	}
+
+	/**
+	 * Converte um valor antigo em ponto flutuante, arredondando para o centavo mais
+	 * próximo (metade para cima) a partir da sua representação decimal mais curta.
+	 */
+	public static Money ofRounded(double amount) {
+		return of(BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP));
+	}
+
+	public Money plus(Money other) {
+		return ofCents(Math.addExact(cents, other.cents));
+	}
+
+	public Money times(int quantity) {
+		return ofCents(Math.multiplyExact(cents, quantity));
+	}
+
+	@JsonValue
+	public BigDecimal toBigDecimal() {
+		return BigDecimal.valueOf(cents, 2);
+	}
+
+	@Override
+	public int compareTo(Money other) {
+		return Long.compare(cents, other.cents);
+	}
+
+	@Override
+	public String toString() {
+		return toBigDecimal().toPlainString();
+	}
+}
@@ -0,0 +1,21 @@
+package com.maggessibernardo.webserviceproject.entities;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Grava {@link Money} como bigint de centavos (colunas *_cents).
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+	@Override
+	public Long convertToDatabaseColumn(Money money) {
+		return money != null ? money.cents() : null;
+	}
+
+	@Override
+	public Money convertToEntityAttribute(Long cents) {
+		return cents != null ? Money.ofCents(cents) : null;
+	}
+}
@@ -19,6 +19,7 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 /**
  * Classe que representa uma ordem (pedido) no sistema.
@@ -63,6 +64,10 @@ public class Order implements Serializable {
     @OneToOne(mappedBy = "order", cascade = CascadeType.ALL)
     private Payment payment;
     
+    // Controle otimista: alterações concorrentes do mesmo pedido não se sobrescrevem
+    @Version
+    private Long version;
+    
     public Order() {
     }
 
@@ -84,6 +89,10 @@ public class Order implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     
     public Instant getMoment() {
         return moment;
@@ -121,12 +130,13 @@ public class Order implements Serializable {
 	public void setPayment(Payment payment) {
 		this.payment = payment;
 	}
-	public Double getTotal() {
-		double sum = 0;
+	// Soma exata em centavos, sem um objeto intermediário por item
+	public Money getTotal() {
+		long cents = 0;
 		for(OrderItem x:items) {
-			sum += x.getSubTotal();
+			cents = Math.addExact(cents, x.getSubTotalCents());
 		}
-		return sum;
+		return Money.ofCents(cents);
 	}
     
     @Override
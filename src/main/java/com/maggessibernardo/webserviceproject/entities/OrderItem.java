@@ -6,6 +6,7 @@ import java.util.Objects;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.maggessibernardo.webserviceproject.entities.pk.OrderItemPK;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
@@ -41,12 +42,14 @@ public class OrderItem implements Serializable {
 
 	private Integer quantity;
 
-	private double price;
+	// Em centavos (MoneyConverter)
+	@Column(name = "price_cents", nullable = false)
+	private Money price;
 
 	public OrderItem() {
 	}
 	
-	public OrderItem(Order order, Product product, Integer quantity, double price) {
+	public OrderItem(Order order, Product product, Integer quantity, Money price) {
 		id.setOrder(order);
 		id.setProduct(product);
 		this.quantity = quantity;
@@ -76,16 +79,22 @@ public class OrderItem implements Serializable {
 		this.quantity = quantity;
 	}
 	
-	public double getPrice() {
+	public Money getPrice() {
 		return price;
 	}
 	
-	public void setPrice(double price) {
+	public void setPrice(Money price) {
 		this.price = price;
 	}
 	
-	public Double getSubTotal() {
-		return price * quantity;
+	public Money getSubTotal() {
+		return Money.ofCents(getSubTotalCents());
+	}
+	
+	// Subtotal direto em centavos, para somar sem criar objetos
+	@JsonIgnore
+	public long getSubTotalCents() {
+		return Math.multiplyExact(price.cents(), quantity);
 	}
 
 	@Override
@@ -5,8 +5,12 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -16,6 +20,7 @@ import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 /**
  * Classe que representa um produto no sistema.
@@ -35,6 +40,7 @@ import jakarta.persistence.Table;
  * @author BERNARDO MAGGESSI
  */
 @Entity
+@DynamicUpdate
 @Table(name = "tb_product")
 public class Product implements Serializable {
 
@@ -50,11 +56,26 @@ public class Product implements Serializable {
 	
 	private String description;
 
-	private Double price;
+	// Em centavos (MoneyConverter)
+	@Column(name = "price_cents")
+	private Money price;
 
 	private String imgUrl;
 
+	// Imagem no armazenamento local (ProductImageService): SHA-256 do original e tipo
+	@JsonIgnore
+	private String imageHash;
+
+	@JsonIgnore
+	private String imageType;
+
+	// Incrementada a cada alteração; exposta como ETag para PATCH com If-Match
+	@Version
+	private Long version;
+
 	
+	// Categorias de vários produtos carregados (ex.: itens de pedidos) vêm em uma consulta por lote
+	@BatchSize(size = 100)
 	@ManyToMany
 	@JoinTable(name = "tb_product_category",
 		joinColumns = @JoinColumn(name = "product_id"),  // Chave estrangeira para o produto
@@ -69,7 +90,7 @@ public class Product implements Serializable {
 
 	
 	
-	public Product(Long id, String name, String description, Double price, String imgUrl) {
+	public Product(Long id, String name, String description, Money price, String imgUrl) {
 		super();
 		this.id = id;
 		this.name = name;
@@ -83,6 +104,15 @@ public class Product implements Serializable {
 		return id;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	// Só para cópias desanexadas (CatalogCache); nas entidades gerenciadas quem controla é o Hibernate
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	
 	public void setId(long id) {
 		this.id = id;
@@ -106,14 +136,30 @@ public class Product implements Serializable {
 		this.description = description;
 	}
 
-	public Double getPrice() {
+	public Money getPrice() {
 		return price;
 	}
 
-	public void setPrice(Double price) {
+	public void setPrice(Money price) {
 		this.price = price;
 	}
 
+	public String getImageHash() {
+		return imageHash;
+	}
+
+	public void setImageHash(String imageHash) {
+		this.imageHash = imageHash;
+	}
+
+	public String getImageType() {
+		return imageType;
+	}
+
+	public void setImageType(String imageType) {
+		this.imageType = imageType;
+	}
+
 	public String getImgUrl() {
 		return imgUrl;
 	}
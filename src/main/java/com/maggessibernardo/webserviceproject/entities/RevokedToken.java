@@ -0,0 +1,81 @@
+package com.maggessibernardo.webserviceproject.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Token JWT revogado (logout), identificado pelo seu "jti".
+ * 
+ * O registro só precisa existir até a expiração do próprio token; depois disso o
+ * token já é recusado pela validação de expiração e a linha pode ser removida.
+ * 
+ * @author BERNARDO MAGGESSI
+ */
+@Entity
+@Table(name = "tb_revoked_token")
+public class RevokedToken implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	private String jti;
+
+	private Instant expiresAt;
+
+	private Instant revokedAt;
+
+	public RevokedToken() {
+	}
+
+	public RevokedToken(String jti, Instant expiresAt, Instant revokedAt) {
+		this.jti = jti;
+		this.expiresAt = expiresAt;
+		this.revokedAt = revokedAt;
+	}
+
+	public String getJti() {
+		return jti;
+	}
+
+	public void setJti(String jti) {
+		this.jti = jti;
+	}
+
+	public Instant getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(Instant expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+	public Instant getRevokedAt() {
+		return revokedAt;
+	}
+
+	public void setRevokedAt(Instant revokedAt) {
+		this.revokedAt = revokedAt;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(jti);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		RevokedToken other = (RevokedToken) obj;
+		return Objects.equals(jti, other.jti);
+	}
+}
@@ -5,6 +5,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Entity;
@@ -13,6 +15,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 /**
  * Classe que representa um usuário no sistema.
@@ -30,6 +33,7 @@ import jakarta.persistence.Table;
  * @author BERNARDO MAGGESSI
  */
 @Entity
+@DynamicUpdate
 @Table(name = "tb_user")
 public class User implements Serializable {
 	
@@ -49,6 +53,10 @@ public class User implements Serializable {
 	private String password;
 	
 	private String role;
+
+	// Incrementada a cada alteração; exposta como ETag para PATCH com If-Match
+	@Version
+	private Long version;
 	
 	@JsonIgnore  // A anotação evita que os pedidos do usuário sejam serializados automaticamente
 	@OneToMany(mappedBy="client")
@@ -72,6 +80,10 @@ public class User implements Serializable {
 		return id;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
 	
 	public void setId(Long id) {
 		this.id = id;
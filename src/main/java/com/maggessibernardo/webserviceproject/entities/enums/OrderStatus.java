@@ -1,5 +1,7 @@
 package com.maggessibernardo.webserviceproject.entities.enums;
 
+import java.util.List;
+
 public enum OrderStatus {
 	
 	WAITING_PAYMENT(1),
@@ -16,6 +18,16 @@ public enum OrderStatus {
 	public int getCode() {
 		return code;
 	}
+	// Status a partir dos quais a transição para este é permitida
+	public List<OrderStatus> getAllowedPredecessors() {
+		return switch (this) {
+		case WAITING_PAYMENT -> List.of();
+		case PAID -> List.of(WAITING_PAYMENT);
+		case SHIPPED -> List.of(PAID);
+		case DELIVERED -> List.of(SHIPPED);
+		case CANCELED -> List.of(WAITING_PAYMENT, PAID);
+		};
+	}
 	public static OrderStatus valueOf(int code) {
 		for(OrderStatus value : OrderStatus.values()) {
 			if (value.getCode() == code) {
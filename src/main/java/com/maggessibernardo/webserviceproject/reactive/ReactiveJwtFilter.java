@@ -0,0 +1,83 @@
+package com.maggessibernardo.webserviceproject.reactive;
+
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.maggessibernardo.webserviceproject.services.JwtService;
+import com.maggessibernardo.webserviceproject.services.TokenRevocationService;
+import com.maggessibernardo.webserviceproject.services.UserTokenVersions;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Autenticação JWT da pilha reativa, com as mesmas regras do
+ * JwtAuthenticationFilter no modo autocontido: o token precisa ser válido, trazer
+ * os papéis e a versão de permissões atual, e não pode ter sido revogado.
+ *
+ * Não há consulta ao banco no caminho comum; só a versão de permissões fora do
+ * cache ({@link UserTokenVersions}) e um "talvez revogado" do filtro de Bloom vão
+ * ao banco, fora das threads de evento. Sem token válido a resposta é 403, como
+ * na API servlet.
+ */
+public class ReactiveJwtFilter implements WebFilter {
+
+	private static final String BEARER = "Bearer ";
+
+	private final JwtService jwtService;
+	private final TokenRevocationService revocationService;
+	private final UserTokenVersions versions;
+
+	public ReactiveJwtFilter(JwtService jwtService, TokenRevocationService revocationService,
+			UserTokenVersions versions) {
+		this.jwtService = jwtService;
+		this.revocationService = revocationService;
+		this.versions = versions;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+		if (header == null || !header.startsWith(BEARER)) {
+			return forbidden(exchange);
+		}
+		Claims claims;
+		try {
+			claims = jwtService.extractAllClaims(header.substring(BEARER.length()));
+		} catch (JwtException | IllegalArgumentException e) {
+			return forbidden(exchange);
+		}
+		Optional<UserTokenVersions.Stamp> cached = versions.cached(claims.getSubject());
+		if (cached == null) {
+			return Mono.fromCallable(() -> jwtService.toUserDetails(claims) != null)
+					.subscribeOn(Schedulers.boundedElastic())
+					.flatMap(valid -> valid ? checkRevocation(claims, exchange, chain) : forbidden(exchange));
+		}
+		if (jwtService.toUserDetails(claims, cached.orElse(null)) == null) {
+			return forbidden(exchange);
+		}
+		return checkRevocation(claims, exchange, chain);
+	}
+
+	private Mono<Void> checkRevocation(Claims claims, ServerWebExchange exchange, WebFilterChain chain) {
+		String jti = claims.getId();
+		if (!revocationService.mightBeRevoked(jti)) {
+			return chain.filter(exchange);
+		}
+		return Mono.fromCallable(() -> revocationService.isRevoked(jti))
+				.subscribeOn(Schedulers.boundedElastic())
+				.flatMap(revoked -> revoked ? forbidden(exchange) : chain.filter(exchange));
+	}
+
+	private static Mono<Void> forbidden(ServerWebExchange exchange) {
+		exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN);
+		return exchange.getResponse().setComplete();
+	}
+}
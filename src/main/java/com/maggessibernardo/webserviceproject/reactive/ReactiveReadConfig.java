@@ -0,0 +1,77 @@
+package com.maggessibernardo.webserviceproject.reactive;
+
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.codec.CodecsAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.HttpHandlerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.WebFluxAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.reactive.error.ErrorWebFluxAutoConfiguration;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.maggessibernardo.webserviceproject.config.ReactiveProperties;
+import com.maggessibernardo.webserviceproject.services.JwtService;
+import com.maggessibernardo.webserviceproject.services.TokenRevocationService;
+import com.maggessibernardo.webserviceproject.services.UserTokenVersions;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+/**
+ * Contexto da pilha reativa, iniciado pelo {@link ReactiveReadServer}.
+ *
+ * Não é uma classe @Configuration de propósito: assim a varredura de componentes
+ * da aplicação servlet não a encontra. Só as autoconfigurações do WebFlux são
+ * importadas (sem JPA, Flyway, segurança servlet ou actuator); o servidor é
+ * sempre o Netty, mesmo com o Tomcat no classpath. ReactiveProperties, JwtService,
+ * TokenRevocationService e UserTokenVersions vêm prontos do contexto da aplicação.
+ */
+@ImportAutoConfiguration({ PropertyPlaceholderAutoConfiguration.class, JacksonAutoConfiguration.class,
+		CodecsAutoConfiguration.class, HttpHandlerAutoConfiguration.class, WebFluxAutoConfiguration.class,
+		ErrorWebFluxAutoConfiguration.class })
+public class ReactiveReadConfig {
+
+	@Bean
+	public NettyReactiveWebServerFactory reactiveWebServerFactory(ReactiveProperties properties) {
+		return new NettyReactiveWebServerFactory(properties.getPort());
+	}
+
+	@Bean(destroyMethod = "dispose")
+	public ConnectionPool connectionFactory(ReactiveProperties properties) {
+		ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(properties.getR2dbcUrl()).mutate()
+				.option(ConnectionFactoryOptions.USER, properties.getUsername())
+				.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword())
+				.build();
+		return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+				.maxSize(properties.getMaxConnections())
+				.build());
+	}
+
+	@Bean
+	public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+		return DatabaseClient.create(connectionFactory);
+	}
+
+	@Bean
+	public ReactiveReadRepository reactiveReadRepository(DatabaseClient databaseClient) {
+		return new ReactiveReadRepository(databaseClient);
+	}
+
+	@Bean
+	public RouterFunction<ServerResponse> readRoutes(ReactiveReadRepository repository) {
+		return new ReactiveReadHandler(repository).routes();
+	}
+
+	@Bean
+	public ReactiveJwtFilter reactiveJwtFilter(JwtService jwtService, TokenRevocationService revocationService,
+			UserTokenVersions versions) {
+		return new ReactiveJwtFilter(jwtService, revocationService, versions);
+	}
+}
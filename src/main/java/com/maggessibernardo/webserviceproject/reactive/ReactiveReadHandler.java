@@ -0,0 +1,75 @@
+package com.maggessibernardo.webserviceproject.reactive;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+import java.time.Instant;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.maggessibernardo.webserviceproject.reactive.ReactiveReadRepository.CategoryView;
+import com.maggessibernardo.webserviceproject.reactive.ReactiveReadRepository.ProductView;
+import com.maggessibernardo.webserviceproject.resources.exceptions.StandardError;
+import com.maggessibernardo.webserviceproject.services.execptions.ResourceNotFoundException;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Rotas da pilha reativa: GET /products, GET /categories e GET /orders/{id}.
+ *
+ * São rotas funcionais, e não um @RestController, para não serem registradas
+ * também no contexto servlet da aplicação. Listas são transmitidas como um array
+ * JSON, ou como NDJSON (um objeto por linha) quando o cliente aceita
+ * application/x-ndjson.
+ */
+public class ReactiveReadHandler {
+
+	private final ReactiveReadRepository repository;
+
+	public ReactiveReadHandler(ReactiveReadRepository repository) {
+		this.repository = repository;
+	}
+
+	public RouterFunction<ServerResponse> routes() {
+		return route()
+				.GET("/products", this::products)
+				.GET("/categories", this::categories)
+				.GET("/orders/{id}", this::order)
+				.build();
+	}
+
+	private Mono<ServerResponse> products(ServerRequest request) {
+		return ServerResponse.ok().contentType(listType(request)).body(repository.findProducts(), ProductView.class);
+	}
+
+	private Mono<ServerResponse> categories(ServerRequest request) {
+		return ServerResponse.ok().contentType(listType(request)).body(repository.findCategories(), CategoryView.class);
+	}
+
+	private Mono<ServerResponse> order(ServerRequest request) {
+		long id;
+		try {
+			id = Long.parseLong(request.pathVariable("id"));
+		} catch (NumberFormatException e) {
+			return error(request, HttpStatus.BAD_REQUEST, "Bad request", "Invalid id: " + request.pathVariable("id"));
+		}
+		return repository.findOrder(id)
+				.flatMap(order -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(order))
+				.switchIfEmpty(Mono.defer(() -> error(request, HttpStatus.NOT_FOUND, "Resource not found",
+						new ResourceNotFoundException(id).getMessage())));
+	}
+
+	private static MediaType listType(ServerRequest request) {
+		return request.headers().accept().contains(MediaType.APPLICATION_NDJSON) ? MediaType.APPLICATION_NDJSON
+				: MediaType.APPLICATION_JSON;
+	}
+
+	// Mesmo corpo de erro do ResourceExceptionHandler
+	private static Mono<ServerResponse> error(ServerRequest request, HttpStatus status, String error, String message) {
+		StandardError body = new StandardError(Instant.now(), status.value(), error, message, request.path());
+		return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(body);
+	}
+}
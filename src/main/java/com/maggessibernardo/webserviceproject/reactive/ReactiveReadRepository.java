@@ -0,0 +1,171 @@
+package com.maggessibernardo.webserviceproject.reactive;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.maggessibernardo.webserviceproject.entities.Money;
+import com.maggessibernardo.webserviceproject.entities.enums.OrderStatus;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Consultas da pilha reativa, em SQL sobre as mesmas tabelas das entidades JPA.
+ *
+ * Produtos e categorias vêm de uma única consulta com junção, ordenada por
+ * produto; as linhas de um mesmo produto são agrupadas à medida que chegam, então
+ * a lista é transmitida produto a produto, no ritmo em que o cliente consome. O
+ * JSON segue o das entidades, exceto a senha do cliente, que não é exposta.
+ */
+public class ReactiveReadRepository {
+
+	private static final String PRODUCT_COLUMNS = "p.id, p.name, p.description, p.price_cents, p.img_url, p.version,"
+			+ " c.id as category_id, c.name as category_name";
+
+	private static final String PRODUCT_CATEGORIES = " left join tb_product_category pc on pc.product_id = p.id"
+			+ " left join tb_category c on c.id = pc.category_id";
+
+	private final DatabaseClient client;
+
+	public ReactiveReadRepository(DatabaseClient client) {
+		this.client = client;
+	}
+
+	public Flux<CategoryView> findCategories() {
+		return client.sql("select id, name from tb_category order by id")
+				.map(row -> new CategoryView(row.get("id", Long.class), row.get("name", String.class)))
+				.all();
+	}
+
+	public Flux<ProductView> findProducts() {
+		return client.sql("select " + PRODUCT_COLUMNS + " from tb_product p" + PRODUCT_CATEGORIES + " order by p.id")
+				.map(ProductRow::of)
+				.all()
+				.bufferUntilChanged(ProductRow::id)
+				.map(ReactiveReadRepository::toProduct);
+	}
+
+	/**
+	 * Pedido com cliente e pagamento, seguido de uma consulta dos itens (com
+	 * produtos e categorias). Pedidos arquivados não são servidos por aqui.
+	 * @return Pedido, ou vazio se não existir.
+	 */
+	public Mono<OrderView> findOrder(long id) {
+		return client.sql("select o.id, o.moment, o.order_status, o.version,"
+				+ " u.id as client_id, u.name as client_name, u.email as client_email, u.phone as client_phone,"
+				+ " u.role as client_role, u.version as client_version, pay.moment as payment_moment"
+				+ " from tb_order o left join tb_user u on u.id = o.client_id"
+				+ " left join tb_payment pay on pay.order_id = o.id where o.id = :id")
+				.bind("id", id)
+				.map(OrderHeader::of)
+				.one()
+				.flatMap(header -> findItems(id).map(header::toView));
+	}
+
+	private Mono<List<OrderItemView>> findItems(long orderId) {
+		return client.sql("select i.quantity, i.price_cents as item_price_cents, " + PRODUCT_COLUMNS
+				+ " from tb_order_item i join tb_product p on p.id = i.product_id" + PRODUCT_CATEGORIES
+				+ " where i.order_id = :orderId order by p.id")
+				.bind("orderId", orderId)
+				.map(row -> new ItemRow(row.get("quantity", Integer.class), money(row, "item_price_cents"),
+						ProductRow.of(row)))
+				.all()
+				.bufferUntilChanged(item -> item.product().id())
+				.map(rows -> {
+					ItemRow first = rows.get(0);
+					ProductView product = toProduct(rows.stream().map(ItemRow::product).toList());
+					return new OrderItemView(first.quantity(), first.price(), product,
+							first.price().times(first.quantity()));
+				})
+				.collectList();
+	}
+
+	private static ProductView toProduct(List<ProductRow> rows) {
+		ProductRow first = rows.get(0);
+		List<CategoryView> categories = new ArrayList<>(rows.size());
+		for (ProductRow row : rows) {
+			if (row.categoryId() != null) {
+				categories.add(new CategoryView(row.categoryId(), row.categoryName()));
+			}
+		}
+		return new ProductView(first.id(), first.name(), first.description(), first.price(), first.imgUrl(),
+				first.version(), categories);
+	}
+
+	private static Instant instant(Readable row, String column) {
+		OffsetDateTime value = row.get(column, OffsetDateTime.class);
+		return value != null ? value.toInstant() : null;
+	}
+
+	private static Money money(Readable row, String column) {
+		Long cents = row.get(column, Long.class);
+		return cents != null ? Money.ofCents(cents) : null;
+	}
+
+	private record ProductRow(Long id, String name, String description, Money price, String imgUrl, Long version,
+			Long categoryId, String categoryName) {
+
+		static ProductRow of(Readable row) {
+			return new ProductRow(row.get("id", Long.class), row.get("name", String.class),
+					row.get("description", String.class), money(row, "price_cents"),
+					row.get("img_url", String.class), row.get("version", Long.class),
+					row.get("category_id", Long.class), row.get("category_name", String.class));
+		}
+	}
+
+	private record ItemRow(Integer quantity, Money price, ProductRow product) {
+	}
+
+	private record OrderHeader(Long id, Instant moment, Integer status, Long version, ClientView client,
+			Instant paymentMoment) {
+
+		static OrderHeader of(Readable row) {
+			Long clientId = row.get("client_id", Long.class);
+			ClientView client = clientId == null ? null
+					: new ClientView(clientId, row.get("client_name", String.class),
+							row.get("client_email", String.class), row.get("client_phone", String.class),
+							row.get("client_role", String.class), row.get("client_version", Long.class));
+			return new OrderHeader(row.get("id", Long.class), instant(row, "moment"),
+					row.get("order_status", Integer.class), row.get("version", Long.class), client,
+					instant(row, "payment_moment"));
+		}
+
+		OrderView toView(List<OrderItemView> items) {
+			long total = 0;
+			for (OrderItemView item : items) {
+				total = Math.addExact(total, item.subTotal().cents());
+			}
+			PaymentView payment = paymentMoment != null ? new PaymentView(id, paymentMoment) : null;
+			return new OrderView(id, moment, OrderStatus.valueOf(status), version, client, items, payment,
+					Money.ofCents(total));
+		}
+	}
+
+	public record CategoryView(Long id, String name) {
+	}
+
+	public record ProductView(Long id, String name, String description, Money price, String imgUrl, Long version,
+			List<CategoryView> categories) {
+	}
+
+	public record ClientView(Long id, String name, String email, String phone, String role, Long version) {
+	}
+
+	public record PaymentView(Long id, Instant moment) {
+	}
+
+	public record OrderItemView(Integer quantity, Money price, ProductView product, Money subTotal) {
+	}
+
+	public record OrderView(Long id,
+			@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'", timezone = "GMT") Instant moment,
+			OrderStatus orderStatus, Long version, ClientView client, List<OrderItemView> items, PaymentView payment,
+			Money total) {
+	}
+}
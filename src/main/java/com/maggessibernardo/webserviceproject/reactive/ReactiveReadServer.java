@@ -0,0 +1,111 @@
+package com.maggessibernardo.webserviceproject.reactive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.logging.LoggingApplicationListener;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import com.maggessibernardo.webserviceproject.config.ReactiveProperties;
+import com.maggessibernardo.webserviceproject.services.JwtService;
+import com.maggessibernardo.webserviceproject.services.TokenRevocationService;
+import com.maggessibernardo.webserviceproject.services.UserTokenVersions;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sobe a pilha de leitura reativa (perfil "reactive") ao lado da API servlet.
+ *
+ * Quando a aplicação fica pronta, um segundo contexto Spring, reativo e
+ * independente, é iniciado na mesma JVM com {@link ReactiveReadConfig}: WebFlux
+ * em Netty na porta app.reactive.port, lendo o mesmo banco por R2DBC. Os dois
+ * contextos não têm relação de pai e filho, para que os eventos e as
+ * autoconfigurações de um não afetem o outro; os beans compartilhados são
+ * registrados explicitamente.
+ *
+ * WebFlux e R2DBC são dependências opcionais: só entram no jar empacotado com o
+ * perfil Maven "reactive". Sem elas, ligar app.reactive.enabled falha na
+ * inicialização em vez de deixar a pilha reativa desligada sem aviso.
+ */
+@Component
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveReadServer {
+
+	private static final Logger log = LoggerFactory.getLogger(ReactiveReadServer.class);
+
+	private static final String[] REQUIRED_CLASSES = { "org.springframework.web.reactive.DispatcherHandler",
+			"reactor.netty.http.server.HttpServer", "org.springframework.r2dbc.core.DatabaseClient",
+			"io.r2dbc.pool.ConnectionPool" };
+
+	private final ApplicationContext applicationContext;
+	private final ReactiveProperties properties;
+	private final JwtService jwtService;
+	private final TokenRevocationService revocationService;
+	private final UserTokenVersions versions;
+
+	private volatile ConfigurableApplicationContext reactiveContext;
+
+	public ReactiveReadServer(ApplicationContext applicationContext, ReactiveProperties properties,
+			JwtService jwtService, TokenRevocationService revocationService, UserTokenVersions versions) {
+		for (String required : REQUIRED_CLASSES) {
+			if (!ClassUtils.isPresent(required, getClass().getClassLoader())) {
+				throw new IllegalStateException("app.reactive.enabled is set but " + required
+						+ " is not on the classpath; package the application with the Maven profile 'reactive'");
+			}
+		}
+		this.applicationContext = applicationContext;
+		this.properties = properties;
+		this.jwtService = jwtService;
+		this.revocationService = revocationService;
+		this.versions = versions;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void start(ApplicationReadyEvent event) {
+		if (event.getApplicationContext() != applicationContext || reactiveContext != null) {
+			return;
+		}
+		SpringApplication application = new SpringApplicationBuilder(ReactiveReadConfig.class)
+				.web(WebApplicationType.REACTIVE)
+				.bannerMode(Banner.Mode.OFF)
+				.logStartupInfo(false)
+				.registerShutdownHook(false) // fechado junto com o contexto da aplicação
+				.initializers(context -> {
+					context.getBeanFactory().registerSingleton("reactiveProperties", properties);
+					context.getBeanFactory().registerSingleton("jwtService", jwtService);
+					context.getBeanFactory().registerSingleton("tokenRevocationService", revocationService);
+					context.getBeanFactory().registerSingleton("userTokenVersions", versions);
+				})
+				.build();
+		// O logging já foi configurado pela aplicação; o contexto reativo não o reinicia
+		application.setListeners(application.getListeners().stream()
+				.filter(listener -> !(listener instanceof LoggingApplicationListener))
+				.toList());
+		reactiveContext = application.run();
+		log.info("Reactive read API listening on port {}", getPort());
+	}
+
+	/**
+	 * @return Porta do servidor reativo (útil com app.reactive.port=0).
+	 */
+	public int getPort() {
+		return ((WebServerApplicationContext) reactiveContext).getWebServer().getPort();
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (reactiveContext != null) {
+			reactiveContext.close();
+		}
+	}
+}
@@ -1,11 +1,39 @@
 package com.maggessibernardo.webserviceproject.repositories;
 
+import java.time.Instant;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.maggessibernardo.webserviceproject.entities.OrderItem;
 import com.maggessibernardo.webserviceproject.entities.pk.OrderItemPK;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, OrderItemPK>{
 	
+	/**
+	 * Soma e médias dos itens dos pedidos do período, calculadas no banco sobre os
+	 * centavos: a soma é exata e as médias são divididas em decimal e arredondadas
+	 * para o centavo, sem trazer os itens para a aplicação. Só pedidos das tabelas
+	 * quentes entram (os arquivados não).
+	 */
+	@Query(value = "select count(distinct i.order_id) as orders, count(*) as items,"
+			+ " coalesce(sum(i.quantity), 0) as units,"
+			+ " coalesce(sum(i.price_cents * i.quantity), 0) as revenue_cents,"
+			+ " cast(round(cast(sum(i.price_cents * i.quantity) as decimal(38, 2))"
+			+ "   / nullif(count(distinct i.order_id), 0)) as bigint) as average_order_cents,"
+			+ " cast(round(cast(sum(i.price_cents * i.quantity) as decimal(38, 2))"
+			+ "   / nullif(sum(i.quantity), 0)) as bigint) as average_unit_price_cents"
+			+ " from tb_order_item i join tb_order o on o.id = i.order_id"
+			+ " where o.moment >= :from and o.moment < :to"
+			+ " and (cast(:status as integer) is null or o.order_status = :status)", nativeQuery = true)
+	SalesTotals sumSales(Instant from, Instant to, Integer status);
 
-}
\ No newline at end of file
+	interface SalesTotals {
+		Long getOrders();
+		Long getItems();
+		Long getUnits();
+		Long getRevenueCents();
+		Long getAverageOrderCents();
+		Long getAverageUnitPriceCents();
+	}
+}
@@ -1,9 +1,80 @@
 package com.maggessibernardo.webserviceproject.repositories;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.maggessibernardo.webserviceproject.entities.Order;
 
+import jakarta.persistence.LockModeType;
+
 public interface OrderRepository extends JpaRepository<Order, Long> {
-	
+
+	/**
+	 * Pedidos de um cliente em ordem decrescente de (moment, id), a partir da
+	 * posição (beforeMoment, beforeId) exclusiva — paginação por chave sobre o
+	 * índice idx_order_client_history.
+	 */
+	@Query("select o from Order o where o.client.id = :clientId"
+			+ " and o.moment >= :from and o.moment <= :beforeMoment"
+			+ " and (o.moment < :beforeMoment or o.id < :beforeId)"
+			+ " and (:status is null or o.orderStatus = :status)"
+			+ " order by o.moment desc, o.id desc")
+	List<Order> findClientHistory(Long clientId, Instant from, Instant beforeMoment, Long beforeId, Integer status,
+			Limit limit);
+
+	/**
+	 * Muda o status de vários pedidos em um único UPDATE. Só são alterados os
+	 * pedidos cujo status atual está em "from", então transições ilegais e pedidos
+	 * já movidos por outra requisição são ignorados pelo próprio banco. A versão
+	 * também é incrementada, para que escritas baseadas em entidades carregadas
+	 * antes do UPDATE falhem no controle otimista.
+	 * @return Quantidade de linhas alteradas.
+	 */
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Order o set o.orderStatus = :to, o.version = o.version + 1 where o.id in :ids and o.orderStatus in :from")
+	int updateStatus(Collection<Long> ids, Collection<Integer> from, Integer to);
+
+	/**
+	 * Pedidos do lote que podem ir para o novo status, com o cliente de cada um,
+	 * travados até o fim da transação: o UPDATE seguinte altera exatamente estes
+	 * pedidos, e cada um vira um evento para o cliente em GET /orders/stream.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select o.id as id, o.client.id as clientId from Order o where o.id in :ids and o.orderStatus in :from")
+	List<StatusCandidate> lockStatusCandidates(Collection<Long> ids, Collection<Integer> from);
+
+	/**
+	 * Pedidos por id com cliente, pagamento, itens e produtos dos itens na mesma
+	 * consulta (GET /orders?ids=).
+	 */
+	@EntityGraph(attributePaths = { "client", "payment", "items", "items.id.product" })
+	List<Order> findByIdIn(Collection<Long> ids);
+
+	/**
+	 * Registra o pagamento dos pedidos que ainda não têm um, no momento informado.
+	 * Usado pela transição em lote para PAID, na mesma transação do UPDATE.
+	 */
+	@Modifying
+	@Query(value = "insert into tb_payment (order_id, moment) select o.id, :moment from tb_order o"
+			+ " where o.id in :ids and not exists (select 1 from tb_payment p where p.order_id = o.id)",
+			nativeQuery = true)
+	int insertPayments(Collection<Long> ids, Instant moment);
+
+	@Query("select o.id from Order o where o.orderStatus = :status and o.moment < :before")
+	List<Long> findIdsByStatusBefore(Integer status, Instant before, Limit limit);
+
+	interface StatusCandidate {
+		Long getId();
+		Long getClientId();
+	}
 }
@@ -1,10 +1,25 @@
 package com.maggessibernardo.webserviceproject.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.maggessibernardo.webserviceproject.entities.Product;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 	
+	/**
+	 * Produtos por id com as categorias na mesma consulta (GET /products?ids=).
+	 */
+	@EntityGraph(attributePaths = "categories")
+	List<Product> findByIdIn(Collection<Long> ids);
 	
+	/**
+	 * Produto com as categorias na mesma consulta (GET /products/{id}).
+	 */
+	@EntityGraph(attributePaths = "categories")
+	Optional<Product> findWithCategoriesById(Long id);
 }
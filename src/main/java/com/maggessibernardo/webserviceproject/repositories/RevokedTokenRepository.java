@@ -0,0 +1,25 @@
+package com.maggessibernardo.webserviceproject.repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.maggessibernardo.webserviceproject.entities.RevokedToken;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+	@Query("select r.jti from RevokedToken r where r.expiresAt > :now")
+	List<String> findActiveJtis(Instant now);
+
+	@Query("select r.jti from RevokedToken r where r.revokedAt >= :since and r.expiresAt > :now")
+	List<String> findJtisRevokedSince(Instant since, Instant now);
+
+	@Transactional
+	@Modifying
+	@Query("delete from RevokedToken r where r.expiresAt <= :now")
+	int deleteExpired(Instant now);
+}
@@ -1,11 +1,45 @@
 package com.maggessibernardo.webserviceproject.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.maggessibernardo.webserviceproject.entities.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 	Optional<User> findByEmail(String email);
+
+	/**
+	 * Para cada id existente, informa em uma única consulta se o usuário ainda é
+	 * cliente de algum pedido, ativo ou arquivado (EXISTS em tb_order e em
+	 * tb_order_archive, que não tem chave estrangeira), sem carregar as entidades.
+	 */
+	@Query(value = "select u.id as id, u.email as email,"
+			+ " case when exists (select 1 from tb_order o where o.client_id = u.id)"
+			+ " or exists (select 1 from tb_order_archive a where a.client_id = u.id) then true else false end as referenced"
+			+ " from tb_user u where u.id in :ids", nativeQuery = true)
+	List<DeleteCandidate> findDeleteCandidates(Collection<Long> ids);
+
+	/**
+	 * Remove os usuários em um único DELETE; as condições NOT EXISTS são repetidas
+	 * para não apagar quem ganhou um pedido, ou teve um arquivado, depois da verificação.
+	 * @return Quantidade de usuários removidos.
+	 */
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@Query(value = "delete from tb_user u where u.id in :ids"
+			+ " and not exists (select 1 from tb_order o where o.client_id = u.id)"
+			+ " and not exists (select 1 from tb_order_archive a where a.client_id = u.id)", nativeQuery = true)
+	int deleteUnreferenced(Collection<Long> ids);
+
+	interface DeleteCandidate {
+		Long getId();
+		String getEmail();
+		Boolean getReferenced();
+	}
 }
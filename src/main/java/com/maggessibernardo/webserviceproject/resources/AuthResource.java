@@ -0,0 +1,47 @@
+package com.maggessibernardo.webserviceproject.resources;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.maggessibernardo.webserviceproject.services.JwtService;
+import com.maggessibernardo.webserviceproject.services.TokenRevocationService;
+import com.maggessibernardo.webserviceproject.services.execptions.BadRequestException;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+
+@RestController
+@RequestMapping(value = "/api/auth")
+public class AuthResource {
+	
+	@Autowired
+	private JwtService jwtService;
+	
+	@Autowired
+	private TokenRevocationService revocationService;
+	
+	// Revoga o token apresentado até a sua expiração; token inválido ou expirado: 401
+	@PostMapping(value = "/logout")
+	public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization){
+		if (!authorization.startsWith("Bearer ")) {
+			throw new BadRequestException("Bearer token required");
+		}
+		Claims claims;
+		try {
+			claims = jwtService.extractAllClaims(authorization.substring(7));
+		} catch (JwtException | IllegalArgumentException e) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		if (claims.getId() == null) {
+			throw new BadRequestException("Token has no jti and cannot be revoked");
+		}
+		revocationService.revoke(claims.getId(), claims.getExpiration().toInstant());
+		return ResponseEntity.noContent().build();
+	}
+}
@@ -1,16 +1,30 @@
 package com.maggessibernardo.webserviceproject.resources;
 
+import java.time.Instant;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.maggessibernardo.webserviceproject.entities.Order;
+import com.maggessibernardo.webserviceproject.entities.enums.OrderStatus;
+import com.maggessibernardo.webserviceproject.services.MultiGet;
 import com.maggessibernardo.webserviceproject.services.OrderService;
+import com.maggessibernardo.webserviceproject.services.OrderService.SalesSummary;
+import com.maggessibernardo.webserviceproject.services.OrderService.StatusTransition;
+import com.maggessibernardo.webserviceproject.services.OrderService.StatusTransitionResult;
+import com.maggessibernardo.webserviceproject.services.execptions.BadRequestException;
 
 //classe irá disponilibizar um recurso web para trabalhar com o objeto User
 
@@ -26,11 +40,37 @@ public class OrderResource {
 		List<Order> list = service.findAll();
 		return ResponseEntity.ok().body(list);
 	}
+	//VÁRIOS IDS EM UMA REQUISIÇÃO (?ids=1,2,3): ENCONTRADOS NA ORDEM PEDIDA E IDS INEXISTENTES
+	@GetMapping(params = "ids")
+	public ResponseEntity<MultiGet.Result<Order>> findAllById(@RequestParam List<Long> ids){
+		MultiGet.Result<Order> result = service.findAllById(ids);
+		return ResponseEntity.ok().body(result);
+	}
 	@GetMapping(value = "/{id}")
 	public ResponseEntity<Order> findById(@PathVariable Long id){
 		Order obj = service.findById(id);
 		return ResponseEntity.ok().body(obj);
 	}
+	//MUDANÇAS DE STATUS E PAGAMENTO DOS PEDIDOS DO USUÁRIO AUTENTICADO (SERVER-SENT EVENTS)
+	@GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter stream(@AuthenticationPrincipal UserDetails principal){
+		return service.subscribe(principal.getUsername());
+	}
+	//TOTAIS DE VENDAS DO PERÍODO (SOMA E MÉDIAS CALCULADAS NO BANCO)
+	@GetMapping(value = "/summary")
+	public ResponseEntity<SalesSummary> summary(@RequestParam(required = false) Instant from,
+			@RequestParam(required = false) Instant to, @RequestParam(required = false) OrderStatus status){
+		SalesSummary summary = service.summarize(from, to, status);
+		return ResponseEntity.ok().body(summary);
+	}
+	@PostMapping(value = "/status")
+	public ResponseEntity<StatusTransitionResult> transitionStatus(@RequestBody StatusTransition request){
+		if (request.ids() == null) {
+			throw new BadRequestException("ids is required");
+		}
+		StatusTransitionResult result = service.transitionStatus(request.ids(), request.status());
+		return ResponseEntity.ok().body(result);
+	}
 	
 	
 }
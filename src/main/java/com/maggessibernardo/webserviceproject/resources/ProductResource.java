@@ -1,17 +1,41 @@
 package com.maggessibernardo.webserviceproject.resources;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.maggessibernardo.webserviceproject.config.ImageProperties;
 import com.maggessibernardo.webserviceproject.entities.Product;
+import com.maggessibernardo.webserviceproject.services.FileTransfer;
+import com.maggessibernardo.webserviceproject.services.MergePatch;
+import com.maggessibernardo.webserviceproject.services.MultiGet;
+import com.maggessibernardo.webserviceproject.services.ProductImageService;
+import com.maggessibernardo.webserviceproject.services.ProductImageService.ImageFile;
+import com.maggessibernardo.webserviceproject.services.ProductImportService;
+import com.maggessibernardo.webserviceproject.services.ProductImportService.ImportStatus;
 import com.maggessibernardo.webserviceproject.services.ProductService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 //classe irá disponilibizar um recurso web para trabalhar com o objeto User
 
 @RestController
@@ -21,15 +45,84 @@ public class ProductResource {
 	@Autowired
 	private ProductService service;
 	
+	@Autowired
+	private ProductImageService imageService;
+	
+	@Autowired
+	private ImageProperties imageProperties;
+	
+	@Autowired
+	private ProductImportService importService;
+	
 	@GetMapping
 	public ResponseEntity<List<Product>> findAll(){
 		List<Product> list = service.findAll();
 		return ResponseEntity.ok().body(list);
 	}
+	//VÁRIOS IDS EM UMA REQUISIÇÃO (?ids=1,2,3): ENCONTRADOS NA ORDEM PEDIDA E IDS INEXISTENTES
+	@GetMapping(params = "ids")
+	public ResponseEntity<MultiGet.Result<Product>> findAllById(@RequestParam List<Long> ids){
+		MultiGet.Result<Product> result = service.findAllById(ids);
+		return ResponseEntity.ok().body(result);
+	}
 	@GetMapping(value = "/{id}")
 	public ResponseEntity<Product> findById(@PathVariable Long id){
 		Product obj = service.findById(id);
-		return ResponseEntity.ok().body(obj);
+		return ResponseEntity.ok().eTag(String.valueOf(obj.getVersion())).body(obj);
+	}
+	//ATUALIZAÇÃO PARCIAL (JSON MERGE PATCH); COM If-Match NÃO HÁ LEITURA DO PRODUTO
+	@PatchMapping(value = "/{id}", consumes = "application/merge-patch+json")
+	public ResponseEntity<Product> patch(@PathVariable Long id, @RequestBody Map<String, Object> patch,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+		MergePatch.Result<Product> result = service.patch(id, patch, MergePatch.parseVersion(ifMatch));
+		String eTag = String.valueOf(result.version());
+		if (result.entity() == null) {
+			return ResponseEntity.noContent().eTag(eTag).build();
+		}
+		return ResponseEntity.ok().eTag(eTag).body(result.entity());
+	}
+	//IMAGEM DO PRODUTO (ORIGINAL OU MINIATURA ?size=), ENVIADA SEM CÓPIA PELO HEAP, COM Range E ETag
+	@GetMapping(value = "/{id}/image")
+	public void image(@PathVariable Long id, @RequestParam(required = false) Integer size,
+			@RequestParam(required = false) String v, HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+		try (ImageFile image = imageService.find(id, size)) {
+			// Com a versão atual na URL o conteúdo nunca muda; sem ela, revalida depois de max-age
+			String cacheControl = image.version().equals(v) ? "public, max-age=31536000, immutable"
+					: "public, max-age=" + imageProperties.getMaxAge().toSeconds();
+			if (image.channel() != null) {
+				FileTransfer.send(request, response, image.channel(), image.contentType(), image.etag(), cacheControl);
+			} else {
+				FileTransfer.send(request, response, image.path(), image.contentType(), image.etag(), cacheControl);
+			}
+		}
+	}
+	//ENVIO DA IMAGEM (CORPO PNG, JPEG OU GIF); O imgUrl DO PRODUTO PASSA A APONTAR PARA ELA
+	@PutMapping(value = "/{id}/image", consumes = { "image/png", "image/jpeg", "image/gif" })
+	public ResponseEntity<Product> storeImage(@PathVariable Long id, HttpServletRequest request) throws IOException {
+		Product obj = imageService.store(id, request.getInputStream());
+		return ResponseEntity.ok().eTag(String.valueOf(obj.getVersion())).body(obj);
+	}
+	//IMPORTAÇÃO DE PRODUTOS POR CSV (CAMPO "file"), EM SEGUNDO PLANO; 202 COM O ENDEREÇO DO ANDAMENTO
+	@PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+	public ResponseEntity<ImportStatus> importCsv(@RequestParam MultipartFile file) throws IOException {
+		ImportStatus status = importService.start(file);
+		URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(status.id()).toUri();
+		return ResponseEntity.accepted().location(uri).body(status);
+	}
+	//IMPORTAÇÃO DE UM CSV GRANDE COMO CORPO DA REQUISIÇÃO (ATÉ app.import.max-size), SEM MULTIPART
+	@PostMapping(value = "/import", consumes = "text/csv")
+	public ResponseEntity<ImportStatus> importCsvBody(@RequestParam(required = false) String filename,
+			HttpServletRequest request) throws IOException {
+		ImportStatus status = importService.start(request.getInputStream(), filename);
+		URI uri = ServletUriComponentsBuilder.fromCurrentRequest().replaceQuery(null).path("/{id}")
+				.buildAndExpand(status.id()).toUri();
+		return ResponseEntity.accepted().location(uri).body(status);
+	}
+	//ANDAMENTO DA IMPORTAÇÃO: LINHAS INSERIDAS, ATUALIZADAS E ERROS POR LINHA
+	@GetMapping(value = "/import/{id}")
+	public ResponseEntity<ImportStatus> importStatus(@PathVariable String id){
+		return ResponseEntity.ok().body(importService.find(id));
 	}
 	
 	
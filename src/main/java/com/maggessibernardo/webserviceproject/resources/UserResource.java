@@ -1,21 +1,32 @@
 package com.maggessibernardo.webserviceproject.resources;
 
 import java.net.URI;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.maggessibernardo.webserviceproject.entities.Order;
 import com.maggessibernardo.webserviceproject.entities.User;
+import com.maggessibernardo.webserviceproject.entities.enums.OrderStatus;
+import com.maggessibernardo.webserviceproject.services.MergePatch;
+import com.maggessibernardo.webserviceproject.services.MultiGet;
+import com.maggessibernardo.webserviceproject.services.OrderService;
 import com.maggessibernardo.webserviceproject.services.UserService;
 
 //classe irá disponilibizar um recurso web para trabalhar com o objeto User
@@ -27,15 +38,41 @@ public class UserResource {
 	@Autowired
 	private UserService service;
 	
+	@Autowired
+	private OrderService orderService;
+	
 	@GetMapping
 	public ResponseEntity<List<User>> findAll(){
 		List<User> list = service.findAll();
 		return ResponseEntity.ok().body(list);
 	}
+	//VÁRIOS IDS EM UMA REQUISIÇÃO (?ids=1,2,3): ENCONTRADOS NA ORDEM PEDIDA E IDS INEXISTENTES
+	@GetMapping(params = "ids")
+	public ResponseEntity<MultiGet.Result<User>> findAllById(@RequestParam List<Long> ids){
+		MultiGet.Result<User> result = service.findAllById(ids);
+		return ResponseEntity.ok().body(result);
+	}
 	@GetMapping(value = "/{id}")
 	public ResponseEntity<User> findById(@PathVariable Long id){
 		User obj = service.findById(id);
-		return ResponseEntity.ok().body(obj);
+		return ResponseEntity.ok().eTag(String.valueOf(obj.getVersion())).body(obj);
+	}
+	//HISTÓRICO DE PEDIDOS DO CLIENTE, PAGINADO POR CURSOR (after)
+	@GetMapping(value = "/{id}/orders")
+	public ResponseEntity<List<Order>> findOrders(@PathVariable Long id,
+			@RequestParam(required = false) Instant from,
+			@RequestParam(required = false) Instant to,
+			@RequestParam(required = false) OrderStatus status,
+			@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "20") int size){
+		OrderService.HistoryPage page = orderService.findClientHistory(id, from, to, status, after, size);
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (page.nextCursor() != null) {
+			URI next = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("after", page.nextCursor()).build().toUri();
+			response.header("X-Next-Cursor", page.nextCursor());
+			response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+		}
+		return response.body(page.orders());
 	}
 	//FORMA ADEQUADO DE INSERIR UM OBJETO NO BANCO DE DADOS
 	@PostMapping
@@ -44,11 +81,28 @@ public class UserResource {
 		URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(obj.getId()).toUri();//CRIANDO CAMINHO DE INSERÇÃO 201
 		return ResponseEntity.created(uri).body(obj);
 	}
+	//REMOÇÃO EM LOTE: DELETE /users?ids=1,2,3 COM O RESULTADO DE CADA ID
+	@DeleteMapping(params = "ids")
+	public ResponseEntity<List<UserService.DeleteResult>> deleteAll(@RequestParam List<Long> ids){
+		List<UserService.DeleteResult> results = service.deleteAll(ids);
+		return ResponseEntity.ok().body(results);
+	}
 	@DeleteMapping(value = "/{id}")
 	public ResponseEntity<Void> delete(@PathVariable Long id){
 		service.delete(id);
 		return ResponseEntity.noContent().build();
 	}
+	//ATUALIZAÇÃO PARCIAL (JSON MERGE PATCH); COM If-Match NÃO HÁ LEITURA DO USUÁRIO
+	@PatchMapping(value = "/{id}", consumes = "application/merge-patch+json")
+	public ResponseEntity<User> patch(@PathVariable Long id, @RequestBody Map<String, Object> patch,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+		MergePatch.Result<User> result = service.patch(id, patch, MergePatch.parseVersion(ifMatch));
+		String eTag = String.valueOf(result.version());
+		if (result.entity() == null) {
+			return ResponseEntity.noContent().eTag(eTag).build();
+		}
+		return ResponseEntity.ok().eTag(eTag).body(result.entity());
+	}
 	@PutMapping(value = "/{id}")
 	public ResponseEntity<User> update(@PathVariable Long id,@RequestBody User obj){
 		obj = service.update(id, obj);
@@ -2,25 +2,32 @@ package com.maggessibernardo.webserviceproject.resources.exceptions;
 
 import java.time.Instant;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import com.maggessibernardo.webserviceproject.services.execptions.BadRequestException;
 import com.maggessibernardo.webserviceproject.services.execptions.DatabaseException;
+import com.maggessibernardo.webserviceproject.services.execptions.PreconditionFailedException;
 import com.maggessibernardo.webserviceproject.services.execptions.ResourceNotFoundException;
+import com.maggessibernardo.webserviceproject.services.execptions.TooManyRequestsException;
 
+import jakarta.persistence.OptimisticLockException;
 import jakarta.servlet.http.HttpServletRequest;
 
 @ControllerAdvice
 public class ResourceExceptionHandler {
 	
+	private static final int NOT_FOUND = HttpStatus.NOT_FOUND.value();
+	
+	// Caminho quente (ids inexistentes): sem log e sem stack trace, só o corpo do erro
 	@ExceptionHandler(ResourceNotFoundException.class)
 	public ResponseEntity<StandardError> resourceNotFound(ResourceNotFoundException e,HttpServletRequest request){
-		String error = "Resource not found";
-		HttpStatus status = HttpStatus.NOT_FOUND;
-		StandardError err = new StandardError(Instant.now(),status.value(),error,e.getMessage(),request.getRequestURI());
-		return ResponseEntity.status(status).body(err);
+		StandardError err = new StandardError(Instant.now(),NOT_FOUND,"Resource not found",e.getMessage(),request.getRequestURI());
+		return ResponseEntity.status(NOT_FOUND).body(err);
 	}
 
 	@ExceptionHandler(DatabaseException.class)
@@ -30,4 +37,37 @@ public class ResourceExceptionHandler {
 		StandardError err = new StandardError(Instant.now(),status.value(),error,e.getMessage(),request.getRequestURI());
 		return ResponseEntity.status(status).body(err);
 	}
+
+	@ExceptionHandler(PreconditionFailedException.class)
+	public ResponseEntity<StandardError> preconditionFailed(PreconditionFailedException e,HttpServletRequest request){
+		String error = "Precondition failed";
+		HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+		StandardError err = new StandardError(Instant.now(),status.value(),error,e.getMessage(),request.getRequestURI());
+		return ResponseEntity.status(status).body(err);
+	}
+
+	// Conflito de versão que persistiu depois das novas tentativas (OptimisticRetry)
+	@ExceptionHandler({ OptimisticLockingFailureException.class, OptimisticLockException.class })
+	public ResponseEntity<StandardError> conflict(RuntimeException e,HttpServletRequest request){
+		String error = "Conflict";
+		HttpStatus status = HttpStatus.CONFLICT;
+		StandardError err = new StandardError(Instant.now(),status.value(),error,"The resource was modified concurrently, try again",request.getRequestURI());
+		return ResponseEntity.status(status).body(err);
+	}
+
+	@ExceptionHandler(TooManyRequestsException.class)
+	public ResponseEntity<StandardError> tooManyRequests(TooManyRequestsException e,HttpServletRequest request){
+		String error = "Too many requests";
+		HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+		StandardError err = new StandardError(Instant.now(),status.value(),error,e.getMessage(),request.getRequestURI());
+		return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(err);
+	}
+
+	@ExceptionHandler(BadRequestException.class)
+	public ResponseEntity<StandardError> badRequest(BadRequestException e,HttpServletRequest request){
+		String error = "Bad request";
+		HttpStatus status = HttpStatus.BAD_REQUEST;
+		StandardError err = new StandardError(Instant.now(),status.value(),error,e.getMessage(),request.getRequestURI());
+		return ResponseEntity.status(status).body(err);
+	}
 }
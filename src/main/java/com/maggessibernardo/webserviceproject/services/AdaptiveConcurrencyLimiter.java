@@ -0,0 +1,117 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitador de concorrência adaptativo no estilo AIMD (additive increase,
+ * multiplicative decrease).
+ *
+ * O limite de requisições simultâneas cresce de uma unidade sempre que uma
+ * requisição termina dentro da latência alvo com o limite praticamente todo em
+ * uso, e é reduzido multiplicativamente quando a latência medida ultrapassa o
+ * alvo. Assim, quando o pool de conexões satura e a latência sobe, o limite cai
+ * e o excesso é rejeitado em vez de se acumular na fila do Tomcat.
+ *
+ * A redução acontece no máximo uma vez por janela: as requisições lentas que
+ * começaram antes da última redução foram admitidas com o limite antigo e não
+ * reduzem de novo. Sem isso, uma única rajada lenta derrubaria o limite ao
+ * mínimo, uma redução por requisição terminada.
+ *
+ * Todas as operações são livres de bloqueio (CAS), para que o limitador não
+ * vire ele mesmo um ponto de contenção.
+ *
+ * @author BERNARDO MAGGESSI
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private final String name;
+	private final int minLimit;
+	private final int maxLimit;
+	private final long targetLatencyNanos;
+	private final double backoffRatio;
+
+	// Valor de lastDecrease antes da primeira redução
+	private static final long NEVER = Long.MIN_VALUE;
+
+	private final AtomicInteger limit;
+	private final AtomicLong lastDecrease = new AtomicLong(NEVER);
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final LongAdder rejected = new LongAdder();
+
+	public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+			long targetLatencyNanos, double backoffRatio) {
+		if (minLimit < 1 || maxLimit < minLimit) {
+			throw new IllegalArgumentException("Invalid limits for " + name + ": min=" + minLimit + ", max=" + maxLimit);
+		}
+		this.name = name;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.targetLatencyNanos = targetLatencyNanos;
+		this.backoffRatio = backoffRatio;
+		this.limit = new AtomicInteger(Math.max(minLimit, Math.min(maxLimit, initialLimit)));
+	}
+
+	/**
+	 * Tenta reservar uma vaga para a requisição.
+	 * @return true se a requisição pode prosseguir; false se deve ser rejeitada.
+	 */
+	public boolean tryAcquire() {
+		for (;;) {
+			int current = inFlight.get();
+			if (current >= limit.get()) {
+				rejected.increment();
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Libera a vaga reservada e ajusta o limite com base na latência medida.
+	 * @param latencyNanos - Duração da requisição.
+	 */
+	public void release(long latencyNanos) {
+		release(latencyNanos, System.nanoTime());
+	}
+
+	/**
+	 * @param nowNanos - Fim da requisição, no relógio de {@link System#nanoTime()}.
+	 */
+	public void release(long latencyNanos, long nowNanos) {
+		int inFlightBefore = inFlight.getAndDecrement();
+		int current = limit.get();
+		if (latencyNanos > targetLatencyNanos) {
+			long last = lastDecrease.get();
+			// Admitida antes da última redução: já contada nela
+			if (last != NEVER && nowNanos - latencyNanos - last < 0) {
+				return;
+			}
+			if (lastDecrease.compareAndSet(last, nowNanos)) {
+				limit.updateAndGet(value -> Math.max(minLimit, (int) (value * backoffRatio)));
+			}
+		} else if (current < maxLimit && inFlightBefore * 2 >= current) {
+			// Só cresce quando o limite está de fato sendo usado
+			limit.compareAndSet(current, current + 1);
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getLimit() {
+		return limit.get();
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+}
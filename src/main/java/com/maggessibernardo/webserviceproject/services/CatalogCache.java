@@ -0,0 +1,372 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.maggessibernardo.webserviceproject.config.CatalogSnapshotProperties;
+import com.maggessibernardo.webserviceproject.entities.Category;
+import com.maggessibernardo.webserviceproject.entities.Money;
+import com.maggessibernardo.webserviceproject.entities.Product;
+import com.maggessibernardo.webserviceproject.services.CatalogSnapshot.Catalog;
+import com.maggessibernardo.webserviceproject.services.CatalogSnapshot.Version;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Catálogo (categorias, produtos e vínculos) em memória, para que as leituras de
+ * GET /products e GET /categories não dependam do banco, inclusive logo depois de
+ * um reinício.
+ *
+ * Quando a aplicação fica pronta, o catálogo é carregado do {@link CatalogSnapshot}
+ * em app.catalog.snapshot.file se a versão e o hash do conteúdo gravados nele forem
+ * os do banco; caso contrário o arquivo é descartado e o catálogo vem do banco, em
+ * três consultas JDBC. O hash percorre todas as linhas, então só é calculado nesse
+ * início e quando o catálogo é recarregado.
+ *
+ * A cada app.catalog.snapshot.refresh-interval só a {@link Version} é conferida: a
+ * linha de tb_catalog_version e as contagens e maiores ids. Escritas da própria
+ * aplicação chamam {@link #invalidate()} depois do commit, que incrementa essa
+ * linha (os outros nós recarregam no próximo refresh) e, até o recarregamento, faz
+ * as leituras voltarem ao banco, sem servir dado antigo. Alterações feitas por
+ * fora da aplicação que não mudam as contagens precisam incrementar
+ * tb_catalog_version; senão só são vistas no próximo início. O snapshot é
+ * regravado quando o catálogo muda e no desligamento. Enquanto o catálogo não está carregado, ou com
+ * app.catalog.snapshot.enabled=false, os métodos de leitura devolvem null.
+ *
+ * Métricas: "catalog.cache.loads" (tag source=snapshot|database) e
+ * "catalog.cache.products".
+ */
+@Component
+@Lazy(false)
+public class CatalogCache {
+
+	private static final Logger log = LoggerFactory.getLogger(CatalogCache.class);
+
+	public enum Source {
+		SNAPSHOT, DATABASE
+	}
+
+	private final JdbcTemplate jdbcTemplate;
+	private final CatalogSnapshotProperties props;
+
+	// Incrementada a cada invalidação; o catálogo só vale se foi carregado na geração atual
+	private final AtomicLong generation = new AtomicLong();
+	private volatile Loaded loaded;
+	// Versão do último snapshot gravado ou lido
+	private Version written;
+
+	private final Counter snapshotLoads;
+	private final Counter databaseLoads;
+
+	public CatalogCache(JdbcTemplate jdbcTemplate, CatalogSnapshotProperties props, MeterRegistry registry) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.props = props;
+		this.snapshotLoads = registry.counter("catalog.cache.loads", "source", "snapshot");
+		this.databaseLoads = registry.counter("catalog.cache.loads", "source", "database");
+		Gauge.builder("catalog.cache.products", this,
+				cache -> cache.loaded != null ? cache.loaded.catalog().products().size() : 0).register(registry);
+	}
+
+	private record Loaded(Catalog catalog, long generation, Map<Long, Product> products,
+			Map<Long, Category> categories) {
+	}
+
+	/**
+	 * Todos os produtos, por id, ou null se o catálogo não estiver disponível. Os
+	 * métodos de leitura devolvem cópias: quem as altera não muda o catálogo.
+	 */
+	public List<Product> products() {
+		Loaded current = current();
+		if (current == null) {
+			return null;
+		}
+		Map<Long, Category> categories = new HashMap<>();
+		List<Product> products = new ArrayList<>(current.catalog().products().size());
+		for (Product product : current.catalog().products()) {
+			products.add(copyOf(product, categories));
+		}
+		return products;
+	}
+
+	/**
+	 * @return Produto, ou null se não estiver no catálogo ou o catálogo não estiver disponível.
+	 */
+	public Product product(Long id) {
+		Loaded current = current();
+		Product product = current != null ? current.products().get(id) : null;
+		return product != null ? copyOf(product, new HashMap<>()) : null;
+	}
+
+	public List<Category> categories() {
+		Loaded current = current();
+		if (current == null) {
+			return null;
+		}
+		List<Category> categories = new ArrayList<>(current.catalog().categories().size());
+		for (Category category : current.catalog().categories()) {
+			categories.add(copyOf(category));
+		}
+		return categories;
+	}
+
+	public Category category(Long id) {
+		Loaded current = current();
+		Category category = current != null ? current.categories().get(id) : null;
+		return category != null ? copyOf(category) : null;
+	}
+
+	/**
+	 * Cópia desanexada do produto e das suas categorias; as categorias já copiadas
+	 * em categories são reaproveitadas, como no catálogo.
+	 */
+	static Product copyOf(Product product, Map<Long, Category> categories) {
+		Product copy = new Product(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+				product.getImgUrl());
+		copy.setImageHash(product.getImageHash());
+		copy.setImageType(product.getImageType());
+		copy.setVersion(product.getVersion());
+		for (Category category : product.getCategories()) {
+			copy.getCategories().add(categories.computeIfAbsent(category.getId(), id -> copyOf(category)));
+		}
+		return copy;
+	}
+
+	static Category copyOf(Category category) {
+		return new Category(category.getId(), category.getName());
+	}
+
+	public boolean isAvailable() {
+		return current() != null;
+	}
+
+	/**
+	 * Descarta o catálogo em memória até o próximo recarregamento e incrementa a
+	 * versão do catálogo no banco. Deve ser chamado depois do commit de qualquer
+	 * alteração de produtos ou categorias.
+	 */
+	public void invalidate() {
+		jdbcTemplate.update("update tb_catalog_version set version = version + 1 where id = 1");
+		if (props.isEnabled()) {
+			generation.incrementAndGet();
+		}
+	}
+
+	// Em segundo plano, como o CatalogWarmup: até lá as leituras vão ao banco
+	@EventListener(ApplicationReadyEvent.class)
+	public void primeOnStartup() {
+		if (!props.isEnabled()) {
+			return;
+		}
+		Thread.ofVirtual().name("catalog-prime").start(() -> {
+			try {
+				prime();
+			} catch (RuntimeException e) {
+				log.warn("Catalog priming failed; reads go to the database until the next refresh", e);
+			}
+		});
+	}
+
+	/**
+	 * Carrega o catálogo do snapshot, se ele corresponder ao banco, ou do banco.
+	 */
+	public synchronized Source prime() {
+		long start = System.nanoTime();
+		long currentGeneration = generation.get();
+		Version version = databaseVersion();
+		Path file = props.getFile();
+		if (Files.exists(file)) {
+			try {
+				Catalog catalog = CatalogSnapshot.read(file);
+				if (catalog.version().equals(version) && catalog.contentHash().equals(contentHash())) {
+					install(catalog, currentGeneration);
+					written = version;
+					snapshotLoads.increment();
+					log.info("Catalog primed from snapshot {} ({} products, {} categories) in {} ms", file,
+							catalog.products().size(), catalog.categories().size(),
+							(System.nanoTime() - start) / 1_000_000);
+					return Source.SNAPSHOT;
+				}
+				log.info("Discarding stale catalog snapshot {}", file);
+			} catch (IOException | RuntimeException e) {
+				log.warn("Discarding unreadable catalog snapshot {}: {}", file, e.getMessage());
+			}
+		}
+		reload(currentGeneration, version);
+		log.info("Catalog loaded from the database in {} ms", (System.nanoTime() - start) / 1_000_000);
+		return Source.DATABASE;
+	}
+
+	@Scheduled(initialDelayString = "${app.catalog.snapshot.refresh-interval:1m}",
+			fixedDelayString = "${app.catalog.snapshot.refresh-interval:1m}")
+	public void refreshScheduled() {
+		if (!props.isEnabled() || loaded == null) {
+			return;
+		}
+		try {
+			refresh();
+		} catch (RuntimeException e) {
+			log.warn("Catalog refresh failed", e);
+		}
+	}
+
+	/**
+	 * Recarrega do banco se o catálogo foi invalidado ou a versão do banco mudou, e
+	 * regrava o snapshot se ele estiver desatualizado.
+	 */
+	public synchronized void refresh() {
+		long currentGeneration = generation.get();
+		Version version = databaseVersion();
+		Loaded current = loaded;
+		if (current == null || current.generation() != currentGeneration
+				|| !current.catalog().version().equals(version)) {
+			reload(currentGeneration, version);
+		} else {
+			writeSnapshot();
+		}
+	}
+
+	@EventListener(ContextClosedEvent.class)
+	public synchronized void writeOnShutdown() {
+		if (props.isEnabled() && loaded != null) {
+			writeSnapshot();
+		}
+	}
+
+	private Loaded current() {
+		Loaded current = loaded;
+		return current != null && current.generation() == generation.get() ? current : null;
+	}
+
+	private void reload(long currentGeneration, Version version) {
+		install(loadFromDatabase(version, contentHash()), currentGeneration);
+		databaseLoads.increment();
+		writeSnapshot();
+	}
+
+	private void install(Catalog catalog, long catalogGeneration) {
+		Map<Long, Product> products = new HashMap<>(catalog.products().size() * 2);
+		catalog.products().forEach(product -> products.put(product.getId(), product));
+		Map<Long, Category> categories = new HashMap<>(catalog.categories().size() * 2);
+		catalog.categories().forEach(category -> categories.put(category.getId(), category));
+		loaded = new Loaded(catalog, catalogGeneration, products, categories);
+	}
+
+	// Uma falha de escrita só custa o próximo início a frio
+	private void writeSnapshot() {
+		Catalog catalog = loaded.catalog();
+		if (catalog.contentHash() == null || catalog.version().equals(written)) {
+			return;
+		}
+		try {
+			long start = System.nanoTime();
+			CatalogSnapshot.write(props.getFile(), catalog);
+			written = catalog.version();
+			log.debug("Catalog snapshot written to {} in {} ms", props.getFile(),
+					(System.nanoTime() - start) / 1_000_000);
+		} catch (IOException e) {
+			log.warn("Could not write catalog snapshot {}: {}", props.getFile(), e.getMessage());
+		}
+	}
+
+	// Lida antes das linhas: uma alteração no meio do carregamento muda a versão e força outro
+	private Version databaseVersion() {
+		return jdbcTemplate.queryForObject("select"
+				+ " (select version from tb_catalog_version where id = 1),"
+				+ " (select count(*) from tb_product),"
+				+ " (select coalesce(max(id), 0) from tb_product),"
+				+ " (select count(*) from tb_category),"
+				+ " (select coalesce(max(id), 0) from tb_category),"
+				+ " (select count(*) from tb_product_category)",
+				(rs, row) -> new Version(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5),
+						rs.getLong(6)));
+	}
+
+	/**
+	 * Hash de todas as colunas guardadas no catálogo, de todas as linhas: muda com
+	 * qualquer alteração, mesmo feita por SQL sem incrementar versões. Percorre as
+	 * três tabelas, então só é usado no início e no recarregamento.
+	 * @return Hash, ou null se o banco não tiver as funções usadas (HASH e BIT_XOR_AGG do H2).
+	 */
+	private Long contentHash() {
+		try {
+			return jdbcTemplate.queryForObject("select"
+					+ " (select " + rowHash("id", "name", "description", "price_cents", "img_url", "image_hash",
+							"image_type", "version") + " from tb_product),"
+					+ " (select " + rowHash("id", "name") + " from tb_category),"
+					+ " (select " + rowHash("product_id", "category_id") + " from tb_product_category)",
+					(rs, row) -> (rs.getLong(1) * 31 + rs.getLong(2)) * 31 + rs.getLong(3));
+		} catch (DataAccessException e) {
+			log.debug("Catalog content hash unavailable: {}", e.getMessage());
+			return null;
+		}
+	}
+
+	/*
+	 * XOR, entre as linhas, dos primeiros 8 bytes do SHA-256 das colunas. Cada coluna
+	 * entra precedida do tamanho (-1 para null), então valores diferentes nunca
+	 * produzem o mesmo texto; o XOR não depende da ordem das linhas.
+	 */
+	private static String rowHash(String... columns) {
+		StringBuilder row = new StringBuilder();
+		for (String column : columns) {
+			if (row.length() > 0) {
+				row.append(" || '|' || ");
+			}
+			String text = "cast(" + column + " as varchar)";
+			row.append("coalesce(length(").append(text).append("), -1) || ':' || coalesce(").append(text)
+					.append(", '')");
+		}
+		return "coalesce(bit_xor_agg(cast(substring(hash('SHA-256', " + row + ") from 1 for 8) as bigint)), 0)";
+	}
+
+	private Catalog loadFromDatabase(Version version, Long contentHash) {
+		List<Category> categories = new ArrayList<>();
+		Map<Long, Category> categoriesById = new HashMap<>();
+		jdbcTemplate.query("select id, name from tb_category order by id", rs -> {
+			Category category = new Category(rs.getLong("id"), rs.getString("name"));
+			categories.add(category);
+			categoriesById.put(category.getId(), category);
+		});
+		List<Product> products = new ArrayList<>();
+		Map<Long, Product> productsById = new HashMap<>();
+		jdbcTemplate.query("select id, name, description, price_cents, img_url, image_hash, image_type, version"
+				+ " from tb_product order by id", rs -> {
+					long cents = rs.getLong("price_cents");
+					Money price = rs.wasNull() ? null : Money.ofCents(cents);
+					Product product = new Product(rs.getLong("id"), rs.getString("name"), rs.getString("description"),
+							price, rs.getString("img_url"));
+					product.setImageHash(rs.getString("image_hash"));
+					product.setImageType(rs.getString("image_type"));
+					product.setVersion(rs.getLong("version"));
+					products.add(product);
+					productsById.put(product.getId(), product);
+				});
+		jdbcTemplate.query("select product_id, category_id from tb_product_category", rs -> {
+			Product product = productsById.get(rs.getLong("product_id"));
+			Category category = categoriesById.get(rs.getLong("category_id"));
+			if (product != null && category != null) {
+				product.getCategories().add(category);
+			}
+		});
+		return new Catalog(version, contentHash, List.copyOf(categories), List.copyOf(products));
+	}
+}
@@ -0,0 +1,207 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.maggessibernardo.webserviceproject.entities.Category;
+import com.maggessibernardo.webserviceproject.entities.Money;
+import com.maggessibernardo.webserviceproject.entities.Product;
+
+/**
+ * Snapshot binário do catálogo (categorias, produtos e vínculos entre eles),
+ * gravado e lido por um arquivo mapeado em memória.
+ *
+ * Formato, em big-endian: magic "CATS", versão do formato, a {@link Version} do
+ * banco quando o catálogo foi lido, o hash do conteúdo, as categorias (id, nome), os produtos (id,
+ * versão, preço em centavos, textos e ids das categorias) e, no fim, o CRC32 de
+ * tudo o que vem antes. Textos são UTF-8 precedidos do tamanho (-1 para null).
+ * O arquivo é escrito em um temporário e movido atomicamente, então quem lê nunca
+ * vê um snapshot pela metade; um arquivo corrompido falha no CRC.
+ */
+public final class CatalogSnapshot {
+
+	private static final int MAGIC = 0x43415453; // "CATS"
+	private static final int FORMAT_VERSION = 3;
+
+	private static final long NO_PRICE = Long.MIN_VALUE;
+	private static final int NULL_TEXT = -1;
+
+	// magic, formato, 6 longs da versão, hash do conteúdo, contagens de categorias e produtos
+	private static final int HEADER_BYTES = 4 + 4 + 6 * 8 + 8 + 4 + 4;
+	private static final int CHECKSUM_BYTES = 4;
+
+	private CatalogSnapshot() {
+	}
+
+	/**
+	 * Versão do catálogo no banco, barata de ler: a linha de tb_catalog_version,
+	 * incrementada a cada escrita, e as contagens e o maior id de cada tabela.
+	 */
+	public record Version(long catalogVersion, long products, long maxProductId, long categories,
+			long maxCategoryId, long links) {
+	}
+
+	/**
+	 * Catálogo completo, ordenado por id. Os produtos trazem as categorias, que são
+	 * as mesmas instâncias da lista de categorias.
+	 * @param contentHash - Hash de todas as linhas quando o catálogo foi lido, ou null
+	 *        se o banco não permitir calculá-lo; só catálogos com hash viram snapshot.
+	 */
+	public record Catalog(Version version, Long contentHash, List<Category> categories, List<Product> products) {
+	}
+
+	public static void write(Path file, Catalog catalog) throws IOException {
+		Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path temp = Files.createTempFile(directory, file.getFileName().toString() + "-", ".tmp");
+		try {
+			long size = HEADER_BYTES + CHECKSUM_BYTES;
+			for (Category category : catalog.categories()) {
+				size += 8 + textBytes(category.getName());
+			}
+			for (Product product : catalog.products()) {
+				size += 8 + 8 + 8 + textBytes(product.getName()) + textBytes(product.getDescription())
+						+ textBytes(product.getImgUrl()) + textBytes(product.getImageHash())
+						+ textBytes(product.getImageType()) + 4 + 8L * product.getCategories().size();
+			}
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Catalog snapshot too large: " + size + " bytes");
+			}
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+				Version version = catalog.version();
+				buffer.putInt(MAGIC).putInt(FORMAT_VERSION);
+				buffer.putLong(version.catalogVersion()).putLong(version.products()).putLong(version.maxProductId())
+						.putLong(version.categories()).putLong(version.maxCategoryId()).putLong(version.links());
+				buffer.putLong(catalog.contentHash());
+				buffer.putInt(catalog.categories().size()).putInt(catalog.products().size());
+				for (Category category : catalog.categories()) {
+					buffer.putLong(category.getId());
+					putText(buffer, category.getName());
+				}
+				for (Product product : catalog.products()) {
+					buffer.putLong(product.getId());
+					buffer.putLong(product.getVersion() != null ? product.getVersion() : 0);
+					buffer.putLong(product.getPrice() != null ? product.getPrice().cents() : NO_PRICE);
+					putText(buffer, product.getName());
+					putText(buffer, product.getDescription());
+					putText(buffer, product.getImgUrl());
+					putText(buffer, product.getImageHash());
+					putText(buffer, product.getImageType());
+					buffer.putInt(product.getCategories().size());
+					for (Category category : product.getCategories()) {
+						buffer.putLong(category.getId());
+					}
+				}
+				buffer.putInt(checksum(buffer, buffer.position()));
+				buffer.force();
+			}
+			Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * @throws IOException se o arquivo não for um snapshot deste formato ou estiver corrompido.
+	 */
+	public static Catalog read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_BYTES + CHECKSUM_BYTES || size > Integer.MAX_VALUE) {
+				throw new IOException("Invalid catalog snapshot size: " + size);
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+				throw new IOException("Not a catalog snapshot (format " + FORMAT_VERSION + ")");
+			}
+			int content = (int) size - CHECKSUM_BYTES;
+			if (checksum(buffer, content) != buffer.getInt(content)) {
+				throw new IOException("Catalog snapshot checksum mismatch");
+			}
+			try {
+				Version version = new Version(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(),
+						buffer.getLong(), buffer.getLong());
+				long contentHash = buffer.getLong();
+				int categoryCount = buffer.getInt();
+				int productCount = buffer.getInt();
+				List<Category> categories = new ArrayList<>(categoryCount);
+				Map<Long, Category> byId = new HashMap<>(categoryCount * 2);
+				for (int i = 0; i < categoryCount; i++) {
+					Category category = new Category(buffer.getLong(), getText(buffer));
+					categories.add(category);
+					byId.put(category.getId(), category);
+				}
+				List<Product> products = new ArrayList<>(productCount);
+				for (int i = 0; i < productCount; i++) {
+					long id = buffer.getLong();
+					long productVersion = buffer.getLong();
+					long cents = buffer.getLong();
+					Product product = new Product(id, getText(buffer), getText(buffer),
+							cents != NO_PRICE ? Money.ofCents(cents) : null, getText(buffer));
+					product.setImageHash(getText(buffer));
+					product.setImageType(getText(buffer));
+					product.setVersion(productVersion);
+					int links = buffer.getInt();
+					for (int l = 0; l < links; l++) {
+						long categoryId = buffer.getLong();
+						Category category = byId.get(categoryId);
+						if (category == null) {
+							throw new IOException("Product " + id + " links to unknown category " + categoryId);
+						}
+						product.getCategories().add(category);
+					}
+					products.add(product);
+				}
+				return new Catalog(version, contentHash, List.copyOf(categories), List.copyOf(products));
+			} catch (BufferUnderflowException e) {
+				throw new IOException("Truncated catalog snapshot", e);
+			}
+		}
+	}
+
+	private static int checksum(ByteBuffer buffer, int length) {
+		CRC32 crc = new CRC32();
+		crc.update(buffer.duplicate().position(0).limit(length));
+		return (int) crc.getValue();
+	}
+
+	private static long textBytes(String text) {
+		return 4 + (text != null ? text.getBytes(StandardCharsets.UTF_8).length : 0);
+	}
+
+	private static void putText(ByteBuffer buffer, String text) {
+		if (text == null) {
+			buffer.putInt(NULL_TEXT);
+			return;
+		}
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		buffer.putInt(bytes.length).put(bytes);
+	}
+
+	private static String getText(ByteBuffer buffer) throws IOException {
+		int length = buffer.getInt();
+		if (length == NULL_TEXT) {
+			return null;
+		}
+		if (length < 0 || length > buffer.remaining()) {
+			throw new IOException("Invalid text length " + length + " in catalog snapshot");
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
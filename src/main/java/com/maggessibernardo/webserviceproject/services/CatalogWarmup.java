@@ -0,0 +1,49 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aquecimento do catálogo (categorias e produtos) adiado para depois da
+ * inicialização.
+ *
+ * Em vez de atrasar o primeiro atendimento, as consultas do catálogo rodam em uma
+ * thread de segundo plano assim que a aplicação fica pronta, criando os beans
+ * preguiçosos envolvidos, compilando as consultas do Hibernate e aquecendo o pool
+ * de conexões.
+ */
+@Component
+@Lazy(false)
+@ConditionalOnProperty(name = "app.catalog.warmup.enabled", havingValue = "true")
+public class CatalogWarmup {
+
+	private static final Logger log = LoggerFactory.getLogger(CatalogWarmup.class);
+
+	private final CategoryService categoryService;
+	private final ProductService productService;
+
+	public CatalogWarmup(@Lazy CategoryService categoryService, @Lazy ProductService productService) {
+		this.categoryService = categoryService;
+		this.productService = productService;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmUp() {
+		Thread.ofVirtual().name("catalog-warmup").start(() -> {
+			long start = System.nanoTime();
+			try {
+				int categories = categoryService.findAll().size();
+				int products = productService.findAll().size();
+				log.info("Catalog warm-up loaded {} categories and {} products in {} ms", categories, products,
+						(System.nanoTime() - start) / 1_000_000);
+			} catch (RuntimeException e) {
+				log.warn("Catalog warm-up failed", e);
+			}
+		});
+	}
+}
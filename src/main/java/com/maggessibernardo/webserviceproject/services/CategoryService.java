@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 
 import com.maggessibernardo.webserviceproject.entities.Category;
 import com.maggessibernardo.webserviceproject.repositories.CategoryRepository;
+import com.maggessibernardo.webserviceproject.services.execptions.ResourceNotFoundException;
 
 @Service
 public class CategoryService {
@@ -15,11 +16,25 @@ public class CategoryService {
 	@Autowired
 	private CategoryRepository repository;
 	
+	@Autowired
+	private SingleFlight singleFlight;
+	
+	@Autowired
+	private CatalogCache catalog;
+	
+	// Do catálogo em memória quando disponível (CatalogCache)
 	public List<Category> findAll(){
-		return repository.findAll();
+		List<Category> cached = catalog.categories();
+		return cached != null ? cached : repository.findAll();
 	}
+	// Leituras concorrentes da mesma categoria compartilham uma consulta
 	public Category findById(Long id) {
-		Optional<Category> obj = repository.findById(id);
-		return obj.get();
+		Category cached = catalog.category(id);
+		if (cached != null) {
+			return cached;
+		}
+		Optional<Category> obj = Optional.ofNullable(
+				singleFlight.load("category", id, () -> repository.findById(id).orElse(null)));
+		return obj.orElseThrow(() -> new ResourceNotFoundException(id));
 	}
 }
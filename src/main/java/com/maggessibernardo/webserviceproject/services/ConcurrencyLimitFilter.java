@@ -0,0 +1,107 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro que aplica um limite de concorrência adaptativo na frente dos controllers.
+ *
+ * As requisições são separadas em dois grupos: "heavy" (rotas caras, como
+ * /orders e /users, configuráveis em app.concurrency.heavy-paths) e "light"
+ * (todo o resto, como /categories). Cada grupo tem seu próprio
+ * {@link AdaptiveConcurrencyLimiter}, e o excesso é rejeitado com 503 e
+ * Retry-After. Limite, requisições em andamento e rejeições são expostos como
+ * métricas "http.concurrency.*" com a tag "group".
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<String> heavyPaths;
+    private final long retryAfterSeconds;
+    private final AdaptiveConcurrencyLimiter light;
+    private final AdaptiveConcurrencyLimiter heavy;
+
+    public ConcurrencyLimitFilter(MeterRegistry registry,
+            @Value("${app.concurrency.heavy-paths:/orders/**,/users/**}") List<String> heavyPaths,
+            @Value("${app.concurrency.retry-after-seconds:1}") long retryAfterSeconds,
+            @Value("${app.concurrency.light.initial-limit:40}") int lightInitial,
+            @Value("${app.concurrency.light.max-limit:200}") int lightMax,
+            @Value("${app.concurrency.light.target-latency-ms:50}") long lightTargetMs,
+            @Value("${app.concurrency.heavy.initial-limit:10}") int heavyInitial,
+            @Value("${app.concurrency.heavy.max-limit:40}") int heavyMax,
+            @Value("${app.concurrency.heavy.target-latency-ms:250}") long heavyTargetMs,
+            @Value("${app.concurrency.min-limit:2}") int minLimit,
+            @Value("${app.concurrency.backoff-ratio:0.9}") double backoffRatio) {
+        this.heavyPaths = heavyPaths;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.light = new AdaptiveConcurrencyLimiter("light", lightInitial, minLimit, lightMax,
+                TimeUnit.MILLISECONDS.toNanos(lightTargetMs), backoffRatio);
+        this.heavy = new AdaptiveConcurrencyLimiter("heavy", heavyInitial, minLimit, heavyMax,
+                TimeUnit.MILLISECONDS.toNanos(heavyTargetMs), backoffRatio);
+        bindMetrics(registry, light);
+        bindMetrics(registry, heavy);
+    }
+
+    private static void bindMetrics(MeterRegistry registry, AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("http.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("group", limiter.getName())
+                .description("Limite atual de requisições simultâneas")
+                .register(registry);
+        Gauge.builder("http.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("group", limiter.getName())
+                .register(registry);
+        FunctionCounter.builder("http.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejectedCount)
+                .tag("group", limiter.getName())
+                .description("Requisições rejeitadas com 503 pelo limitador")
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        AdaptiveConcurrencyLimiter limiter = limiterFor(request.getRequestURI());
+        if (!limiter.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter limiterFor(String path) {
+        for (String pattern : heavyPaths) {
+            if (pathMatcher.match(pattern, path)) {
+                return heavy;
+            }
+        }
+        return light;
+    }
+}
@@ -0,0 +1,150 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de CSV (RFC 4180) que percorre a entrada registro a registro, sem
+ * carregar o arquivo: só o registro atual fica em memória.
+ *
+ * Separador vírgula; campos entre aspas podem conter vírgulas, quebras de linha e
+ * aspas duplicadas (""). Aceita finais de linha LF ou CRLF, ignora linhas em
+ * branco e um BOM UTF-8 no início. Um registro maior que o limite (tipicamente
+ * uma aspa sem fechamento) interrompe a leitura em vez de consumir o arquivo
+ * inteiro na memória.
+ */
+public final class CsvReader implements Closeable {
+
+	private static final int DEFAULT_MAX_RECORD_LENGTH = 64 * 1024;
+
+	private final Reader reader;
+	private final int maxRecordLength;
+
+	private final char[] buffer = new char[8192];
+	private int position;
+	private int limit;
+
+	private long line = 1;
+	private long recordLine;
+	private boolean started;
+
+	public CsvReader(Reader reader) {
+		this(reader, DEFAULT_MAX_RECORD_LENGTH);
+	}
+
+	public CsvReader(Reader reader, int maxRecordLength) {
+		this.reader = reader;
+		this.maxRecordLength = maxRecordLength;
+	}
+
+	/**
+	 * Próximo registro, ou null no fim da entrada.
+	 * @throws IllegalArgumentException se houver aspas sem fechamento ou o registro passar do limite.
+	 */
+	public List<String> next() throws IOException {
+		if (!started) {
+			started = true;
+			if (fill() && buffer[position] == '\uFEFF') {
+				position++;
+			}
+		}
+		// Linhas em branco entre registros
+		int c;
+		while ((c = peek()) == '\r' || c == '\n') {
+			consumeLineEnd();
+		}
+		if (c < 0) {
+			return null;
+		}
+		recordLine = line;
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		int length = 0;
+		boolean quoted = false;
+		while (true) {
+			c = read();
+			if (c >= 0 && ++length > maxRecordLength) {
+				throw new IllegalArgumentException(
+						"Record at line " + recordLine + " is longer than " + maxRecordLength + " characters");
+			}
+			if (quoted) {
+				if (c < 0) {
+					throw new IllegalArgumentException("Unterminated quoted field at line " + recordLine);
+				}
+				if (c == '"') {
+					if (peek() == '"') {
+						position++;
+						field.append('"');
+					} else {
+						quoted = false;
+					}
+				} else {
+					if (c == '\n') {
+						line++;
+					}
+					field.append((char) c);
+				}
+			} else if (c == '"' && field.isEmpty()) {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else if (c < 0 || c == '\r' || c == '\n') {
+				if (c >= 0) {
+					position--;
+					consumeLineEnd();
+				}
+				fields.add(field.toString());
+				return fields;
+			} else {
+				field.append((char) c);
+			}
+		}
+	}
+
+	/**
+	 * Linha (a partir de 1) em que começa o último registro lido.
+	 */
+	public long getLine() {
+		return recordLine;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	private void consumeLineEnd() throws IOException {
+		if (read() == '\r' && peek() == '\n') {
+			position++;
+		}
+		line++;
+	}
+
+	private int read() throws IOException {
+		return fill() ? buffer[position++] : -1;
+	}
+
+	private int peek() throws IOException {
+		return fill() ? buffer[position] : -1;
+	}
+
+	private boolean fill() throws IOException {
+		if (position < limit) {
+			return true;
+		}
+		int read;
+		do {
+			read = reader.read(buffer, 0, buffer.length);
+		} while (read == 0);
+		if (read < 0) {
+			return false;
+		}
+		position = 0;
+		limit = read;
+		return true;
+	}
+}
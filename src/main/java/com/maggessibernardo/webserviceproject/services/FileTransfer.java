@@ -0,0 +1,210 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.maggessibernardo.webserviceproject.services.execptions.BadRequestException;
+
+/**
+ * Envia um arquivo como resposta HTTP sem passar o conteúdo pelo heap.
+ *
+ * No Tomcat com sendfile (padrão do conector NIO), o arquivo é só indicado nos
+ * atributos da requisição e o próprio conector o envia com
+ * FileChannel.transferTo/sendfile depois que o controller retorna. Sem esse
+ * suporte, o conteúdo é transferido com FileChannel.transferTo para o stream da
+ * resposta.
+ *
+ * Trata ETag (If-None-Match → 304), um único intervalo de Range (206, ou 416 fora
+ * do arquivo; If-Range com outra ETag devolve o arquivo inteiro) e HEAD.
+ * Intervalos múltiplos são ignorados e o arquivo inteiro é enviado, como o
+ * RFC 9110 permite.
+ *
+ * No sentido contrário, {@link #receive(InputStream, Path, long, String)} grava um
+ * upload em disco em blocos, com limite de tamanho.
+ */
+public final class FileTransfer {
+
+	private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+	private static final long[] UNSATISFIABLE = new long[0];
+
+	private FileTransfer() {
+	}
+
+	/**
+	 * @param etag - ETag forte, já entre aspas.
+	 * @param cacheControl - Valor do Cache-Control, enviado também no 304.
+	 */
+	public static void send(HttpServletRequest request, HttpServletResponse response, Path file, String contentType,
+			String etag, String cacheControl) throws IOException {
+		long[] bounds = prepare(request, response, Files.size(file), contentType, etag, cacheControl);
+		if (bounds == null) {
+			return;
+		}
+		if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+			request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+			request.setAttribute(SENDFILE_START, bounds[0]);
+			request.setAttribute(SENDFILE_END, bounds[1] + 1); // exclusivo
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			transfer(channel, bounds, response);
+		}
+	}
+
+	/**
+	 * Como {@link #send(HttpServletRequest, HttpServletResponse, Path, String, String, String)},
+	 * a partir de um arquivo já aberto, que pode ser apagado enquanto é enviado
+	 * (sem o sendfile do Tomcat, que abre o arquivo pelo nome). Quem chama fecha o canal.
+	 */
+	public static void send(HttpServletRequest request, HttpServletResponse response, FileChannel channel,
+			String contentType, String etag, String cacheControl) throws IOException {
+		long[] bounds = prepare(request, response, channel.size(), contentType, etag, cacheControl);
+		if (bounds != null) {
+			transfer(channel, bounds, response);
+		}
+	}
+
+	/**
+	 * Copia o corpo de um upload para o arquivo em blocos, sem guardar o conteúdo no
+	 * heap. Não fecha o stream de entrada.
+	 * @param subject - Início da mensagem de erro, como "Image".
+	 * @return Quantidade de bytes gravados.
+	 * @throws BadRequestException se o corpo passar de maxBytes; o arquivo fica
+	 *         incompleto e quem chama o apaga.
+	 */
+	public static long receive(InputStream in, Path target, long maxBytes, String subject) throws IOException {
+		try (OutputStream out = Files.newOutputStream(target)) {
+			byte[] buffer = new byte[8192];
+			long total = 0;
+			int read;
+			while ((read = in.read(buffer)) >= 0) {
+				total += read;
+				if (total > maxBytes) {
+					throw new BadRequestException(subject + " is larger than " + maxBytes + " bytes");
+				}
+				out.write(buffer, 0, read);
+			}
+			return total;
+		}
+	}
+
+	/**
+	 * Escreve os cabeçalhos e o status.
+	 * @return Início e fim (inclusivos) do conteúdo a enviar, ou null se não há corpo.
+	 */
+	private static long[] prepare(HttpServletRequest request, HttpServletResponse response, long length,
+			String contentType, String etag, String cacheControl) {
+		response.setHeader(HttpHeaders.ETAG, etag);
+		response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+		response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+		if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+			response.setStatus(HttpStatus.NOT_MODIFIED.value());
+			return null;
+		}
+
+		long start = 0;
+		long end = length - 1;
+		String range = request.getHeader(HttpHeaders.RANGE);
+		String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+		if (range != null && (ifRange == null || ifRange.trim().equals(etag))) {
+			long[] bounds = parseRange(range, length);
+			if (bounds == UNSATISFIABLE) {
+				response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+				return null;
+			}
+			if (bounds != null) {
+				start = bounds[0];
+				end = bounds[1];
+				response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+			}
+		}
+
+		response.setContentType(contentType);
+		response.setContentLengthLong(end - start + 1);
+		if (HttpMethod.HEAD.matches(request.getMethod()) || length == 0) {
+			return null;
+		}
+		return new long[] { start, end };
+	}
+
+	private static void transfer(FileChannel channel, long[] bounds, HttpServletResponse response)
+			throws IOException {
+		WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+		long position = bounds[0];
+		while (position <= bounds[1]) {
+			position += channel.transferTo(position, bounds[1] + 1 - position, out);
+		}
+	}
+
+	/**
+	 * Lê "bytes=inicio-fim", "bytes=inicio-" ou "bytes=-sufixo".
+	 * @return Início e fim (inclusivos), {@link #UNSATISFIABLE}, ou null para
+	 *         ignorar o cabeçalho (inválido ou com vários intervalos).
+	 */
+	static long[] parseRange(String header, long length) {
+		if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+			return null;
+		}
+		String spec = header.substring("bytes=".length()).trim();
+		int dash = spec.indexOf('-');
+		if (dash < 0) {
+			return null;
+		}
+		try {
+			String first = spec.substring(0, dash).trim();
+			String last = spec.substring(dash + 1).trim();
+			if (first.isEmpty()) {
+				long suffix = Long.parseLong(last);
+				if (suffix <= 0 || length == 0) {
+					return UNSATISFIABLE;
+				}
+				return new long[] { Math.max(0, length - suffix), length - 1 };
+			}
+			long start = Long.parseLong(first);
+			long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+			if (start >= length) {
+				return UNSATISFIABLE;
+			}
+			return start <= end ? new long[] { start, end } : null;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String candidate : ifNoneMatch.split(",")) {
+			String tag = candidate.trim();
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if (tag.equals("*") || tag.equals(etag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -1,10 +1,15 @@
 package com.maggessibernardo.webserviceproject.services;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,42 +28,116 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final RateLimitService rateLimitService;
+    private final TokenRevocationService revocationService;
+    private final boolean selfContainedClaims;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService,
+            RateLimitService rateLimitService, TokenRevocationService revocationService,
+            @Value("${app.jwt.self-contained-claims:true}") boolean selfContainedClaims) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.rateLimitService = rateLimitService;
+        this.revocationService = revocationService;
+        this.selfContainedClaims = selfContainedClaims;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
+        // Tempo de autenticação no Server-Timing (só com app.server-timing.enabled)
+        RequestTiming timing = RequestTiming.current();
+        long start = timing != null ? System.nanoTime() : 0;
+        boolean proceed;
+        try {
+            proceed = authenticate(request, response);
+        } finally {
+            if (timing != null) {
+                timing.auth(System.nanoTime() - start);
+            }
+        }
+        if (proceed) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    /**
+     * Autentica a requisição pelo token Bearer, se houver.
+     * @return false se a requisição foi recusada (limite de requisições) e não deve seguir.
+     */
+    private boolean authenticate(HttpServletRequest request, HttpServletResponse response) {
+
         // Obtém o token do cabeçalho Authorization
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final Claims claims;
         final String username;
 
         // Verifica se o cabeçalho contém um token JWT válido
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
-            return;
+            return true;
         }
 
         // Extrai o token JWT do cabeçalho
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        // Assinatura e expiração são verificadas uma única vez por requisição; token
+        // inválido ou expirado segue sem autenticação (403 nas rotas protegidas)
+        try {
+            claims = jwtService.extractAllClaims(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            return true;
+        }
+        username = claims.getSubject();
+
+        // Token revogado (logout): segue sem autenticação
+        if (revocationService.isRevoked(claims.getId())) {
+            return true;
+        }
 
         // Se o usuário for válido e não estiver autenticado, prossegue com a autenticação
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails;
+            if (selfContainedClaims && JwtService.isSelfContained(claims)) {
+                // Papéis vêm do próprio token; só a versão de permissões é conferida (em cache)
+                userDetails = jwtService.toUserDetails(claims);
+            } else {
+                // Tokens sem papéis ou versão (ou modo desligado): carrega o usuário do banco
+                userDetails = userDetailsService.loadUserByUsername(username);
+                if (!jwtService.isTokenValid(claims, userDetails)) {
+                    userDetails = null;
+                }
+            }
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (userDetails != null) {
                 var authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+
+                // Limite de requisições por usuário, aplicado assim que o subject é conhecido
+                if (rateLimitService.isEnabled()) {
+                    return applyRateLimit(username, userDetails, response);
+                }
             }
         }
-        filterChain.doFilter(request, response);
+        return true;
+    }
+
+    /**
+     * Consome um token do bucket do usuário e escreve os cabeçalhos RateLimit-*.
+     * @return false se a requisição foi recusada com 429.
+     */
+    private boolean applyRateLimit(String username, UserDetails userDetails, HttpServletResponse response) {
+        RateLimitService.Decision decision = rateLimitService.tryConsume(username, userDetails.getAuthorities());
+        response.setHeader("RateLimit-Limit", Integer.toString(decision.limit()));
+        response.setHeader("RateLimit-Remaining", Integer.toString(decision.remaining()));
+        response.setHeader("RateLimit-Reset", Long.toString(decision.resetSeconds()));
+        if (!decision.allowed()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(decision.retryAfterSeconds()));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            return false;
+        }
+        return true;
     }
 }
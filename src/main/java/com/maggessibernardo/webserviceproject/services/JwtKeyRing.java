@@ -0,0 +1,103 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.stereotype.Component;
+
+import com.maggessibernardo.webserviceproject.config.JwtProperties;
+
+/**
+ * Conjunto de chaves HMAC usadas nos tokens JWT, indexadas pelo kid.
+ *
+ * Todas as chaves são montadas uma única vez na inicialização, então assinar ou
+ * validar um token é apenas uma consulta ao mapa, qualquer que seja a quantidade
+ * de chaves em rotação.
+ */
+@Component
+public class JwtKeyRing {
+
+	// HS256 exige chaves de pelo menos 256 bits
+	private static final int MIN_KEY_BYTES = 32;
+
+	private final Map<String, SecretKey> keys;
+	private final String activeKeyId;
+	private final SecretKey activeKey;
+
+	public JwtKeyRing(JwtProperties props) {
+		Map<String, SecretKey> loaded = new LinkedHashMap<>();
+		props.getKeys().forEach((kid, secret) -> loaded.put(kid, toKey(kid, decode(secret))));
+		if (props.getKeystore().getPath() != null && !props.getKeystore().getPath().isBlank()) {
+			loadKeystore(props.getKeystore(), loaded);
+		}
+		if (loaded.isEmpty()) {
+			throw new IllegalStateException("No JWT signing keys configured (app.jwt.keys or app.jwt.keystore.path)");
+		}
+		this.keys = Collections.unmodifiableMap(loaded);
+		this.activeKeyId = props.getActiveKeyId() != null ? props.getActiveKeyId() : loaded.keySet().iterator().next();
+		this.activeKey = keys.get(activeKeyId);
+		if (activeKey == null) {
+			throw new IllegalStateException("Active JWT key '" + activeKeyId + "' is not in the key ring");
+		}
+	}
+
+	public String getActiveKeyId() {
+		return activeKeyId;
+	}
+
+	public SecretKey getActiveKey() {
+		return activeKey;
+	}
+
+	/**
+	 * @return Chave do kid informado, ou null se não pertencer ao conjunto.
+	 */
+	public SecretKey find(String kid) {
+		return kid != null ? keys.get(kid) : null;
+	}
+
+	public Map<String, SecretKey> getKeys() {
+		return keys;
+	}
+
+	private static byte[] decode(String secret) {
+		if (secret.startsWith("base64:")) {
+			return Base64.getDecoder().decode(secret.substring("base64:".length()));
+		}
+		return secret.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static SecretKey toKey(String kid, byte[] bytes) {
+		if (bytes.length < MIN_KEY_BYTES) {
+			throw new IllegalStateException("JWT key '" + kid + "' must have at least " + MIN_KEY_BYTES + " bytes");
+		}
+		return new SecretKeySpec(bytes, "HmacSHA256");
+	}
+
+	private static void loadKeystore(JwtProperties.Keystore config, Map<String, SecretKey> into) {
+		char[] password = config.getPassword().toCharArray();
+		try (InputStream in = Files.newInputStream(Path.of(config.getPath()))) {
+			KeyStore keyStore = KeyStore.getInstance(config.getType());
+			keyStore.load(in, password);
+			for (String alias : Collections.list(keyStore.aliases())) {
+				if (keyStore.entryInstanceOf(alias, KeyStore.SecretKeyEntry.class)) {
+					into.put(alias, toKey(alias, keyStore.getKey(alias, password).getEncoded()));
+				}
+			}
+		} catch (IOException | GeneralSecurityException e) {
+			throw new IllegalStateException("Could not load JWT keystore " + config.getPath(), e);
+		}
+	}
+}
@@ -1,30 +1,77 @@
 package com.maggessibernardo.webserviceproject.services;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+
+import com.maggessibernardo.webserviceproject.config.JwtProperties;
+
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
  * Serviço responsável por gerar e validar tokens JWT.
+ *
+ * Os tokens são assinados com a chave ativa do {@link JwtKeyRing}, identificada no
+ * cabeçalho "kid", e validados com a chave correspondente ao kid recebido. O parser
+ * é imutável e criado uma única vez, então a validação não monta chaves nem parsers.
+ *
+ * Cada token também carrega os papéis do usuário ("roles"), o seu id ("uid") e a
+ * sua versão de permissões ("pv"), o que permite autenticar a requisição só com o
+ * token, sem carregar o usuário: basta a versão atual, lida em cache (ver
+ * {@link UserTokenVersions}).
  */
 @Service
 public class JwtService {
 
-    // Chave secreta para assinar o token (deve ter pelo menos 32 bytes para HMAC-SHA)
-    private static final String SECRET_KEY = "SEU_SEGREDO_SUPER_SEGURO_AQUI_SECRETO_32_BYTES";
-    
-    // Tempo de expiração do token (1 dia em milissegundos)
-    private static final long EXPIRATION_TIME = 86400000; 
+    private final JwtKeyRing keyRing;
+
+    // Tempo de expiração do token
+    private final long expirationMillis;
+
+    private final JwtParser parser;
+
+    private final UserTokenVersions versions;
+
+    // Claims com os papéis, o id e a versão de permissões do usuário
+    public static final String ROLES_CLAIM = "roles";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String PERMISSIONS_VERSION_CLAIM = "pv";
+
+    public JwtService(JwtKeyRing keyRing, JwtProperties props, UserTokenVersions versions) {
+        this.keyRing = keyRing;
+        this.versions = versions;
+        this.expirationMillis = props.getExpiration().toMillis();
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
 
     /**
-     * Retorna a chave de assinatura usada para criptografar o token.
+     * Chave para o kid do token; tokens sem kid (emitidos antes do conjunto de
+     * chaves) são validados com a chave ativa.
      */
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private Key resolveKey(String kid) {
+        if (kid == null) {
+            return keyRing.getActiveKey();
+        }
+        Key key = keyRing.find(kid);
+        if (key == null) {
+            throw new SignatureException("Unknown JWT key id: " + kid);
+        }
+        return key;
     }
 
     /**
@@ -33,12 +80,21 @@ public class JwtService {
      * @return Token JWT gerado.
      */
     public String generateToken(UserDetails userDetails) {
-        return Jwts.builder()
+        long now = System.currentTimeMillis();
+        UserTokenVersions.Stamp stamp = versions.current(userDetails.getUsername());
+        JwtBuilder builder = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyRing.getActiveKeyId()) // Identifica a chave usada na assinatura
+                .setId(UUID.randomUUID().toString()) // jti, usado na revogação (logout)
                 .setSubject(userDetails.getUsername()) // Define o usuário como "dono" do token
-                .setIssuedAt(new Date()) // Define a data de criação do token
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME)) // Expiração do token
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256) // Assinatura com algoritmo HMAC-SHA256
-                .compact();
+                .claim(ROLES_CLAIM, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                .setIssuedAt(new Date(now)) // Define a data de criação do token
+                .setExpiration(new Date(now + expirationMillis)) // Expiração do token
+                .signWith(keyRing.getActiveKey(), SignatureAlgorithm.HS256); // Assinatura com algoritmo HMAC-SHA256
+        // Sem usuário no banco o token não é autocontido: quem o recebe carrega o usuário
+        if (stamp != null) {
+            builder.claim(USER_ID_CLAIM, stamp.userId()).claim(PERMISSIONS_VERSION_CLAIM, stamp.version());
+        }
+        return builder.compact();
     }
 
     /**
@@ -62,16 +118,13 @@ public class JwtService {
     }
 
     /**
-     * Extrai todos os dados do token JWT.
+     * Valida a assinatura e a expiração do token e retorna todos os seus dados.
      * @param token - Token JWT recebido.
      * @return Objeto Claims com todos os dados do token.
+     * @throws JwtException se o token for inválido ou estiver expirado.
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey()) // Configura a chave de assinatura para validar o token
-                .build()
-                .parseClaimsJws(token) // Decodifica o token
-                .getBody();
+    public Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
     /**
@@ -81,16 +134,59 @@ public class JwtService {
      * @return true se o token for válido, false caso contrário.
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
     /**
-     * Verifica se um token já expirou.
-     * @param token - Token JWT recebido.
-     * @return true se o token estiver expirado, false caso contrário.
+     * Verifica, com os dados já extraídos, se o token pertence ao usuário e não expirou.
+     * @param claims - Dados do token.
+     * @param userDetails - Detalhes do usuário autenticado.
+     * @return true se o token for válido, false caso contrário.
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
+    }
+
+    /**
+     * Monta o usuário autenticado apenas com os dados do token, sem carregar o
+     * usuário. Tokens sem papéis, de usuários removidos ou com versão de
+     * permissões desatualizada (papel ou e-mail alterados depois da emissão) não
+     * são aceitos. A versão atual pode exigir uma consulta ao banco, se não estiver
+     * em cache.
+     * @param claims - Dados de um token já validado.
+     * @return Usuário do token, ou null se o token não for autocontido ou estiver desatualizado.
+     */
+    public UserDetails toUserDetails(Claims claims) {
+        if (!isSelfContained(claims)) {
+            return null;
+        }
+        return toUserDetails(claims, versions.current(claims.getSubject()));
+    }
+
+    /**
+     * Como {@link #toUserDetails(Claims)}, com a versão atual já obtida.
+     * @param stamp - Versão atual do usuário do token, ou null se ele não existir.
+     */
+    public UserDetails toUserDetails(Claims claims, UserTokenVersions.Stamp stamp) {
+        if (!isSelfContained(claims) || stamp == null
+                || stamp.userId() != claims.get(USER_ID_CLAIM, Long.class)
+                || stamp.version() != claims.get(PERMISSIONS_VERSION_CLAIM, Long.class)) {
+            return null;
+        }
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        List<SimpleGrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(String.valueOf(role)))
+                .toList();
+        return new User(claims.getSubject(), "", authorities);
+    }
+
+    /**
+     * @return true se o token traz papéis, id e versão de permissões; os demais
+     *         (emitidos sem usuário no banco, ou antes desses claims) só valem
+     *         carregando o usuário.
      */
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    public static boolean isSelfContained(Claims claims) {
+        return claims.get(ROLES_CLAIM) instanceof List && claims.get(USER_ID_CLAIM) instanceof Number
+                && claims.get(PERMISSIONS_VERSION_CLAIM) instanceof Number;
     }
 }
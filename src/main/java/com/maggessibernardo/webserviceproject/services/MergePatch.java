@@ -0,0 +1,119 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.BeanWrapperImpl;
+
+import com.maggessibernardo.webserviceproject.entities.Money;
+import com.maggessibernardo.webserviceproject.services.execptions.BadRequestException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+/**
+ * JSON Merge Patch (RFC 7386, application/merge-patch+json) para entidades com
+ * campos simples.
+ *
+ * Só os campos listados podem ser alterados; null remove o valor. O patch pode
+ * ser aplicado em uma entidade carregada (com @DynamicUpdate o Hibernate grava só
+ * as colunas alteradas) ou, quando o cliente informa a versão esperada, virar um
+ * único UPDATE das colunas do patch com "and version = :version", sem leitura.
+ */
+public final class MergePatch {
+
+	private final Class<?> entityType;
+	private final Map<String, Class<?>> fields;
+
+	/**
+	 * @param entityType - Entidade alvo (precisa de um campo "version" com @Version).
+	 * @param fields - Campos alteráveis e seus tipos (String ou Double).
+	 */
+	public MergePatch(Class<?> entityType, Map<String, Class<?>> fields) {
+		this.entityType = entityType;
+		this.fields = fields;
+	}
+
+	/**
+	 * Valida o documento do patch e converte os valores para o tipo de cada campo.
+	 * @throws BadRequestException se houver campo desconhecido ou valor inválido.
+	 */
+	public Map<String, Object> validate(Map<String, Object> document) {
+		Map<String, Object> changes = new LinkedHashMap<>();
+		document.forEach((field, value) -> {
+			Class<?> type = fields.get(field);
+			if (type == null) {
+				throw new BadRequestException("Field '" + field + "' cannot be patched");
+			}
+			changes.put(field, convert(field, value, type));
+		});
+		return changes;
+	}
+
+	/**
+	 * Aplica as alterações em uma entidade gerenciada.
+	 */
+	public void applyTo(Object entity, Map<String, Object> changes) {
+		BeanWrapperImpl wrapper = new BeanWrapperImpl(entity);
+		changes.forEach(wrapper::setPropertyValue);
+	}
+
+	/**
+	 * Grava as alterações com um UPDATE condicionado à versão, sem carregar a
+	 * entidade; a versão é incrementada no mesmo comando.
+	 * @return 1 se a linha foi alterada; 0 se o id não existe ou a versão mudou.
+	 */
+	public int update(EntityManager entityManager, Object id, long expectedVersion, Map<String, Object> changes) {
+		StringBuilder jpql = new StringBuilder("update ").append(entityType.getSimpleName()).append(" e set ");
+		for (String field : changes.keySet()) {
+			jpql.append("e.").append(field).append(" = :").append(field).append(", ");
+		}
+		jpql.append("e.version = e.version + 1 where e.id = :id and e.version = :version");
+		Query query = entityManager.createQuery(jpql.toString());
+		changes.forEach(query::setParameter);
+		return query.setParameter("id", id).setParameter("version", expectedVersion).executeUpdate();
+	}
+
+	/**
+	 * Lê a versão de um cabeçalho If-Match ("3", "\"3\"" ou W/"3").
+	 * @return Versão esperada, ou null se o cabeçalho estiver ausente ou for "*".
+	 */
+	public static Long parseVersion(String ifMatch) {
+		if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+			return null;
+		}
+		String tag = ifMatch.trim();
+		if (tag.startsWith("W/")) {
+			tag = tag.substring(2);
+		}
+		tag = tag.replace("\"", "");
+		try {
+			return Long.parseLong(tag);
+		} catch (NumberFormatException e) {
+			throw new BadRequestException("Invalid If-Match: " + ifMatch);
+		}
+	}
+
+	private static Object convert(String field, Object value, Class<?> type) {
+		if (value == null) {
+			return null;
+		}
+		if (type == String.class && value instanceof String) {
+			return value;
+		}
+		if (type == Money.class && value instanceof Number number) {
+			try {
+				return Money.of(number);
+			} catch (IllegalArgumentException e) {
+				throw new BadRequestException(e.getMessage());
+			}
+		}
+		throw new BadRequestException("Invalid value for '" + field + "'");
+	}
+
+	/**
+	 * Resultado de um PATCH: a entidade atualizada, quando foi carregada, e a nova versão.
+	 */
+	public record Result<T>(T entity, long version) {
+	}
+}
@@ -0,0 +1,72 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.maggessibernardo.webserviceproject.services.execptions.BadRequestException;
+
+/**
+ * Busca de várias entidades por id (GET /recurso?ids=1,2,3) em poucas consultas.
+ *
+ * Os ids são divididos em lotes de {@link #CHUNK_SIZE} e cada lote vira uma única
+ * consulta com IN (o repositório decide o plano de busca das associações). O
+ * resultado segue a ordem dos ids recebidos, e os ids sem entidade são informados
+ * separadamente, então o cliente troca N chamadas por uma.
+ */
+public final class MultiGet {
+
+	public static final int MAX_IDS = 1000;
+
+	// Tamanho máximo da lista do IN em cada consulta
+	public static final int CHUNK_SIZE = 500;
+
+	private MultiGet() {
+	}
+
+	/**
+	 * @param ids - Ids pedidos (duplicados e nulos são desconsiderados; no máximo {@link #MAX_IDS}).
+	 * @param loader - Consulta de um lote de ids; a ordem do retorno não importa.
+	 * @param idOf - Id de uma entidade carregada.
+	 * @return Entidades na ordem pedida e ids não encontrados.
+	 */
+	public static <T> Result<T> load(Collection<Long> ids, Function<List<Long>, List<T>> loader,
+			Function<T, Long> idOf) {
+		Set<Long> requested = new LinkedHashSet<>(ids);
+		requested.remove(null);
+		if (requested.isEmpty() || requested.size() > MAX_IDS) {
+			throw new BadRequestException("Between 1 and " + MAX_IDS + " ids are required");
+		}
+		List<Long> distinct = new ArrayList<>(requested);
+		Map<Long, T> found = new HashMap<>();
+		for (int i = 0; i < distinct.size(); i += CHUNK_SIZE) {
+			for (T entity : loader.apply(distinct.subList(i, Math.min(i + CHUNK_SIZE, distinct.size())))) {
+				found.put(idOf.apply(entity), entity);
+			}
+		}
+		List<T> items = new ArrayList<>(found.size());
+		List<Long> missing = new ArrayList<>();
+		for (Long id : distinct) {
+			T entity = found.get(id);
+			if (entity != null) {
+				items.add(entity);
+			} else {
+				missing.add(id);
+			}
+		}
+		return new Result<>(items, missing);
+	}
+
+	/**
+	 * Resposta de uma busca por vários ids.
+	 * @param items - Entidades encontradas, na ordem pedida.
+	 * @param missing - Ids sem entidade, na ordem pedida.
+	 */
+	public record Result<T>(List<T> items, List<Long> missing) {
+	}
+}
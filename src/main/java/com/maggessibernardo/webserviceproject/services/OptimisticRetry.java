@@ -0,0 +1,94 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+
+/**
+ * Repete operações idempotentes que falharam no controle otimista (@Version).
+ *
+ * Cada tentativa precisa ser uma transação completa (ler, alterar, gravar), para
+ * que a repetição trabalhe sobre a versão atual da linha. Entre as tentativas há
+ * uma espera aleatória entre zero e um teto que dobra a cada conflito ("full
+ * jitter"), o que espalha os escritores concorrentes em vez de fazê-los colidir
+ * de novo no mesmo instante. Esgotadas as tentativas, o conflito é repassado e
+ * vira 409 no ResourceExceptionHandler.
+ *
+ * Métricas: "optimistic.lock.retries" (tentativas repetidas) e
+ * "optimistic.lock.conflicts" (conflitos repassados), com a tag "operation".
+ */
+@Component
+public class OptimisticRetry {
+
+	private final MeterRegistry registry;
+	private final int maxAttempts;
+	private final long initialBackoffNanos;
+	private final long maxBackoffNanos;
+
+	private final Map<String, Counter> retries = new ConcurrentHashMap<>();
+	private final Map<String, Counter> conflicts = new ConcurrentHashMap<>();
+
+	public OptimisticRetry(MeterRegistry registry,
+			@Value("${app.optimistic-retry.max-attempts:5}") int maxAttempts,
+			@Value("${app.optimistic-retry.initial-backoff:2ms}") Duration initialBackoff,
+			@Value("${app.optimistic-retry.max-backoff:100ms}") Duration maxBackoff) {
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException("app.optimistic-retry.max-attempts must be at least 1");
+		}
+		this.registry = registry;
+		this.maxAttempts = maxAttempts;
+		this.initialBackoffNanos = initialBackoff.toNanos();
+		this.maxBackoffNanos = maxBackoff.toNanos();
+	}
+
+	/**
+	 * Executa a operação, repetindo-a em caso de conflito de versão.
+	 * @param operation - Nome da operação (tag das métricas).
+	 * @param action - Operação idempotente, com a sua própria transação.
+	 * @return Resultado da primeira tentativa sem conflito.
+	 * @throws OptimisticLockingFailureException se todas as tentativas falharem.
+	 */
+	public <T> T execute(String operation, Supplier<T> action) {
+		for (int attempt = 1;; attempt++) {
+			try {
+				return action.get();
+			} catch (OptimisticLockingFailureException | OptimisticLockException e) {
+				if (attempt >= maxAttempts || !backoff(attempt)) {
+					counter(conflicts, "optimistic.lock.conflicts", operation).increment();
+					throw e;
+				}
+				counter(retries, "optimistic.lock.retries", operation).increment();
+			}
+		}
+	}
+
+	/**
+	 * Espera antes da próxima tentativa.
+	 * @return false se a thread foi interrompida (não há nova tentativa).
+	 */
+	private boolean backoff(int attempt) {
+		long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+		long nanos = ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+		try {
+			Thread.sleep(Duration.ofNanos(nanos));
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private Counter counter(Map<String, Counter> counters, String name, String operation) {
+		return counters.computeIfAbsent(operation, op -> Counter.builder(name).tag("operation", op).register(registry));
+	}
+}
@@ -0,0 +1,278 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.maggessibernardo.webserviceproject.config.ArchiveProperties;
+import com.maggessibernardo.webserviceproject.entities.Money;
+import com.maggessibernardo.webserviceproject.entities.Order;
+import com.maggessibernardo.webserviceproject.entities.OrderItem;
+import com.maggessibernardo.webserviceproject.entities.Payment;
+import com.maggessibernardo.webserviceproject.entities.Product;
+import com.maggessibernardo.webserviceproject.entities.enums.OrderStatus;
+import com.maggessibernardo.webserviceproject.repositories.ProductRepository;
+import com.maggessibernardo.webserviceproject.repositories.UserRepository;
+
+/**
+ * Arquivamento de pedidos antigos (camada fria).
+ *
+ * Periodicamente, os pedidos finalizados mais antigos que app.archive.min-age são
+ * copiados, com itens e pagamento, para tb_order_archive como um único blob
+ * comprimido por pedido, e removidos das tabelas quentes na mesma transação. Assim
+ * tb_order, tb_order_item e tb_payment (e seus índices) ficam com o tamanho do
+ * volume recente. A leitura de um pedido arquivado reconstrói a entidade a partir
+ * do blob, sem ligá-la ao contexto de persistência.
+ */
+@Service
+public class OrderArchiveService {
+
+	private static final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+
+	// Primeiro byte do blob; permite evoluir o formato sem regravar o arquivo
+	// 2: preços dos itens em centavos (long); a versão 1, com double, ainda é lida
+	private static final byte FORMAT_VERSION = 2;
+	private static final byte FORMAT_VERSION_DOUBLE_PRICES = 1;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final NamedParameterJdbcTemplate namedJdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final UserRepository userRepository;
+	private final ProductRepository productRepository;
+	private final ArchiveProperties props;
+
+	public OrderArchiveService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+			UserRepository userRepository, ProductRepository productRepository, ArchiveProperties props) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+		this.transactionTemplate = transactionTemplate;
+		this.userRepository = userRepository;
+		this.productRepository = productRepository;
+		this.props = props;
+	}
+
+	@Scheduled(initialDelayString = "${app.archive.initial-delay:5m}", fixedDelayString = "${app.archive.interval:1h}")
+	public void archiveScheduled() {
+		if (!props.isEnabled()) {
+			return;
+		}
+		long start = System.nanoTime();
+		int total = archiveOlderThan(Instant.now().minus(props.getMinAge()));
+		if (total > 0) {
+			log.info("Archived {} orders in {} ms", total, (System.nanoTime() - start) / 1_000_000);
+		}
+	}
+
+	/**
+	 * Arquiva, em lotes de app.archive.batch-size, todos os pedidos elegíveis
+	 * criados antes do instante informado.
+	 * @return Quantidade de pedidos arquivados.
+	 */
+	public int archiveOlderThan(Instant cutoff) {
+		int total = 0;
+		Batch batch;
+		do {
+			batch = transactionTemplate.execute(status -> archiveBatch(cutoff));
+			total += batch.archived();
+		} while (batch.selected() == props.getBatchSize());
+		return total;
+	}
+
+	// Pedidos escolhidos pela consulta e, destes, os que ainda eram elegíveis depois do bloqueio
+	private record Batch(int selected, int archived) {
+	}
+
+	private Batch archiveBatch(Instant cutoff) {
+		MapSqlParameterSource params = new MapSqlParameterSource()
+				.addValue("cutoff", Timestamp.from(cutoff))
+				.addValue("statuses", props.getStatuses().stream().map(OrderStatus::getCode).toList())
+				.addValue("limit", props.getBatchSize());
+		List<Long> ids = namedJdbcTemplate.queryForList("select id from tb_order where moment < :cutoff"
+				+ " and order_status in (:statuses) order by moment fetch first :limit rows only", params, Long.class);
+		if (ids.isEmpty()) {
+			return new Batch(0, 0);
+		}
+
+		// Bloqueia os pedidos até o commit: uma transição de status concorrente (OrderService)
+		// espera o arquivamento e não encontra mais o pedido, em vez de se perder no DELETE.
+		// O status é conferido de novo porque pode ter mudado antes do bloqueio.
+		Map<Long, Snapshot> snapshots = new LinkedHashMap<>();
+		List<Integer> archivable = props.getStatuses().stream().map(OrderStatus::getCode).toList();
+		namedJdbcTemplate.query("select id, moment, order_status, client_id from tb_order where id in (:ids)"
+				+ " for update", new MapSqlParameterSource("ids", ids), rs -> {
+					Snapshot s = new Snapshot();
+					s.id = rs.getLong("id");
+					s.moment = rs.getTimestamp("moment").toInstant();
+					s.status = rs.getInt("order_status");
+					s.clientId = rs.getObject("client_id", Long.class);
+					if (archivable.contains(s.status)) {
+						snapshots.put(s.id, s);
+					}
+				});
+		if (snapshots.isEmpty()) {
+			return new Batch(ids.size(), 0);
+		}
+		MapSqlParameterSource byIds = new MapSqlParameterSource("ids", List.copyOf(snapshots.keySet()));
+		namedJdbcTemplate.query("select order_id, product_id, quantity, price_cents from tb_order_item"
+				+ " where order_id in (:ids)", byIds, rs -> {
+					snapshots.get(rs.getLong("order_id")).items.add(new ItemSnapshot(rs.getLong("product_id"),
+							rs.getInt("quantity"), rs.getLong("price_cents")));
+				});
+		namedJdbcTemplate.query("select order_id, moment from tb_payment where order_id in (:ids)", byIds, rs -> {
+			Snapshot s = snapshots.get(rs.getLong("order_id"));
+			Timestamp moment = rs.getTimestamp("moment");
+			s.paid = true;
+			s.paymentMoment = moment != null ? moment.toInstant() : null;
+		});
+
+		Timestamp archivedAt = Timestamp.from(Instant.now());
+		List<Object[]> rows = new ArrayList<>(snapshots.size());
+		for (Snapshot s : snapshots.values()) {
+			rows.add(new Object[] { s.id, s.clientId, Timestamp.from(s.moment), archivedAt, s.encode() });
+		}
+		jdbcTemplate.batchUpdate("insert into tb_order_archive (id, client_id, moment, archived_at, payload)"
+				+ " values (?, ?, ?, ?, ?)", rows);
+
+		namedJdbcTemplate.update("delete from tb_payment where order_id in (:ids)", byIds);
+		namedJdbcTemplate.update("delete from tb_order_item where order_id in (:ids)", byIds);
+		namedJdbcTemplate.update("delete from tb_order where id in (:ids)", byIds);
+		return new Batch(ids.size(), snapshots.size());
+	}
+
+	/**
+	 * Busca um pedido no arquivo.
+	 * @return Pedido reconstruído (desanexado), ou vazio se o id não estiver arquivado.
+	 */
+	public Optional<Order> findById(Long id) {
+		List<byte[]> payload = jdbcTemplate.query("select payload from tb_order_archive where id = ?",
+				(rs, row) -> rs.getBytes(1), id);
+		if (payload.isEmpty()) {
+			return Optional.empty();
+		}
+		return Optional.of(toOrder(Snapshot.decode(payload.get(0))));
+	}
+
+	private Order toOrder(Snapshot s) {
+		Order order = new Order(s.id, s.moment, OrderStatus.valueOf(s.status),
+				s.clientId != null ? userRepository.findById(s.clientId).orElse(null) : null);
+		Map<Long, Product> products = productRepository
+				.findAllById(s.items.stream().map(ItemSnapshot::productId).toList()).stream()
+				.collect(Collectors.toMap(Product::getId, Function.identity()));
+		for (ItemSnapshot item : s.items) {
+			// Produto removido depois do arquivamento: mantém apenas o id
+			Product product = products.getOrDefault(item.productId(),
+					new Product(item.productId(), null, null, null, null));
+			order.getItems().add(new OrderItem(order, product, item.quantity(),
+					Money.ofCents(item.priceCents())));
+		}
+		if (s.paid) {
+			order.setPayment(new Payment(s.id, s.paymentMoment, order));
+		}
+		return order;
+	}
+
+	private record ItemSnapshot(long productId, int quantity, long priceCents) {
+	}
+
+	/**
+	 * Conteúdo de um pedido arquivado, serializado em binário (DataOutput) e
+	 * comprimido com deflate.
+	 */
+	private static final class Snapshot {
+		long id;
+		Instant moment;
+		int status;
+		Long clientId;
+		boolean paid;
+		Instant paymentMoment;
+		final List<ItemSnapshot> items = new ArrayList<>();
+
+		byte[] encode() {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + items.size() * 20);
+			try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+				out.writeByte(FORMAT_VERSION);
+				out.writeLong(id);
+				writeInstant(out, moment);
+				out.writeByte(status);
+				out.writeBoolean(clientId != null);
+				if (clientId != null) {
+					out.writeLong(clientId);
+				}
+				out.writeBoolean(paid);
+				out.writeBoolean(paymentMoment != null);
+				if (paymentMoment != null) {
+					writeInstant(out, paymentMoment);
+				}
+				out.writeInt(items.size());
+				for (ItemSnapshot item : items) {
+					out.writeLong(item.productId());
+					out.writeInt(item.quantity());
+					out.writeLong(item.priceCents());
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return bytes.toByteArray();
+		}
+
+		static Snapshot decode(byte[] payload) {
+			try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(payload)))) {
+				byte version = in.readByte();
+				if (version != FORMAT_VERSION && version != FORMAT_VERSION_DOUBLE_PRICES) {
+					throw new IllegalStateException("Unsupported archive format version " + version);
+				}
+				Snapshot s = new Snapshot();
+				s.id = in.readLong();
+				s.moment = readInstant(in);
+				s.status = in.readByte();
+				s.clientId = in.readBoolean() ? in.readLong() : null;
+				s.paid = in.readBoolean();
+				s.paymentMoment = in.readBoolean() ? readInstant(in) : null;
+				int count = in.readInt();
+				for (int i = 0; i < count; i++) {
+					long productId = in.readLong();
+					int quantity = in.readInt();
+					long priceCents = version == FORMAT_VERSION_DOUBLE_PRICES
+							? Money.ofRounded(in.readDouble()).cents()
+							: in.readLong();
+					s.items.add(new ItemSnapshot(productId, quantity, priceCents));
+				}
+				return s;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+			out.writeLong(instant.getEpochSecond());
+			out.writeInt(instant.getNano());
+		}
+
+		private static Instant readInstant(DataInputStream in) throws IOException {
+			return Instant.ofEpochSecond(in.readLong(), in.readInt());
+		}
+	}
+}
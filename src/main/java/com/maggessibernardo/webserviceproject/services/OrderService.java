@@ -1,25 +1,326 @@
 package com.maggessibernardo.webserviceproject.services;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.maggessibernardo.webserviceproject.entities.Money;
 import com.maggessibernardo.webserviceproject.entities.Order;
+import com.maggessibernardo.webserviceproject.entities.enums.OrderStatus;
+import com.maggessibernardo.webserviceproject.repositories.OrderItemRepository;
+import com.maggessibernardo.webserviceproject.repositories.OrderItemRepository.SalesTotals;
 import com.maggessibernardo.webserviceproject.repositories.OrderRepository;
+import com.maggessibernardo.webserviceproject.repositories.OrderRepository.StatusCandidate;
+import com.maggessibernardo.webserviceproject.repositories.UserRepository;
+import com.maggessibernardo.webserviceproject.services.OrderStatusStream.OrderEvent;
+import com.maggessibernardo.webserviceproject.services.execptions.BadRequestException;
+import com.maggessibernardo.webserviceproject.services.execptions.ResourceNotFoundException;
+
+import jakarta.persistence.EntityManagerFactory;
 //implementa interface de repositório
 @Service
 public class OrderService {
 	
+	// Limites usados quando o período não é informado (a coluna não aceita Instant.MAX)
+	private static final Instant MIN_MOMENT = Instant.EPOCH;
+	private static final Instant MAX_MOMENT = Instant.parse("9999-12-31T23:59:59Z");
+	
+	public static final int MAX_PAGE_SIZE = 100;
+	
+	// Tamanho máximo da lista do IN em cada UPDATE de transição de status
+	private static final int TRANSITION_CHUNK_SIZE = 1000;
+	
+	private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+	
 	@Autowired
 	private OrderRepository repository;
 	
+	@Autowired
+	private UserRepository userRepository;
+	
+	@Autowired
+	private OrderItemRepository itemRepository;
+	
+	@Autowired
+	private OrderArchiveService archiveService;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	@Autowired
+	private SingleFlight singleFlight;
+	
+	@Autowired
+	private OrderStatusStream statusStream;
+	
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	
+	@Value("${app.order-status.cancel-unpaid.enabled:false}")
+	private boolean cancelUnpaidEnabled;
+	
+	@Value("${app.order-status.cancel-unpaid.payment-timeout:3d}")
+	private Duration paymentTimeout;
+	
 	public List<Order> findAll(){
 		return repository.findAll();
 	}
+	// Leituras concorrentes do mesmo pedido compartilham uma carga; o pedido sai desanexado
 	public Order findById(Long id) {
-		Optional<Order> obj = repository.findById(id);
-		return obj.get();
+		Optional<Order> obj = Optional.ofNullable(singleFlight.load("order", id, () -> loadOrder(id)));
+		return obj.orElseThrow(() -> new ResourceNotFoundException(id));
+	}
+	
+	// Pedidos antigos saem das tabelas quentes; se não estiver lá, procura no arquivo
+	private Order loadOrder(Long id) {
+		List<Order> found = repository.findByIdIn(List.of(id));
+		Order order = found.isEmpty() ? archiveService.findById(id).orElse(null) : found.get(0);
+		if (order != null) {
+			// As categorias dos produtos também são serializadas, fora desta transação
+			order.getItems().forEach(item -> Hibernate.initialize(item.getProduct().getCategories()));
+		}
+		return order;
+	}
+	
+	/**
+	 * Vários pedidos em consultas IN por lote, na ordem pedida. Os ids que não
+	 * estão nas tabelas quentes são procurados no arquivo, um a um pela chave.
+	 */
+	public MultiGet.Result<Order> findAllById(Collection<Long> ids) {
+		return MultiGet.load(ids, this::findChunk, Order::getId);
+	}
+	
+	private List<Order> findChunk(List<Long> ids) {
+		List<Order> orders = new ArrayList<>(repository.findByIdIn(ids));
+		if (orders.size() < ids.size()) {
+			Set<Long> hot = new HashSet<>();
+			orders.forEach(order -> hot.add(order.getId()));
+			for (Long id : ids) {
+				if (!hot.contains(id)) {
+					archiveService.findById(id).ifPresent(orders::add);
+				}
+			}
+		}
+		return orders;
+	}
+	
+	/**
+	 * Move vários pedidos para o status informado com um UPDATE por lote de ids,
+	 * sem carregar as entidades. A validação da transição fica no WHERE (status
+	 * atual entre os antecessores permitidos), então pedidos inexistentes, já no
+	 * status de destino ou em um status incompatível são contados como ignorados.
+	 * Com algum GET /orders/stream aberto, ou na transição para PAID, cada lote
+	 * trava e lê seus candidatos na mesma transação do UPDATE; para PAID, o
+	 * pagamento (tb_payment) de cada pedido alterado é criado nessa transação, como
+	 * no pagamento de um pedido só. As mudanças são publicadas depois do commit.
+	 * @param ids - Ids dos pedidos (duplicados e nulos são desconsiderados).
+	 * @param status - Status de destino.
+	 * @return Quantidade de pedidos alterados e ignorados.
+	 */
+	public StatusTransitionResult transitionStatus(Collection<Long> ids, OrderStatus status) {
+		if (status == null || status.getAllowedPredecessors().isEmpty()) {
+			throw new BadRequestException("Orders cannot be moved to status " + status);
+		}
+		List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+		distinct.removeIf(id -> id == null);
+		List<Integer> from = status.getAllowedPredecessors().stream().map(OrderStatus::getCode).toList();
+		
+		int updated = 0;
+		for (int i = 0; i < distinct.size(); i += TRANSITION_CHUNK_SIZE) {
+			List<Long> chunk = distinct.subList(i, Math.min(i + TRANSITION_CHUNK_SIZE, distinct.size()));
+			updated += statusStream.hasSubscribers() || status == OrderStatus.PAID
+					? updateLocked(chunk, from, status)
+					: repository.updateStatus(chunk, from, status.getCode());
+			// O UPDATE não passa pelas entidades: descarta o que estiver em cache
+			for (Long id : chunk) {
+				entityManagerFactory.getCache().evict(Order.class, id);
+			}
+		}
+		return new StatusTransitionResult(status, distinct.size(), updated, distinct.size() - updated);
+	}
+	
+	private int updateLocked(List<Long> ids, List<Integer> from, OrderStatus status) {
+		Instant now = Instant.now();
+		List<StatusCandidate> changed = transactionTemplate.execute(tx -> {
+			List<StatusCandidate> candidates = repository.lockStatusCandidates(ids, from);
+			if (!candidates.isEmpty()) {
+				List<Long> changedIds = candidates.stream().map(StatusCandidate::getId).toList();
+				repository.updateStatus(changedIds, from, status.getCode());
+				if (status == OrderStatus.PAID) {
+					repository.insertPayments(changedIds, now);
+				}
+			}
+			return candidates;
+		});
+		for (StatusCandidate order : changed) {
+			statusStream.publish(order.getClientId(), new OrderEvent(order.getId(), status, now));
+		}
+		return changed.size();
+	}
+	
+	/**
+	 * Abre o stream de mudanças de status dos pedidos do usuário autenticado.
+	 * @param email - Usuário do token.
+	 */
+	public SseEmitter subscribe(String email) {
+		Long clientId = userRepository.findByEmail(email).orElseThrow(() -> new ResourceNotFoundException(email))
+				.getId();
+		return statusStream.subscribe(clientId);
+	}
+	
+	/**
+	 * Cancela periodicamente os pedidos que aguardam pagamento há mais de
+	 * app.order-status.cancel-unpaid.payment-timeout.
+	 */
+	@Scheduled(fixedDelayString = "${app.order-status.cancel-unpaid.interval:10m}")
+	public void cancelUnpaidOrders() {
+		if (!cancelUnpaidEnabled) {
+			return;
+		}
+		Instant before = Instant.now().minus(paymentTimeout);
+		int canceled = 0;
+		List<Long> ids;
+		do {
+			ids = repository.findIdsByStatusBefore(OrderStatus.WAITING_PAYMENT.getCode(), before,
+					Limit.of(TRANSITION_CHUNK_SIZE));
+			int updated = transitionStatus(ids, OrderStatus.CANCELED).updated();
+			canceled += updated;
+			if (updated == 0) {
+				break;
+			}
+		} while (ids.size() == TRANSITION_CHUNK_SIZE);
+		if (canceled > 0) {
+			log.info("Canceled {} orders waiting for payment since before {}", canceled, before);
+		}
+	}
+	
+	/**
+	 * Histórico de pedidos de um cliente, do mais recente para o mais antigo, com
+	 * paginação por chave: o cursor "after" é a posição (moment, id) do último pedido
+	 * da página anterior, então cada página custa o mesmo para qualquer cliente.
+	 * @param clientId - Id do cliente.
+	 * @param from - Início do período (inclusivo), ou null.
+	 * @param to - Fim do período (exclusivo), ou null.
+	 * @param status - Filtro de status, ou null.
+	 * @param after - Cursor retornado pela página anterior, ou null.
+	 * @param size - Tamanho da página (1 a {@link #MAX_PAGE_SIZE}).
+	 * @return Página com os pedidos e o cursor da próxima página (null se não houver).
+	 */
+	public HistoryPage findClientHistory(Long clientId, Instant from, Instant to, OrderStatus status, String after,
+			int size) {
+		if (size < 1 || size > MAX_PAGE_SIZE) {
+			throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+		}
+		Instant beforeMoment = to != null ? to : MAX_MOMENT;
+		long beforeId = Long.MIN_VALUE;
+		if (after != null) {
+			Cursor cursor = Cursor.decode(after);
+			beforeMoment = cursor.moment();
+			beforeId = cursor.id();
+		}
+		Integer statusCode = status != null ? status.getCode() : null;
+		
+		// Busca um pedido a mais para saber se existe próxima página
+		List<Order> orders = repository.findClientHistory(clientId, from != null ? from : MIN_MOMENT, beforeMoment,
+				beforeId, statusCode, Limit.of(size + 1));
+		if (orders.isEmpty() && after == null && !userRepository.existsById(clientId)) {
+			throw new ResourceNotFoundException(clientId);
+		}
+		String next = null;
+		if (orders.size() > size) {
+			orders = orders.subList(0, size);
+			Order last = orders.get(size - 1);
+			next = new Cursor(last.getMoment(), last.getId()).encode();
+		}
+		return new HistoryPage(orders, next);
+	}
+	
+	/**
+	 * Totais de vendas dos pedidos do período, somados no banco em centavos.
+	 * @param from - Início do período (inclusivo), ou null.
+	 * @param to - Fim do período (exclusivo), ou null.
+	 * @param status - Filtro de status, ou null.
+	 */
+	public SalesSummary summarize(Instant from, Instant to, OrderStatus status) {
+		SalesTotals totals = itemRepository.sumSales(from != null ? from : MIN_MOMENT, to != null ? to : MAX_MOMENT,
+				status != null ? status.getCode() : null);
+		return new SalesSummary(totals.getOrders(), totals.getItems(), totals.getUnits(),
+				Money.ofCents(totals.getRevenueCents()), money(totals.getAverageOrderCents()),
+				money(totals.getAverageUnitPriceCents()));
+	}
+	
+	private static Money money(Long cents) {
+		return cents != null ? Money.ofCents(cents) : null;
+	}
+	
+	/**
+	 * Totais de vendas de um período (GET /orders/summary). As médias são null
+	 * quando não há itens.
+	 */
+	public record SalesSummary(long orders, long items, long units, Money revenue, Money averageOrderValue,
+			Money averageUnitPrice) {
+	}
+	
+	/**
+	 * Pedido de transição em lote (corpo de POST /orders/status).
+	 */
+	public record StatusTransition(List<Long> ids, OrderStatus status) {
+	}
+	
+	/**
+	 * Resultado de uma transição em lote.
+	 * @param requested - Ids distintos recebidos.
+	 * @param updated - Pedidos alterados.
+	 * @param skipped - Pedidos inexistentes ou com transição não permitida.
+	 */
+	public record StatusTransitionResult(OrderStatus status, int requested, int updated, int skipped) {
+	}
+	
+	/**
+	 * Página do histórico de pedidos.
+	 * @param orders - Pedidos da página.
+	 * @param nextCursor - Valor de "after" para a próxima página, ou null.
+	 */
+	public record HistoryPage(List<Order> orders, String nextCursor) {
+	}
+	
+	/**
+	 * Posição (moment, id) codificada em base64url para uso na query string.
+	 */
+	private record Cursor(Instant moment, long id) {
+		
+		String encode() {
+			String raw = moment + "," + id;
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+		}
+		
+		static Cursor decode(String value) {
+			try {
+				String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+				int comma = raw.indexOf(',');
+				return new Cursor(Instant.parse(raw.substring(0, comma)), Long.parseLong(raw.substring(comma + 1)));
+			} catch (RuntimeException e) {
+				throw new BadRequestException("Invalid cursor: " + value);
+			}
+		}
 	}
 }
@@ -0,0 +1,272 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.maggessibernardo.webserviceproject.entities.enums.OrderStatus;
+import com.maggessibernardo.webserviceproject.services.execptions.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Distribui as mudanças de status dos pedidos, depois do commit, para os
+ * assinantes de GET /orders/stream (Server-Sent Events) do cliente dono do pedido.
+ *
+ * Cada assinante tem uma fila limitada (app.order-stream.buffer-size) e só ocupa
+ * uma thread (virtual) enquanto há eventos a enviar; uma conexão ociosa custa o
+ * SseEmitter e uma fila vazia, sem thread presa. Quando a fila de um cliente lento
+ * enche, vale a política app.order-stream.overflow: DROP_OLDEST descarta o evento
+ * mais antigo, DISCONNECT encerra a conexão (o cliente reconecta e relê o pedido
+ * com GET /orders/{id}). Um comentário de heartbeat periódico mantém as conexões
+ * vivas em proxies e descobre clientes que já foram embora.
+ *
+ * Cada stream aberto prende uma conexão do Tomcat pelo tempo todo, então o
+ * número deles é limitado por cliente (app.order-stream.max-per-client) e no
+ * total (app.order-stream.max-subscribers); acima disso a assinatura é recusada
+ * com 429. server.tomcat.max-connections é dimensionado a partir do total.
+ *
+ * Métricas: "orders.stream.subscribers", "orders.stream.events" (eventos enviados),
+ * "orders.stream.dropped" e "orders.stream.disconnected" (por fila cheia).
+ */
+@Component
+public class OrderStatusStream {
+
+	public enum Overflow {
+		DROP_OLDEST, DISCONNECT
+	}
+
+	private static final Object HEARTBEAT = new Object();
+
+	private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+	private final AtomicInteger subscriberCount = new AtomicInteger();
+	private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+			Thread.ofVirtual().name("order-stream-", 0).factory());
+
+	private final int bufferSize;
+	private final Overflow overflow;
+	private final long timeoutMillis;
+	private final int maxPerClient;
+	private final int maxSubscribers;
+
+	private final Counter sent;
+	private final Counter dropped;
+	private final Counter disconnected;
+
+	public OrderStatusStream(MeterRegistry registry,
+			@Value("${app.order-stream.buffer-size:32}") int bufferSize,
+			@Value("${app.order-stream.overflow:DROP_OLDEST}") Overflow overflow,
+			@Value("${app.order-stream.timeout:30m}") Duration timeout,
+			@Value("${app.order-stream.max-per-client:4}") int maxPerClient,
+			@Value("${app.order-stream.max-subscribers:10000}") int maxSubscribers) {
+		if (bufferSize < 1) {
+			throw new IllegalArgumentException("app.order-stream.buffer-size must be at least 1");
+		}
+		this.bufferSize = bufferSize;
+		this.overflow = overflow;
+		this.timeoutMillis = timeout.toMillis();
+		this.maxPerClient = maxPerClient;
+		this.maxSubscribers = maxSubscribers;
+		Gauge.builder("orders.stream.subscribers", subscriberCount, AtomicInteger::get).register(registry);
+		this.sent = registry.counter("orders.stream.events");
+		this.dropped = registry.counter("orders.stream.dropped");
+		this.disconnected = registry.counter("orders.stream.disconnected");
+	}
+
+	/**
+	 * Abre um stream com as mudanças dos pedidos do cliente. A conexão termina
+	 * depois de app.order-stream.timeout; o EventSource do navegador reconecta.
+	 * @param clientId - Id do cliente autenticado.
+	 * @return Emitter a ser devolvido pelo controller.
+	 * @throws TooManyRequestsException se o cliente ou o servidor já têm o máximo de streams abertos.
+	 */
+	public SseEmitter subscribe(Long clientId) {
+		SseEmitter emitter = new SseEmitter(timeoutMillis);
+		Subscriber subscriber = new Subscriber(clientId, emitter);
+		register(subscriber);
+		try {
+			// Primeira mensagem: faz a resposta (cabeçalhos) sair assim que o stream abre
+			emitter.send(SseEmitter.event().comment("connected"));
+		} catch (IOException e) {
+			remove(subscriber);
+			throw new UncheckedIOException(e);
+		}
+		emitter.onCompletion(() -> remove(subscriber));
+		emitter.onTimeout(() -> close(subscriber));
+		emitter.onError(e -> close(subscriber));
+		return emitter;
+	}
+
+	// Reserva a vaga antes de abrir o stream: o limite vale mesmo com assinaturas simultâneas
+	private void register(Subscriber subscriber) {
+		if (subscriberCount.incrementAndGet() > maxSubscribers) {
+			subscriberCount.decrementAndGet();
+			throw new TooManyRequestsException("Too many open order streams, try again later");
+		}
+		boolean[] added = new boolean[1];
+		subscribers.compute(subscriber.clientId, (id, set) -> {
+			if (set == null) {
+				set = ConcurrentHashMap.newKeySet();
+			}
+			if (set.size() < maxPerClient) {
+				added[0] = set.add(subscriber);
+			}
+			return set.isEmpty() ? null : set;
+		});
+		if (!added[0]) {
+			subscriberCount.decrementAndGet();
+			throw new TooManyRequestsException("At most " + maxPerClient + " open order streams per client");
+		}
+	}
+
+	/**
+	 * Permite pular o trabalho de montar eventos quando ninguém está ouvindo.
+	 */
+	public boolean hasSubscribers() {
+		return subscriberCount.get() > 0;
+	}
+
+	/**
+	 * Entrega o evento aos streams abertos do cliente, sem bloquear quem publica.
+	 * Deve ser chamado só depois do commit da mudança.
+	 */
+	public void publish(Long clientId, OrderEvent event) {
+		Set<Subscriber> targets = subscribers.get(clientId);
+		if (targets != null) {
+			targets.forEach(subscriber -> subscriber.offer(event));
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${app.order-stream.heartbeat-interval:30s}")
+	public void heartbeat() {
+		subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.offer(HEARTBEAT)));
+	}
+
+	// Antes do desligamento gracioso do servidor, que esperaria as conexões abertas
+	@EventListener(ContextClosedEvent.class)
+	public void closeAll() {
+		subscribers.values().forEach(set -> set.forEach(this::close));
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		closeAll();
+		senders.shutdownNow();
+	}
+
+	private void close(Subscriber subscriber) {
+		remove(subscriber);
+		subscriber.emitter.complete();
+	}
+
+	private void remove(Subscriber subscriber) {
+		if (!subscriber.closed.compareAndSet(false, true)) {
+			return;
+		}
+		subscriberCount.decrementAndGet();
+		subscribers.computeIfPresent(subscriber.clientId, (id, set) -> {
+			set.remove(subscriber);
+			return set.isEmpty() ? null : set;
+		});
+	}
+
+	/**
+	 * Mudança de um pedido, enviada como evento SSE "status", ou "payment" quando o
+	 * pedido passa a PAID.
+	 */
+	public record OrderEvent(Long orderId, OrderStatus orderStatus, Instant moment) {
+
+		String eventName() {
+			return orderStatus == OrderStatus.PAID ? "payment" : "status";
+		}
+	}
+
+	private final class Subscriber {
+
+		final Long clientId;
+		final SseEmitter emitter;
+		final AtomicBoolean closed = new AtomicBoolean();
+
+		// A fila só aloca quando recebe eventos; o tamanho é controlado à parte
+		private final Queue<Object> buffer = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger buffered = new AtomicInteger();
+		private final AtomicBoolean draining = new AtomicBoolean();
+
+		Subscriber(Long clientId, SseEmitter emitter) {
+			this.clientId = clientId;
+			this.emitter = emitter;
+		}
+
+		void offer(Object item) {
+			if (closed.get()) {
+				return;
+			}
+			if (buffered.incrementAndGet() > bufferSize) {
+				if (overflow == Overflow.DISCONNECT) {
+					buffered.decrementAndGet();
+					disconnected.increment();
+					close(this);
+					return;
+				}
+				if (buffer.poll() != null) {
+					buffered.decrementAndGet();
+					dropped.increment();
+				}
+			}
+			buffer.add(item);
+			if (draining.compareAndSet(false, true)) {
+				senders.execute(this::drain);
+			}
+		}
+
+		// Uma única thread por assinante envia a fila em ordem; termina quando ela esvazia
+		private void drain() {
+			do {
+				Object item;
+				while ((item = buffer.poll()) != null) {
+					buffered.decrementAndGet();
+					try {
+						send(item);
+					} catch (IOException | IllegalStateException e) {
+						// Conexão encerrada pelo cliente ou emitter já completado
+						close(this);
+						buffer.clear();
+						return;
+					}
+				}
+				draining.set(false);
+			} while (!buffer.isEmpty() && draining.compareAndSet(false, true));
+		}
+
+		private void send(Object item) throws IOException {
+			if (item == HEARTBEAT) {
+				emitter.send(SseEmitter.event().comment("heartbeat"));
+				return;
+			}
+			OrderEvent event = (OrderEvent) item;
+			emitter.send(SseEmitter.event().name(event.eventName()).data(event, MediaType.APPLICATION_JSON));
+			sent.increment();
+		}
+	}
+}
@@ -0,0 +1,234 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.maggessibernardo.webserviceproject.config.ImageProperties;
+import com.maggessibernardo.webserviceproject.entities.Product;
+import com.maggessibernardo.webserviceproject.repositories.ProductRepository;
+import com.maggessibernardo.webserviceproject.services.execptions.BadRequestException;
+import com.maggessibernardo.webserviceproject.services.execptions.ResourceNotFoundException;
+
+/**
+ * Imagens de produto em um armazenamento local endereçado por conteúdo, no lugar
+ * do servidor de imagens separado.
+ *
+ * O original é gravado em app.images.store-dir com o SHA-256 do conteúdo como
+ * nome (imagens iguais são guardadas uma vez só), e o produto guarda o hash e o
+ * tipo. O imgUrl passa a ser /products/{id}/image?v=..., uma URL que muda junto
+ * com a imagem e por isso pode ser guardada em cache para sempre. Miniaturas
+ * (?size=) são geradas no primeiro pedido no {@link ThumbnailCache}. Os bytes são
+ * enviados por {@link FileTransfer}, sem cópia pelo heap.
+ */
+@Service
+public class ProductImageService {
+
+	// Prefixo do hash usado como versão na URL
+	private static final int VERSION_LENGTH = 16;
+
+	@Autowired
+	private ProductRepository repository;
+
+	@Autowired
+	private ThumbnailCache thumbnailCache;
+
+	@Autowired
+	private ImageProperties properties;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private CatalogCache catalog;
+
+	/**
+	 * Imagem a enviar: arquivo (o original pelo caminho; a miniatura já aberta, ver
+	 * {@link ThumbnailCache}), tipo e ETag (o hash do conteúdo enviado).
+	 */
+	public record ImageFile(Path path, FileChannel channel, String contentType, String etag, String version)
+			implements Closeable {
+
+		@Override
+		public void close() throws IOException {
+			if (channel != null) {
+				channel.close();
+			}
+		}
+	}
+
+	/**
+	 * Original ou miniatura da imagem do produto.
+	 * @param size - Maior dimensão da miniatura, entre app.images.thumbnail-sizes, ou null para o original.
+	 * @throws ResourceNotFoundException se o produto não existir ou não tiver imagem.
+	 */
+	public ImageFile find(Long id, Integer size) throws IOException {
+		if (size != null && !properties.getThumbnailSizes().contains(size)) {
+			throw new BadRequestException("Image size must be one of " + properties.getThumbnailSizes());
+		}
+		Product product = repository.findById(id).orElseThrow(() -> new ResourceNotFoundException(id));
+		String hash = product.getImageHash();
+		if (hash == null) {
+			throw new ResourceNotFoundException(id);
+		}
+		String version = hash.substring(0, VERSION_LENGTH);
+		Path original = original(hash);
+		if (size == null) {
+			return new ImageFile(original, null, product.getImageType(), "\"" + hash + "\"", version);
+		}
+		// Miniaturas com transparência ficam em PNG; as demais em JPEG
+		boolean png = !"image/jpeg".equals(product.getImageType());
+		String name = hash + "-" + size + (png ? ".png" : ".jpg");
+		FileChannel thumbnail = thumbnailCache.get(name, file -> writeThumbnail(original, file, size, png));
+		return new ImageFile(null, thumbnail, png ? "image/png" : "image/jpeg", "\"" + hash + "-" + size + "\"",
+				version);
+	}
+
+	/**
+	 * Grava a imagem enviada e a associa ao produto. O corpo é lido em blocos direto
+	 * para um arquivo temporário enquanto o hash é calculado.
+	 * @throws BadRequestException se não for PNG, JPEG ou GIF, ou passar de app.images.max-upload-size
+	 *         ou de app.images.max-pixels.
+	 */
+	public Product store(Long id, InputStream body) throws IOException {
+		if (!repository.existsById(id)) {
+			throw new ResourceNotFoundException(id);
+		}
+		Path directory = properties.getStoreDir();
+		Files.createDirectories(directory);
+		Path temp = Files.createTempFile(directory, "upload-", ".tmp");
+		try {
+			MessageDigest digest = sha256();
+			try (InputStream in = new DigestInputStream(body, digest)) {
+				FileTransfer.receive(in, temp, properties.getMaxUploadSize().toBytes(), "Image");
+			}
+			String type = contentType(temp, properties.getMaxPixels());
+			String hash = HexFormat.of().formatHex(digest.digest());
+			Path target = original(hash);
+			if (!Files.exists(target)) {
+				Files.createDirectories(target.getParent());
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+			}
+			Product saved = transactionTemplate.execute(status -> {
+				Product product = repository.findById(id).orElseThrow(() -> new ResourceNotFoundException(id));
+				product.setImageHash(hash);
+				product.setImageType(type);
+				product.setImgUrl("/products/" + id + "/image?v=" + hash.substring(0, VERSION_LENGTH));
+				return repository.saveAndFlush(product);
+			});
+			catalog.invalidate();
+			return saved;
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private Path original(String hash) {
+		return properties.getStoreDir().resolve(hash.substring(0, 2)).resolve(hash);
+	}
+
+	// Pelo conteúdo, não pelo Content-Type informado; as dimensões vêm do cabeçalho, sem decodificar
+	private static String contentType(Path file, long maxPixels) throws IOException {
+		try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+			Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+			if (readers != null && readers.hasNext()) {
+				ImageReader reader = readers.next();
+				String type = switch (reader.getFormatName().toLowerCase()) {
+				case "png" -> "image/png";
+				case "jpeg", "jpg" -> "image/jpeg";
+				case "gif" -> "image/gif";
+				default -> null;
+				};
+				if (type != null) {
+					try {
+						reader.setInput(in, true, true);
+						checkPixels(reader, maxPixels);
+					} finally {
+						reader.dispose();
+					}
+					return type;
+				}
+			}
+		}
+		throw new BadRequestException("Unsupported image format (expected PNG, JPEG or GIF)");
+	}
+
+	private static void checkPixels(ImageReader reader, long maxPixels) throws IOException {
+		long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+		if (pixels > maxPixels) {
+			throw new BadRequestException("Image has " + pixels + " pixels; the maximum is " + maxPixels);
+		}
+	}
+
+	/**
+	 * Decodifica o original só depois de conferir as dimensões (originais gravados
+	 * antes do limite também passam por aqui) e com subamostragem, para que imagens
+	 * grandes não sejam decodificadas inteiras: a imagem lida tem pelo menos o
+	 * dobro do tamanho da miniatura.
+	 */
+	private void writeThumbnail(Path original, Path target, int size, boolean png) throws IOException {
+		BufferedImage source;
+		try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+			Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+			if (readers == null || !readers.hasNext()) {
+				throw new IOException("Unreadable image " + original);
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				checkPixels(reader, properties.getMaxPixels());
+				int step = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / (size * 2));
+				ImageReadParam param = reader.getDefaultReadParam();
+				param.setSourceSubsampling(step, step, 0, 0);
+				source = reader.read(0, param);
+			} finally {
+				reader.dispose();
+			}
+		}
+		double scale = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+		int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+		int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+		BufferedImage thumbnail = new BufferedImage(width, height,
+				png ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = thumbnail.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.drawImage(source, 0, 0, width, height, null);
+		} finally {
+			graphics.dispose();
+		}
+		if (!ImageIO.write(thumbnail, png ? "png" : "jpeg", target.toFile())) {
+			throw new IOException("No image writer for " + (png ? "png" : "jpeg"));
+		}
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,591 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.maggessibernardo.webserviceproject.config.ImportProperties;
+import com.maggessibernardo.webserviceproject.entities.Money;
+import com.maggessibernardo.webserviceproject.services.execptions.BadRequestException;
+import com.maggessibernardo.webserviceproject.services.execptions.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Importação em lote de produtos e dos seus vínculos com categorias a partir de
+ * um CSV (POST /products/import).
+ *
+ * O CSV vem como corpo da requisição (text/csv, até app.import.max-size), gravado
+ * em blocos direto no disco, ou como multipart (limitado pelo multipart global).
+ * O upload é movido para app.import.work-dir e processado em segundo plano, uma
+ * importação por vez; o andamento (percentual lido, linhas inseridas, atualizadas
+ * e com erro) fica em GET /products/import/{id}. O arquivo é lido registro a
+ * registro com {@link CsvReader}, os nomes de categoria são resolvidos por um mapa
+ * carregado uma vez no início, e as linhas são gravadas por JDBC batch, sem o
+ * Hibernate, com um commit a cada app.import.batch-size linhas. Um lote que falha
+ * no banco é refeito linha a linha, para que só as linhas com problema fiquem de
+ * fora, cada uma com o seu erro.
+ *
+ * Colunas (o cabeçalho é obrigatório; a ordem é livre): id, name, description,
+ * price, imgUrl e categories (nomes separados por "|"). Uma linha com id atualiza
+ * o produto existente, só nas colunas presentes e incrementando a versão; sem id,
+ * insere um produto novo, e name e price são obrigatórios. Com a coluna
+ * categories, os vínculos do produto passam a ser exatamente os listados.
+ *
+ * Métrica: "products.import.rows" (tag result=inserted|updated|failed).
+ */
+@Service
+public class ProductImportService {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+	// Tamanho das colunas varchar de tb_product
+	private static final int MAX_TEXT_LENGTH = 255;
+
+	private static final String CATEGORY_SEPARATOR = "\\|";
+
+	public enum State {
+		QUEUED, RUNNING, COMPLETED, FAILED
+	}
+
+	/**
+	 * Erro de uma linha do arquivo (a linha em que o registro começa).
+	 */
+	public record RowError(long line, String message) {
+	}
+
+	/**
+	 * Andamento de uma importação. "errors" traz só os primeiros
+	 * app.import.max-errors erros; "failed" conta todos.
+	 * @param progress - Percentual do arquivo já lido e gravado.
+	 * @param message - Motivo, quando a importação é interrompida (state FAILED).
+	 */
+	public record ImportStatus(String id, String fileName, State state, int progress, long rows, long inserted,
+			long updated, long failed, List<RowError> errors, Instant startedAt, Instant finishedAt, String message) {
+	}
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final ImportProperties props;
+	private final CatalogCache catalog;
+
+	private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+	// Importações concorrentes só disputariam o banco: uma por vez, as demais na fila
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(
+			Thread.ofVirtual().name("product-import-", 0).factory());
+
+	private final Counter insertCount;
+	private final Counter updateCount;
+	private final Counter failureCount;
+
+	public ProductImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+			ImportProperties props, CatalogCache catalog, MeterRegistry registry) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.props = props;
+		this.catalog = catalog;
+		this.insertCount = registry.counter("products.import.rows", "result", "inserted");
+		this.updateCount = registry.counter("products.import.rows", "result", "updated");
+		this.failureCount = registry.counter("products.import.rows", "result", "failed");
+	}
+
+	/**
+	 * Recebe o arquivo e agenda a importação.
+	 * @return Andamento inicial, com o id para consulta.
+	 */
+	public ImportStatus start(MultipartFile file) throws IOException {
+		if (file.isEmpty()) {
+			throw new BadRequestException("The uploaded file is empty");
+		}
+		Path path = newUpload();
+		// O multipart já está em disco: com File (e não Path) o Tomcat só renomeia o arquivo
+		file.transferTo(path.toFile());
+		return schedule(path, file.getOriginalFilename());
+	}
+
+	/**
+	 * Recebe o CSV como corpo da requisição, copiado em blocos para o disco, e agenda
+	 * a importação.
+	 * @param fileName - Nome informado pelo cliente, só para exibição; pode ser null.
+	 * @return Andamento inicial, com o id para consulta.
+	 * @throws BadRequestException se o corpo estiver vazio ou passar de app.import.max-size.
+	 */
+	public ImportStatus start(InputStream body, String fileName) throws IOException {
+		Path path = newUpload();
+		try {
+			long size = FileTransfer.receive(body, path, props.getMaxSize().toBytes(), "The uploaded file");
+			if (size == 0) {
+				throw new BadRequestException("The uploaded file is empty");
+			}
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(path);
+			throw e;
+		}
+		return schedule(path, fileName);
+	}
+
+	// Absoluto: um caminho relativo seria resolvido pelo Tomcat no diretório do multipart
+	private Path newUpload() throws IOException {
+		purgeFinished();
+		Path directory = props.getWorkDir().toAbsolutePath();
+		Files.createDirectories(directory);
+		return directory.resolve(UUID.randomUUID() + ".csv");
+	}
+
+	private ImportStatus schedule(Path path, String fileName) throws IOException {
+		String name = path.getFileName().toString();
+		String id = name.substring(0, name.length() - ".csv".length());
+		ImportJob job = new ImportJob(id, fileName, Files.size(path));
+		jobs.put(id, job);
+		executor.execute(() -> run(job, path));
+		return job.status();
+	}
+
+	/**
+	 * @throws ResourceNotFoundException se o id não existir ou a importação já tiver expirado.
+	 */
+	public ImportStatus find(String id) {
+		purgeFinished();
+		ImportJob job = jobs.get(id);
+		if (job == null) {
+			throw new ResourceNotFoundException(id);
+		}
+		return job.status();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private void run(ImportJob job, Path path) {
+		job.started();
+		long start = System.nanoTime();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+				CsvReader csv = new CsvReader(
+						new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8))) {
+			List<String> header = csv.next();
+			if (header == null) {
+				throw new IllegalArgumentException("The file has no header row");
+			}
+			Columns columns = Columns.of(header);
+			Map<String, Long> categories = loadCategories();
+			List<Row> batch = new ArrayList<>(props.getBatchSize());
+			List<String> record;
+			while ((record = csv.next()) != null) {
+				job.rowRead();
+				try {
+					batch.add(columns.parse(record, csv.getLine(), categories));
+				} catch (IllegalArgumentException e) {
+					job.failed(new RowError(csv.getLine(), e.getMessage()));
+				}
+				if (batch.size() >= props.getBatchSize()) {
+					write(columns, batch, job);
+					batch.clear();
+					job.position(channel.position());
+				}
+			}
+			write(columns, batch, job);
+			job.completed();
+			ImportStatus status = job.status();
+			log.info("Product import {} finished in {} ms: {} rows, {} inserted, {} updated, {} failed", job.id,
+					(System.nanoTime() - start) / 1_000_000, status.rows(), status.inserted(), status.updated(),
+					status.failed());
+		} catch (IOException | RuntimeException e) {
+			// Os lotes já confirmados permanecem; o andamento mostra até onde foi
+			job.aborted(e.getMessage());
+			log.warn("Product import {} failed: {}", job.id, e.getMessage());
+		} finally {
+			try {
+				Files.deleteIfExists(path);
+			} catch (IOException e) {
+				log.warn("Could not delete import file {}: {}", path, e.getMessage());
+			}
+		}
+	}
+
+	// Nome (sem diferenciar maiúsculas) para id; com nomes repetidos vale o menor id
+	private Map<String, Long> loadCategories() {
+		Map<String, Long> categories = new HashMap<>();
+		jdbcTemplate.query("select id, name from tb_category where name is not null order by id", rs -> {
+			categories.putIfAbsent(key(rs.getString("name")), rs.getLong("id"));
+		});
+		return categories;
+	}
+
+	private void write(Columns columns, List<Row> rows, ImportJob job) {
+		if (rows.isEmpty()) {
+			return;
+		}
+		try {
+			job.written(transactionTemplate.execute(status -> writeBatch(columns, rows)));
+			catalog.invalidate();
+		} catch (DataAccessException e) {
+			if (rows.size() == 1) {
+				job.failed(new RowError(rows.get(0).line(),
+						"Could not save row: " + e.getMostSpecificCause().getMessage()));
+				return;
+			}
+			// Refaz o lote linha a linha para isolar as que falham
+			for (Row row : rows) {
+				write(columns, List.of(row), job);
+			}
+		}
+	}
+
+	private BatchResult writeBatch(Columns columns, List<Row> rows) {
+		List<RowError> errors = new ArrayList<>();
+		List<Row> updates = new ArrayList<>();
+		List<Row> inserts = new ArrayList<>();
+		for (Row row : rows) {
+			(row.id() != null ? updates : inserts).add(row);
+		}
+
+		// Produtos gravados e seus ids, para os vínculos com categorias
+		List<Row> saved = new ArrayList<>(rows.size());
+		List<Long> savedIds = new ArrayList<>(rows.size());
+		if (!updates.isEmpty()) {
+			int[] counts = jdbcTemplate.batchUpdate(columns.updateSql,
+					updates.stream().map(columns::updateArguments).toList());
+			for (int i = 0; i < counts.length; i++) {
+				Row row = updates.get(i);
+				if (counts[i] == 0) {
+					errors.add(new RowError(row.line(), "Product " + row.id() + " not found"));
+				} else {
+					saved.add(row);
+					savedIds.add(row.id());
+				}
+			}
+		}
+		int updatedCount = saved.size();
+		if (!inserts.isEmpty()) {
+			KeyHolder keys = new GeneratedKeyHolder();
+			jdbcTemplate.batchUpdate(
+					con -> con.prepareStatement("insert into tb_product (name, description, price_cents, img_url)"
+							+ " values (?, ?, ?, ?)", new String[] { "id" }),
+					new BatchPreparedStatementSetter() {
+						@Override
+						public void setValues(PreparedStatement ps, int i) throws SQLException {
+							Row row = inserts.get(i);
+							ps.setString(1, row.name());
+							ps.setString(2, row.description());
+							ps.setLong(3, row.price().cents());
+							ps.setString(4, row.imgUrl());
+						}
+
+						@Override
+						public int getBatchSize() {
+							return inserts.size();
+						}
+					}, keys);
+			List<Map<String, Object>> generated = keys.getKeyList();
+			for (int i = 0; i < inserts.size(); i++) {
+				saved.add(inserts.get(i));
+				savedIds.add(((Number) generated.get(i).values().iterator().next()).longValue());
+			}
+		}
+
+		if (columns.categories >= 0) {
+			if (updatedCount > 0) {
+				jdbcTemplate.batchUpdate("delete from tb_product_category where product_id = ?",
+						savedIds.subList(0, updatedCount).stream().map(id -> new Object[] { id }).toList());
+			}
+			List<Object[]> links = new ArrayList<>();
+			for (int i = 0; i < saved.size(); i++) {
+				for (long categoryId : saved.get(i).categoryIds()) {
+					links.add(new Object[] { savedIds.get(i), categoryId });
+				}
+			}
+			if (!links.isEmpty()) {
+				jdbcTemplate.batchUpdate("insert into tb_product_category (product_id, category_id) values (?, ?)",
+						links);
+			}
+		}
+		return new BatchResult(saved.size() - updatedCount, updatedCount, errors);
+	}
+
+	private void purgeFinished() {
+		Instant cutoff = Instant.now().minus(props.getRetention());
+		jobs.values().removeIf(job -> job.isFinishedBefore(cutoff));
+	}
+
+	private static String key(String categoryName) {
+		return categoryName.trim().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Linha válida do arquivo. Campos ausentes do cabeçalho ficam null;
+	 * categoryIds é null sem a coluna categories.
+	 */
+	private record Row(long line, Long id, String name, String description, Money price, String imgUrl,
+			long[] categoryIds) {
+	}
+
+	private record BatchResult(long inserted, long updated, List<RowError> errors) {
+	}
+
+	/**
+	 * Posição de cada coluna no cabeçalho (-1 quando ausente) e o UPDATE
+	 * correspondente, que só altera as colunas presentes.
+	 */
+	private static final class Columns {
+
+		int width;
+		int id = -1;
+		int name = -1;
+		int description = -1;
+		int price = -1;
+		int imgUrl = -1;
+		int categories = -1;
+		String updateSql;
+
+		static Columns of(List<String> header) {
+			Columns columns = new Columns();
+			columns.width = header.size();
+			for (int i = 0; i < header.size(); i++) {
+				String column = header.get(i).trim();
+				switch (column.toLowerCase(Locale.ROOT)) {
+				case "id":
+					columns.id = position(columns.id, i, column);
+					break;
+				case "name":
+					columns.name = position(columns.name, i, column);
+					break;
+				case "description":
+					columns.description = position(columns.description, i, column);
+					break;
+				case "price":
+					columns.price = position(columns.price, i, column);
+					break;
+				case "imgurl":
+				case "img_url":
+					columns.imgUrl = position(columns.imgUrl, i, column);
+					break;
+				case "categories":
+					columns.categories = position(columns.categories, i, column);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown column '" + column
+							+ "' (expected id, name, description, price, imgUrl, categories)");
+				}
+			}
+			if (columns.id < 0 && (columns.name < 0 || columns.price < 0)) {
+				throw new IllegalArgumentException("The header must have an id column, or name and price columns");
+			}
+			StringBuilder set = new StringBuilder("update tb_product set ");
+			if (columns.name >= 0) {
+				set.append("name = ?, ");
+			}
+			if (columns.description >= 0) {
+				set.append("description = ?, ");
+			}
+			if (columns.price >= 0) {
+				set.append("price_cents = ?, ");
+			}
+			if (columns.imgUrl >= 0) {
+				set.append("img_url = ?, ");
+			}
+			columns.updateSql = set.append("version = version + 1 where id = ?").toString();
+			return columns;
+		}
+
+		private static int position(int current, int index, String column) {
+			if (current >= 0) {
+				throw new IllegalArgumentException("Duplicate column '" + column + "'");
+			}
+			return index;
+		}
+
+		Row parse(List<String> record, long line, Map<String, Long> categoryIds) {
+			if (record.size() != width) {
+				throw new IllegalArgumentException("Expected " + width + " fields but found " + record.size());
+			}
+			Long productId = null;
+			if (id >= 0 && !record.get(id).isBlank()) {
+				try {
+					productId = Long.valueOf(record.get(id).trim());
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid id '" + record.get(id) + "'");
+				}
+			}
+			String productName = text(record, name, "name");
+			if (name >= 0 || productId == null) {
+				if (productName == null || productName.isBlank()) {
+					throw new IllegalArgumentException("name must not be empty");
+				}
+			}
+			Money productPrice = null;
+			if (price >= 0 || productId == null) {
+				String value = price >= 0 ? record.get(price).trim() : "";
+				if (value.isEmpty()) {
+					throw new IllegalArgumentException("price must not be empty");
+				}
+				productPrice = Money.of(value);
+				if (productPrice.cents() < 0) {
+					throw new IllegalArgumentException("price must not be negative");
+				}
+			}
+			long[] categoryList = categories >= 0 ? resolve(record.get(categories), categoryIds) : null;
+			return new Row(line, productId, productName, text(record, description, "description"), productPrice,
+					text(record, imgUrl, "imgUrl"), categoryList);
+		}
+
+		Object[] updateArguments(Row row) {
+			List<Object> arguments = new ArrayList<>(6);
+			if (name >= 0) {
+				arguments.add(row.name());
+			}
+			if (description >= 0) {
+				arguments.add(row.description());
+			}
+			if (price >= 0) {
+				arguments.add(row.price().cents());
+			}
+			if (imgUrl >= 0) {
+				arguments.add(row.imgUrl());
+			}
+			arguments.add(row.id());
+			return arguments.toArray();
+		}
+
+		private static String text(List<String> record, int index, String column) {
+			if (index < 0) {
+				return null;
+			}
+			String value = record.get(index);
+			if (value.length() > MAX_TEXT_LENGTH) {
+				throw new IllegalArgumentException(column + " is longer than " + MAX_TEXT_LENGTH + " characters");
+			}
+			return value;
+		}
+
+		private static long[] resolve(String value, Map<String, Long> categoryIds) {
+			Set<Long> ids = new LinkedHashSet<>();
+			if (!value.isBlank()) {
+				for (String categoryName : value.split(CATEGORY_SEPARATOR)) {
+					if (categoryName.isBlank()) {
+						continue;
+					}
+					Long categoryId = categoryIds.get(key(categoryName));
+					if (categoryId == null) {
+						throw new IllegalArgumentException("Unknown category '" + categoryName.trim() + "'");
+					}
+					ids.add(categoryId);
+				}
+			}
+			return ids.stream().mapToLong(Long::longValue).toArray();
+		}
+	}
+
+	/**
+	 * Estado de uma importação, atualizado pela thread que a processa e lido pelas
+	 * consultas de andamento.
+	 */
+	private final class ImportJob {
+
+		final String id;
+		final String fileName;
+		final long size;
+
+		private State state = State.QUEUED;
+		private long position;
+		private long rows;
+		private long insertedRows;
+		private long updatedRows;
+		private long failedRows;
+		private final List<RowError> errors = new ArrayList<>();
+		private Instant startedAt;
+		private Instant finishedAt;
+		private String message;
+
+		ImportJob(String id, String fileName, long size) {
+			this.id = id;
+			this.fileName = fileName;
+			this.size = size;
+		}
+
+		synchronized void started() {
+			state = State.RUNNING;
+			startedAt = Instant.now();
+		}
+
+		synchronized void rowRead() {
+			rows++;
+		}
+
+		synchronized void position(long position) {
+			this.position = position;
+		}
+
+		synchronized void written(BatchResult result) {
+			insertedRows += result.inserted();
+			updatedRows += result.updated();
+			insertCount.increment(result.inserted());
+			updateCount.increment(result.updated());
+			result.errors().forEach(this::failed);
+		}
+
+		synchronized void failed(RowError error) {
+			failedRows++;
+			failureCount.increment();
+			if (errors.size() < props.getMaxErrors()) {
+				errors.add(error);
+			}
+		}
+
+		synchronized void completed() {
+			state = State.COMPLETED;
+			position = size;
+			finishedAt = Instant.now();
+		}
+
+		synchronized void aborted(String reason) {
+			state = State.FAILED;
+			message = reason;
+			finishedAt = Instant.now();
+		}
+
+		synchronized boolean isFinishedBefore(Instant instant) {
+			return finishedAt != null && finishedAt.isBefore(instant);
+		}
+
+		synchronized ImportStatus status() {
+			int progress = size > 0 ? (int) (100 * position / size) : 100;
+			return new ImportStatus(id, fileName, state, progress, rows, insertedRows, updatedRows, failedRows,
+					List.copyOf(errors), startedAt, finishedAt, message);
+		}
+	}
+}
@@ -1,13 +1,21 @@
 package com.maggessibernardo.webserviceproject.services;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.maggessibernardo.webserviceproject.entities.Money;
 import com.maggessibernardo.webserviceproject.entities.Product;
 import com.maggessibernardo.webserviceproject.repositories.ProductRepository;
+import com.maggessibernardo.webserviceproject.services.execptions.PreconditionFailedException;
+import com.maggessibernardo.webserviceproject.services.execptions.ResourceNotFoundException;
+
+import jakarta.persistence.EntityManager;
 
 @Service
 public class ProductService {
@@ -15,11 +23,80 @@ public class ProductService {
 	@Autowired
 	private ProductRepository repository;
 	
+	@Autowired
+	private EntityManager entityManager;
+	
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	
+	@Autowired
+	private OptimisticRetry retry;
+	
+	@Autowired
+	private SingleFlight singleFlight;
+	
+	@Autowired
+	private CatalogCache catalog;
+	
+	// Campos alteráveis por PATCH (application/merge-patch+json)
+	private static final MergePatch PATCH = new MergePatch(Product.class, Map.of("name", String.class,
+			"description", String.class, "price", Money.class, "imgUrl", String.class));
+	
+	// Do catálogo em memória quando disponível (CatalogCache)
 	public List<Product> findAll(){
-		return repository.findAll();
+		List<Product> cached = catalog.products();
+		return cached != null ? cached : repository.findAll();
 	}
+	// Leituras concorrentes do mesmo produto compartilham uma consulta; o produto sai desanexado
 	public Product findById(Long id) {
-		Optional<Product> obj = repository.findById(id);
-		return obj.get();
+		Product cached = catalog.product(id);
+		if (cached != null) {
+			return cached;
+		}
+		Optional<Product> obj = Optional.ofNullable(
+				singleFlight.load("product", id, () -> repository.findWithCategoriesById(id).orElse(null)));
+		return obj.orElseThrow(() -> new ResourceNotFoundException(id));
+	}
+	// Vários produtos em consultas IN por lote, na ordem pedida
+	public MultiGet.Result<Product> findAllById(Collection<Long> ids) {
+		return MultiGet.load(ids, repository::findByIdIn, Product::getId);
+	}
+	
+	/**
+	 * Aplica um JSON Merge Patch. Com a versão esperada (If-Match) vira um único
+	 * UPDATE das colunas enviadas, sem leitura; sem ela o produto é carregado e só
+	 * as colunas alteradas são gravadas.
+	 * @param expectedVersion - Versão do If-Match, ou null.
+	 * @return Produto atualizado (null quando não foi carregado) e a nova versão.
+	 */
+	public MergePatch.Result<Product> patch(Long id, Map<String, Object> document, Long expectedVersion) {
+		// Sem If-Match o patch vale sobre a versão atual, então um conflito pode ser repetido
+		MergePatch.Result<Product> result = expectedVersion == null
+				? retry.execute("product.patch", () -> applyPatch(id, document, null))
+				: applyPatch(id, document, expectedVersion);
+		catalog.invalidate();
+		return result;
+	}
+	
+	private MergePatch.Result<Product> applyPatch(Long id, Map<String, Object> document, Long expectedVersion) {
+		return transactionTemplate.execute(status -> {
+			Map<String, Object> changes = PATCH.validate(document);
+			if (expectedVersion != null && !changes.isEmpty()) {
+				if (PATCH.update(entityManager, id, expectedVersion, changes) == 1) {
+					return new MergePatch.Result<>(null, expectedVersion + 1);
+				}
+				if (!repository.existsById(id)) {
+					throw new ResourceNotFoundException(id);
+				}
+				throw new PreconditionFailedException(id, expectedVersion);
+			}
+			Product entity = repository.findById(id).orElseThrow(() -> new ResourceNotFoundException(id));
+			if (expectedVersion != null && expectedVersion.longValue() != entity.getVersion()) {
+				throw new PreconditionFailedException(id, expectedVersion);
+			}
+			PATCH.applyTo(entity, changes);
+			repository.saveAndFlush(entity);
+			return new MergePatch.Result<>(entity, entity.getVersion());
+		});
 	}
 }
@@ -0,0 +1,130 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.maggessibernardo.webserviceproject.config.RateLimitProperties;
+
+/**
+ * Limite de requisições por usuário (subject do JWT) usando token buckets.
+ *
+ * Cada bucket é implementado como GCRA (generic cell rate algorithm), que é
+ * equivalente a um token bucket mas guarda um único long (o "theoretical arrival
+ * time"), atualizado por CAS, sem locks. Os buckets ficam em um cache Caffeine
+ * limitado em tamanho e com expiração por inatividade, de modo que a memória
+ * fica estável mesmo com milhões de usuários distintos.
+ */
+@Service
+public class RateLimitService {
+
+	private final RateLimitProperties properties;
+	private final Ticker ticker;
+	private final Cache<String, Bucket> buckets;
+
+	@Autowired
+	public RateLimitService(RateLimitProperties properties) {
+		this(properties, Ticker.systemTicker());
+	}
+
+	/**
+	 * @param ticker - Relógio em nanossegundos dos buckets e da expiração (controlável em testes).
+	 */
+	public RateLimitService(RateLimitProperties properties, Ticker ticker) {
+		this.properties = properties;
+		this.ticker = ticker;
+		this.buckets = Caffeine.newBuilder()
+				.maximumSize(properties.getMaxBuckets())
+				.expireAfterAccess(properties.getIdleExpiry())
+				.ticker(ticker)
+				.build();
+	}
+
+	public boolean isEnabled() {
+		return properties.isEnabled();
+	}
+
+	/**
+	 * Consome um token do bucket do usuário.
+	 * @param subject - Usuário (subject do token).
+	 * @param authorities - Papéis do usuário, usados para escolher a política.
+	 * @return Resultado com os dados para os cabeçalhos RateLimit-*.
+	 */
+	public Decision tryConsume(String subject, Collection<? extends GrantedAuthority> authorities) {
+		RateLimitProperties.Policy policy = policyFor(authorities);
+		long now = ticker.read();
+		Bucket bucket = buckets.get(subject, key -> new Bucket(policy, now));
+		if (bucket.policy != policy) {
+			// O papel do usuário mudou: recomeça com a nova política
+			Bucket replacement = new Bucket(policy, now);
+			bucket = buckets.asMap().replace(subject, bucket, replacement) ? replacement : buckets.get(subject, key -> replacement);
+		}
+		return bucket.tryConsume(now);
+	}
+
+	private RateLimitProperties.Policy policyFor(Collection<? extends GrantedAuthority> authorities) {
+		for (GrantedAuthority authority : authorities) {
+			RateLimitProperties.Policy policy = properties.getRoles().get(authority.getAuthority());
+			if (policy != null) {
+				return policy;
+			}
+		}
+		return properties.getDefaultPolicy();
+	}
+
+	/**
+	 * Bucket GCRA: um pedido é aceito se o novo TAT não ultrapassar "agora + rajada".
+	 */
+	private static final class Bucket {
+
+		private final RateLimitProperties.Policy policy;
+		private final long emissionIntervalNanos;
+		private final long burstNanos;
+		private final AtomicLong theoreticalArrival;
+
+		Bucket(RateLimitProperties.Policy policy, long now) {
+			this.policy = policy;
+			this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / policy.getRefillPerSecond());
+			this.burstNanos = emissionIntervalNanos * policy.getCapacity();
+			this.theoreticalArrival = new AtomicLong(now);
+		}
+
+		Decision tryConsume(long now) {
+			for (;;) {
+				long tat = theoreticalArrival.get();
+				long newTat = Math.max(tat, now) + emissionIntervalNanos;
+				long backlog = newTat - now;
+				if (backlog > burstNanos) {
+					long retryAfter = backlog - burstNanos;
+					return new Decision(false, policy.getCapacity(), 0, toSeconds(tat - now), toSeconds(retryAfter));
+				}
+				if (theoreticalArrival.compareAndSet(tat, newTat)) {
+					int remaining = (int) ((burstNanos - backlog) / emissionIntervalNanos);
+					return new Decision(true, policy.getCapacity(), remaining, toSeconds(backlog), 0);
+				}
+			}
+		}
+
+		private static long toSeconds(long nanos) {
+			return Math.max(0, (nanos + 999_999_999L) / 1_000_000_000L);
+		}
+	}
+
+	/**
+	 * Resultado de uma tentativa de consumo.
+	 * @param allowed - Se a requisição pode prosseguir.
+	 * @param limit - Capacidade do bucket.
+	 * @param remaining - Tokens restantes.
+	 * @param resetSeconds - Segundos até o bucket ficar cheio novamente.
+	 * @param retryAfterSeconds - Segundos até o próximo token (apenas se rejeitado).
+	 */
+	public record Decision(boolean allowed, int limit, int remaining, long resetSeconds, long retryAfterSeconds) {
+	}
+}
@@ -0,0 +1,195 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.util.function.Supplier;
+
+/**
+ * Contabilidade do tempo de uma requisição, por etapa, guardada na thread que a
+ * atende (ThreadLocal) entre o início e o fim do {@link ServerTimingFilter}.
+ *
+ * Etapas: "auth" (JwtAuthenticationFilter inteiro, incluindo a busca do usuário
+ * quando o token não traz os papéis), "db" (execução de SQL, com a quantidade de
+ * statements), "hydrate" (leitura dos ResultSets, onde o Hibernate monta as
+ * entidades, com a quantidade de linhas), "ser" (escrita do JSON pelo Jackson) e
+ * "wait" (espera por uma carga compartilhada que outra requisição iniciou no
+ * {@link SingleFlight}; o SQL dessa carga conta só em "db" de quem a iniciou).
+ * "hydrate" e "ser" são exclusivas: não incluem o SQL disparado dentro delas (lazy
+ * loading durante a serialização, por exemplo), que fica em "db".
+ *
+ * Os contadores não são sincronizados: só a thread da requisição os escreve. Uma
+ * carga feita em outra thread conta em uma contabilidade própria
+ * ({@link #detached()}), somada à da requisição com {@link #add} depois que a
+ * requisição recebe o resultado.
+ *
+ * Com a contabilidade desligada nada é registrado na thread, e cada ponto de
+ * medição custa só o {@link #current()} devolvendo null.
+ */
+public final class RequestTiming {
+
+	private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+	private final long startNanos = System.nanoTime();
+
+	private long authNanos;
+	private long dbNanos;
+	private int statements;
+	private long hydrateNanos;
+	private long rows;
+	private long serializeNanos;
+	private long waitNanos;
+
+	// Serialização em andamento: início e soma de db + hydrate naquele momento
+	private long serializeStart;
+	private long serializeNested;
+	private boolean serializing;
+
+	private RequestTiming() {
+	}
+
+	/**
+	 * Contabilidade da requisição atual, ou null fora de uma requisição medida.
+	 */
+	public static RequestTiming current() {
+		return CURRENT.get();
+	}
+
+	static RequestTiming begin() {
+		RequestTiming timing = new RequestTiming();
+		CURRENT.set(timing);
+		return timing;
+	}
+
+	static void end() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * Contabilidade à parte para uma tarefa executada em outra thread enquanto a
+	 * requisição espera por ela (ex.: a carga do {@link SingleFlight}).
+	 */
+	static RequestTiming detached() {
+		return new RequestTiming();
+	}
+
+	/**
+	 * Executa a tarefa contando em timing (se não for null) na thread atual.
+	 */
+	static <T> T within(RequestTiming timing, Supplier<T> task) {
+		if (timing == null) {
+			return task.get();
+		}
+		CURRENT.set(timing);
+		try {
+			return task.get();
+		} finally {
+			CURRENT.remove();
+		}
+	}
+
+	/**
+	 * Soma o SQL e a hidratação de uma contabilidade à parte já terminada.
+	 */
+	void add(RequestTiming other) {
+		dbNanos += other.dbNanos;
+		statements += other.statements;
+		hydrateNanos += other.hydrateNanos;
+		rows += other.rows;
+	}
+
+	void waited(long nanos) {
+		waitNanos += nanos;
+	}
+
+	public void auth(long nanos) {
+		authNanos += nanos;
+	}
+
+	public void statement(long nanos) {
+		dbNanos += nanos;
+		statements++;
+	}
+
+	public void hydrated(long nanos, long rowCount) {
+		hydrateNanos += Math.max(0, nanos);
+		rows += rowCount;
+	}
+
+	/**
+	 * Soma de db e hydrate até agora; a diferença entre duas leituras é o tempo
+	 * gasto nelas dentro de um intervalo, descontado das etapas exclusivas.
+	 */
+	public long nested() {
+		return dbNanos + hydrateNanos;
+	}
+
+	public void serializationStarted() {
+		if (!serializing) {
+			serializing = true;
+			serializeStart = System.nanoTime();
+			serializeNested = nested();
+		}
+	}
+
+	public void serializationFinished() {
+		if (serializing) {
+			serializeNanos += serializingNanos();
+			serializing = false;
+		}
+	}
+
+	private long serializingNanos() {
+		return serializing ? Math.max(0, System.nanoTime() - serializeStart - (nested() - serializeNested)) : 0;
+	}
+
+	public long getTotalNanos() {
+		return System.nanoTime() - startNanos;
+	}
+
+	public long getAuthNanos() {
+		return authNanos;
+	}
+
+	public long getDbNanos() {
+		return dbNanos;
+	}
+
+	public int getStatements() {
+		return statements;
+	}
+
+	public long getHydrateNanos() {
+		return hydrateNanos;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public long getWaitNanos() {
+		return waitNanos;
+	}
+
+	/**
+	 * Tempo de serialização, incluindo a que estiver em andamento: o Jackson faz
+	 * flush, e a resposta é enviada, antes de a serialização terminar.
+	 */
+	public long getSerializeNanos() {
+		return serializeNanos + serializingNanos();
+	}
+
+	/**
+	 * Valor do cabeçalho Server-Timing (durações em milissegundos).
+	 */
+	public String toHeader() {
+		return "auth;dur=" + millis(authNanos)
+				+ ", db;dur=" + millis(dbNanos) + ";desc=\"" + statements + " statements\""
+				+ ", hydrate;dur=" + millis(hydrateNanos) + ";desc=\"" + rows + " rows\""
+				+ ", ser;dur=" + millis(getSerializeNanos())
+				+ ", wait;dur=" + millis(waitNanos)
+				+ ", total;dur=" + millis(getTotalNanos());
+	}
+
+	// Resolução de microssegundos
+	static double millis(long nanos) {
+		return Math.round(nanos / 1_000.0) / 1_000.0;
+	}
+}
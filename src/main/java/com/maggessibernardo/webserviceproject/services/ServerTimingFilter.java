@@ -0,0 +1,192 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.maggessibernardo.webserviceproject.config.ServerTimingProperties;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Filtro que abre a {@link RequestTiming} de cada requisição e devolve o resultado
+ * no cabeçalho Server-Timing, por exemplo:
+ *
+ * <pre>
+ * Server-Timing: auth;dur=0.412, db;dur=1.87;desc="3 statements", hydrate;dur=0.21;desc="42 rows", ser;dur=0.95, wait;dur=0.0, total;dur=5.102
+ * </pre>
+ *
+ * O cabeçalho precisa ir antes do corpo: ele é escrito quando o corpo começa,
+ * atualizado a cada flush enquanto a resposta não foi enviada (o conversor do
+ * Jackson faz flush ao fim da serialização) e uma última vez no fim. Respostas
+ * maiores que o buffer do conector saem com os valores do começo do corpo.
+ *
+ * Uma fração app.server-timing.log-sample-rate das requisições, e todas as mais
+ * lentas que app.server-timing.slow-threshold, geram também uma linha de log
+ * "server-timing" em formato chave=valor.
+ *
+ * Só existe com app.server-timing.enabled=true; desligado, nada é registrado por
+ * requisição.
+ */
+@Component
+@ConditionalOnProperty(name = "app.server-timing.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    public static final String HEADER = "Server-Timing";
+
+    private final ServerTimingProperties props;
+
+    public ServerTimingFilter(ServerTimingProperties props) {
+        this.props = props;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        RequestTiming timing = RequestTiming.begin();
+        HttpServletResponse target = props.isHeader() ? new TimingResponse(response, timing) : response;
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            if (props.isHeader() && !response.isCommitted()) {
+                response.setHeader(HEADER, timing.toHeader());
+            }
+            RequestTiming.end();
+            long total = timing.getTotalNanos();
+            if (total >= props.getSlowThreshold().toNanos()
+                    || ThreadLocalRandom.current().nextDouble() < props.getLogSampleRate()) {
+                log.info(String.format(Locale.ROOT,
+                        "server-timing method=%s path=%s status=%d total_ms=%.3f auth_ms=%.3f db_ms=%.3f"
+                                + " db_statements=%d hydrate_ms=%.3f hydrate_rows=%d ser_ms=%.3f wait_ms=%.3f",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(),
+                        RequestTiming.millis(total), RequestTiming.millis(timing.getAuthNanos()),
+                        RequestTiming.millis(timing.getDbNanos()), timing.getStatements(),
+                        RequestTiming.millis(timing.getHydrateNanos()), timing.getRows(),
+                        RequestTiming.millis(timing.getSerializeNanos()),
+                        RequestTiming.millis(timing.getWaitNanos())));
+            }
+        }
+    }
+
+    /**
+     * Resposta que escreve o Server-Timing antes de o corpo começar e o atualiza a
+     * cada flush, enquanto ainda não foi enviada.
+     */
+    private static class TimingResponse extends HttpServletResponseWrapper {
+
+        private final RequestTiming timing;
+        private ServletOutputStream outputStream;
+
+        TimingResponse(HttpServletResponse response, RequestTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        void updateHeader() {
+            if (!isCommitted()) {
+                setHeader(HEADER, timing.toHeader());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                updateHeader();
+                outputStream = new TimingOutputStream(super.getOutputStream(), this);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            updateHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            updateHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            updateHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            updateHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            updateHeader();
+            super.sendRedirect(location);
+        }
+    }
+
+    private static class TimingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private final TimingResponse response;
+
+        TimingOutputStream(ServletOutputStream delegate, TimingResponse response) {
+            this.delegate = delegate;
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            response.updateHeader();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            response.updateHeader();
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Agrupa leituras concorrentes da mesma chave em uma única carga do banco
+ * ("single flight").
+ *
+ * O primeiro pedido de uma chave inicia a carga; os que chegam enquanto ela está
+ * em andamento esperam o mesmo resultado em vez de repetir a consulta, o que evita
+ * multiplicar a carga do banco em picos sobre poucas chaves (ex.: o produto de uma
+ * promoção). Nada fica guardado depois que a carga termina.
+ *
+ * A carga roda em uma thread virtual, em uma transação só de leitura e própria,
+ * porque o resultado é compartilhado entre requisições: a entidade sai desanexada,
+ * e o carregador precisa inicializar tudo o que a resposta vai serializar. Quem
+ * iniciou a carga recebe o valor carregado; os demais recebem cada um a sua cópia
+ * (serializada uma vez, logo depois da carga), então alterar o valor recebido não
+ * afeta as outras requisições. A espera é limitada (app.single-flight.max-wait);
+ * quem passar do limite faz a sua própria carga.
+ *
+ * Dentro de uma transação a carga não é compartilhada: roda na própria thread e
+ * transação de quem chamou, que recebe a entidade gerenciada e vê as próprias
+ * alterações ainda não confirmadas.
+ *
+ * Métricas, com a tag "name": "singleflight.loads" (cargas no banco),
+ * "singleflight.coalesced" (pedidos atendidos por uma carga já em andamento) e
+ * "singleflight.timeouts" (esperas que passaram do limite).
+ */
+@Component
+public class SingleFlight {
+
+	private final Map<FlightKey, CompletableFuture<Shared>> inFlight = new ConcurrentHashMap<>();
+	private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+			Thread.ofVirtual().name("single-flight-", 0).factory());
+
+	private final MeterRegistry registry;
+	private final TransactionOperations readOnly;
+	private final long maxWaitNanos;
+	private final boolean enabled;
+
+	private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+	@Autowired
+	public SingleFlight(MeterRegistry registry, PlatformTransactionManager transactionManager,
+			@Value("${app.single-flight.max-wait:2s}") Duration maxWait,
+			@Value("${app.single-flight.enabled:true}") boolean enabled) {
+		this(registry, readOnly(transactionManager), maxWait, enabled);
+	}
+
+	public SingleFlight(MeterRegistry registry, TransactionOperations readOnly, Duration maxWait, boolean enabled) {
+		this.registry = registry;
+		this.readOnly = readOnly;
+		this.maxWaitNanos = maxWait.toNanos();
+		this.enabled = enabled;
+	}
+
+	private static TransactionOperations readOnly(PlatformTransactionManager transactionManager) {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(true);
+		return template;
+	}
+
+	/**
+	 * Carrega o valor da chave, compartilhando a carga com os pedidos concorrentes
+	 * da mesma chave.
+	 * @param name - Tipo da leitura (ex.: "product"); separa as chaves e é a tag das métricas.
+	 * @param key - Chave da leitura (ex.: o id).
+	 * @param loader - Carga no banco; pode retornar null (não encontrado).
+	 * @return Valor carregado, ou null.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Serializable> T load(String name, Object key, Supplier<T> loader) {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			return loader.get();
+		}
+		if (!enabled) {
+			return readOnly.execute(status -> loader.get());
+		}
+		Counters metrics = counters.computeIfAbsent(name, Counters::new);
+		FlightKey flightKey = new FlightKey(name, key);
+		CompletableFuture<Shared> flight = new CompletableFuture<>();
+		CompletableFuture<Shared> running = inFlight.putIfAbsent(flightKey, flight);
+		boolean leader = running == null;
+		if (leader) {
+			metrics.loads.increment();
+			// O SQL da carga conta à parte e entra no Server-Timing de quem a iniciou
+			RequestTiming cost = RequestTiming.current() != null ? RequestTiming.detached() : null;
+			executor.execute(() -> {
+				try {
+					T value = RequestTiming.within(cost, () -> readOnly.execute(status -> loader.get()));
+					flight.complete(new Shared(value, value != null ? serialize(value) : null, cost));
+				} catch (Throwable e) {
+					flight.completeExceptionally(e);
+				} finally {
+					inFlight.remove(flightKey, flight);
+				}
+			});
+			running = flight;
+		} else {
+			metrics.coalesced.increment();
+		}
+		RequestTiming timing = RequestTiming.current();
+		long waitStart = System.nanoTime();
+		try {
+			Shared shared = running.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+			if (timing != null) {
+				if (leader) {
+					timing.add(shared.cost());
+				} else {
+					timing.waited(System.nanoTime() - waitStart);
+				}
+			}
+			return (T) (leader || shared.value() == null ? shared.value() : deserialize(shared.bytes()));
+		} catch (TimeoutException e) {
+			metrics.timeouts.increment();
+			if (timing != null) {
+				timing.waited(System.nanoTime() - waitStart);
+			}
+			return readOnly.execute(status -> loader.get());
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			if (e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for " + name + " " + key, e);
+		}
+	}
+
+	private static byte[] serialize(Serializable value) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(value);
+		}
+		return bytes.toByteArray();
+	}
+
+	private Object deserialize(byte[] bytes) {
+		try (ObjectInputStream in = new ConfigurableObjectInputStream(new ByteArrayInputStream(bytes),
+				getClass().getClassLoader())) {
+			return in.readObject();
+		} catch (IOException | ClassNotFoundException e) {
+			throw new IllegalStateException("Could not copy a shared load result", e);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private record FlightKey(String name, Object key) {
+	}
+
+	/*
+	 * Valor de quem iniciou a carga, a sua forma serializada, de onde saem as cópias,
+	 * e o custo da carga no Server-Timing (null se quem a iniciou não é medido).
+	 */
+	private record Shared(Object value, byte[] bytes, RequestTiming cost) {
+	}
+
+	private final class Counters {
+
+		final Counter loads;
+		final Counter coalesced;
+		final Counter timeouts;
+
+		Counters(String name) {
+			loads = Counter.builder("singleflight.loads").tag("name", name).register(registry);
+			coalesced = Counter.builder("singleflight.coalesced").tag("name", name).register(registry);
+			timeouts = Counter.builder("singleflight.timeouts").tag("name", name).register(registry);
+		}
+	}
+}
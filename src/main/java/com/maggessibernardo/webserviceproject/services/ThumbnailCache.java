@@ -0,0 +1,190 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.maggessibernardo.webserviceproject.config.ImageProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cache em disco das miniaturas, limitado em bytes, com descarte do arquivo usado
+ * há mais tempo (LRU).
+ *
+ * O índice (nome do arquivo e tamanho, em ordem de acesso) fica em memória; os
+ * bytes ficam só no disco. Cada miniatura é gerada uma única vez mesmo com pedidos
+ * concorrentes: o gerador escreve em um arquivo temporário, movido atomicamente
+ * para o nome final. Na inicialização os arquivos existentes são reindexados pela
+ * data de modificação, então o cache sobrevive a reinícios.
+ *
+ * A miniatura é entregue já aberta: o arquivo é aberto sob o mesmo lock que o
+ * descarte, então um arquivo descartado logo depois continua legível pelo canal
+ * até ele ser fechado, em vez de sumir entre a consulta e o envio.
+ *
+ * Métricas: "images.thumbnail.cache" (tag result=hit|miss),
+ * "images.thumbnail.evictions" e "images.thumbnail.cache.bytes".
+ */
+@Component
+public class ThumbnailCache {
+
+	private static final Logger log = LoggerFactory.getLogger(ThumbnailCache.class);
+
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	private final Path directory;
+	private final long maxBytes;
+
+	// Ordem de acesso: o primeiro é o menos usado
+	private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long totalBytes;
+
+	private final Map<String, ReentrantLock> generating = new ConcurrentHashMap<>();
+
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter evictions;
+
+	@Autowired
+	public ThumbnailCache(ImageProperties properties, MeterRegistry registry) {
+		this(properties.getCacheDir(), properties.getCacheMaxSize().toBytes(), registry);
+	}
+
+	public ThumbnailCache(Path directory, long maxBytes, MeterRegistry registry) {
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+		this.hits = registry.counter("images.thumbnail.cache", "result", "hit");
+		this.misses = registry.counter("images.thumbnail.cache", "result", "miss");
+		this.evictions = registry.counter("images.thumbnail.evictions");
+		Gauge.builder("images.thumbnail.cache.bytes", this, ThumbnailCache::getTotalBytes).register(registry);
+		load();
+	}
+
+	/**
+	 * Gera o conteúdo de uma miniatura no arquivo informado.
+	 */
+	@FunctionalInterface
+	public interface Generator {
+		void writeTo(Path file) throws IOException;
+	}
+
+	/**
+	 * Miniatura aberta para leitura, gerada agora se não estiver no cache. Quem
+	 * chama fecha o canal.
+	 * @param name - Nome do arquivo, único por conteúdo de origem e tamanho.
+	 */
+	public FileChannel get(String name, Generator generator) throws IOException {
+		FileChannel cached = open(name);
+		if (cached != null) {
+			hits.increment();
+			return cached;
+		}
+		ReentrantLock lock = generating.computeIfAbsent(name, key -> new ReentrantLock());
+		lock.lock();
+		try {
+			cached = open(name);
+			if (cached != null) {
+				hits.increment();
+				return cached;
+			}
+			misses.increment();
+			Path target = directory.resolve(name);
+			Path temp = Files.createTempFile(directory, name + "-", TEMP_SUFFIX);
+			try {
+				generator.writeTo(temp);
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+			synchronized (this) {
+				FileChannel channel = FileChannel.open(target, StandardOpenOption.READ);
+				add(name, channel.size());
+				return channel;
+			}
+		} finally {
+			lock.unlock();
+			generating.remove(name, lock);
+		}
+	}
+
+	public synchronized long getTotalBytes() {
+		return totalBytes;
+	}
+
+	// Marca o acesso e abre sob o lock do descarte; um arquivo apagado por fora do cache sai do índice
+	private synchronized FileChannel open(String name) throws IOException {
+		if (entries.get(name) == null) {
+			return null;
+		}
+		try {
+			return FileChannel.open(directory.resolve(name), StandardOpenOption.READ);
+		} catch (NoSuchFileException e) {
+			totalBytes -= entries.remove(name);
+			return null;
+		}
+	}
+
+	private synchronized void add(String name, long size) {
+		Long previous = entries.put(name, size);
+		totalBytes += size - (previous != null ? previous : 0);
+		// O arquivo recém-gerado fica mesmo que sozinho passe do limite
+		Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+		while (totalBytes > maxBytes && entries.size() > 1) {
+			Map.Entry<String, Long> entry = eldest.next();
+			try {
+				Files.deleteIfExists(directory.resolve(entry.getKey()));
+			} catch (IOException e) {
+				log.warn("Could not delete cached thumbnail {}: {}", entry.getKey(), e.getMessage());
+			}
+			totalBytes -= entry.getValue();
+			eldest.remove();
+			evictions.increment();
+		}
+	}
+
+	private void load() {
+		try {
+			Files.createDirectories(directory);
+			List<Path> files;
+			try (Stream<Path> list = Files.list(directory)) {
+				files = list.filter(Files::isRegularFile).toList();
+			}
+			files.stream()
+					.filter(file -> !file.getFileName().toString().endsWith(TEMP_SUFFIX))
+					.sorted(Comparator.comparing(ThumbnailCache::lastModified))
+					.forEach(file -> add(file.getFileName().toString(), file.toFile().length()));
+			// Sobras de gerações interrompidas
+			for (Path file : files) {
+				if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+					Files.deleteIfExists(file);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static long lastModified(Path file) {
+		return file.toFile().lastModified();
+	}
+}
@@ -0,0 +1,185 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * DataSource que registra na {@link RequestTiming} da requisição atual o tempo de
+ * cada execução de SQL ("db") e o tempo em que cada ResultSet fica aberto sendo
+ * lido ("hydrate", com a quantidade de linhas), descontado o SQL disparado nesse
+ * meio-tempo. É nesse intervalo que o Hibernate e os RowMappers montam as
+ * entidades, então ele serve de medida da hidratação sem depender de eventos do
+ * Hibernate.
+ *
+ * Conexões, statements e ResultSets são proxies dinâmicos sobre os do pool; fora
+ * de uma requisição medida (jobs, inicialização) eles só repassam as chamadas.
+ * Só é instalado com app.server-timing.enabled=true (ServerTimingConfig).
+ */
+public class TimedDataSource extends DelegatingDataSource {
+
+	public TimedDataSource(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+	}
+
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return type.cast(Proxy.newProxyInstance(TimedDataSource.class.getClassLoader(), new Class<?>[] { type },
+				handler));
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+
+	// equals/hashCode por identidade do proxy; toString e o resto vão para o objeto do pool
+	private static Object identity(Object proxy, Method method, Object[] args) {
+		return switch (method.getName()) {
+			case "equals" -> proxy == args[0];
+			case "hashCode" -> System.identityHashCode(proxy);
+			default -> null;
+		};
+	}
+
+	private static boolean isIdentity(Method method) {
+		return method.getDeclaringClass() == Object.class && !method.getName().equals("toString");
+	}
+
+	private static class ConnectionHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		ConnectionHandler(Connection target) {
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (isIdentity(method)) {
+				return identity(proxy, method, args);
+			}
+			Object result = TimedDataSource.invoke(target, method, args);
+			return switch (method.getName()) {
+				case "createStatement" -> proxy(Statement.class, new StatementHandler((Statement) result));
+				case "prepareStatement" ->
+					proxy(PreparedStatement.class, new StatementHandler((PreparedStatement) result));
+				case "prepareCall" -> proxy(CallableStatement.class, new StatementHandler((CallableStatement) result));
+				default -> result;
+			};
+		}
+	}
+
+	private static class StatementHandler implements InvocationHandler {
+
+		private final Statement target;
+		// ResultSet aberto mais recente; fechá-lo é responsabilidade do statement se o cliente não fechar
+		private ResultSetHandler open;
+
+		StatementHandler(Statement target) {
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (isIdentity(method)) {
+				return identity(proxy, method, args);
+			}
+			String name = method.getName();
+			RequestTiming timing = RequestTiming.current();
+			if (timing == null) {
+				return TimedDataSource.invoke(target, method, args);
+			}
+			if (name.startsWith("execute")) {
+				long start = System.nanoTime();
+				try {
+					Object result = TimedDataSource.invoke(target, method, args);
+					return name.equals("executeQuery") ? resultSet(timing, (ResultSet) result) : result;
+				} finally {
+					timing.statement(System.nanoTime() - start);
+				}
+			}
+			if (name.equals("getResultSet")) {
+				ResultSet result = (ResultSet) TimedDataSource.invoke(target, method, args);
+				return result != null ? resultSet(timing, result) : null;
+			}
+			if (name.equals("close") && open != null) {
+				open.finish();
+			}
+			return TimedDataSource.invoke(target, method, args);
+		}
+
+		private ResultSet resultSet(RequestTiming timing, ResultSet result) {
+			if (open != null) {
+				open.finish();
+			}
+			open = new ResultSetHandler(result, timing);
+			return proxy(ResultSet.class, open);
+		}
+	}
+
+	private static class ResultSetHandler implements InvocationHandler {
+
+		private final ResultSet target;
+		private final RequestTiming timing;
+		private final long start = System.nanoTime();
+		private final long nestedAtStart;
+		private long rows;
+		private boolean finished;
+
+		ResultSetHandler(ResultSet target, RequestTiming timing) {
+			this.target = target;
+			this.timing = timing;
+			this.nestedAtStart = timing.nested();
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (isIdentity(method)) {
+				return identity(proxy, method, args);
+			}
+			Object result = TimedDataSource.invoke(target, method, args);
+			switch (method.getName()) {
+				case "next" -> {
+					if ((Boolean) result) {
+						rows++;
+					}
+				}
+				case "close" -> finish();
+				default -> {
+				}
+			}
+			return result;
+		}
+
+		void finish() {
+			if (!finished) {
+				finished = true;
+				timing.hydrated(System.nanoTime() - start - (timing.nested() - nestedAtStart), rows);
+			}
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.maggessibernardo.webserviceproject.entities.RevokedToken;
+import com.maggessibernardo.webserviceproject.repositories.RevokedTokenRepository;
+
+/**
+ * Revogação de tokens JWT pelo "jti".
+ *
+ * A tabela tb_revoked_token é a fonte da verdade; na frente dela fica um filtro de
+ * Bloom em memória com os jtis revogados ainda não expirados. Como quase nenhum
+ * token apresentado está revogado, a consulta normal termina no filtro, e só um
+ * "talvez" (revogado de fato ou falso positivo) vai ao banco. O filtro é refeito
+ * periodicamente sem os tokens já expirados, para não acumular bits.
+ *
+ * Uma revogação entra na hora só no filtro do nó que a recebeu. Os demais nós a
+ * incluem no próximo {@link #sync()} (app.jwt.revocation.sync-interval, 5s por
+ * padrão), que busca as revogações gravadas desde a busca anterior; até lá o token
+ * revogado ainda é aceito nesses nós.
+ */
+@Service
+public class TokenRevocationService {
+
+	private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+	// Capacidade mínima; o filtro é dimensionado com o dobro dos tokens revogados
+	// ativos, o que absorve as revogações até a próxima reconstrução
+	private static final int MIN_CAPACITY = 1024;
+
+	// Margem da busca incremental: cobre a diferença de relógio entre os nós e as
+	// revogações gravadas em transações que terminaram depois da busca anterior
+	private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+	private final RevokedTokenRepository repository;
+	private final double falsePositiveRate;
+
+	private volatile BloomFilter filter;
+
+	// Filtro em construção; revogações feitas durante a reconstrução entram nos dois
+	private BloomFilter building;
+
+	// Início da última busca incremental
+	private volatile Instant lastSync = Instant.now();
+
+	public TokenRevocationService(RevokedTokenRepository repository,
+			@Value("${app.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+		this.repository = repository;
+		this.falsePositiveRate = falsePositiveRate;
+		this.filter = new BloomFilter(MIN_CAPACITY, falsePositiveRate);
+	}
+
+	/**
+	 * Revoga um token até a sua expiração.
+	 * @param jti - Id do token.
+	 * @param expiresAt - Expiração do token.
+	 */
+	public void revoke(String jti, Instant expiresAt) {
+		repository.save(new RevokedToken(jti, expiresAt, Instant.now()));
+		add(List.of(jti));
+	}
+
+	private synchronized void add(List<String> jtis) {
+		for (String jti : jtis) {
+			filter.add(jti);
+			if (building != null) {
+				building.add(jti);
+			}
+		}
+	}
+
+	/**
+	 * @param jti - Id do token (tokens sem jti não são revogáveis).
+	 * @return true se o token foi revogado.
+	 */
+	public boolean isRevoked(String jti) {
+		if (!mightBeRevoked(jti)) {
+			return false;
+		}
+		return repository.existsById(jti);
+	}
+
+	/**
+	 * Consulta só o filtro, sem ir ao banco (usado pela pilha reativa, que não
+	 * pode bloquear no caminho comum).
+	 * @return false se o token certamente não foi revogado.
+	 */
+	public boolean mightBeRevoked(String jti) {
+		return jti != null && filter.mightContain(jti);
+	}
+
+	/**
+	 * Inclui no filtro as revogações feitas nos outros nós desde a busca anterior.
+	 */
+	@Scheduled(initialDelayString = "${app.jwt.revocation.sync-interval:5s}",
+			fixedDelayString = "${app.jwt.revocation.sync-interval:5s}")
+	public void sync() {
+		Instant now = Instant.now();
+		List<String> jtis = repository.findJtisRevokedSince(lastSync.minus(SYNC_OVERLAP), now);
+		add(jtis);
+		lastSync = now;
+	}
+
+	/**
+	 * Remove as revogações expiradas e refaz o filtro com as restantes.
+	 */
+	@Scheduled(initialDelay = 0, fixedDelayString = "${app.jwt.revocation.rebuild-interval:10m}")
+	public void rebuild() {
+		Instant now = Instant.now();
+		repository.deleteExpired(now);
+		long active = repository.count();
+		BloomFilter next = new BloomFilter(Math.max(MIN_CAPACITY, active * 2), falsePositiveRate);
+		synchronized (this) {
+			building = next;
+		}
+		// Revogações gravadas antes desta consulta vêm dela; as seguintes, de revoke()
+		List<String> jtis = repository.findActiveJtis(now);
+		jtis.forEach(next::add);
+		synchronized (this) {
+			filter = next;
+			building = null;
+		}
+		log.debug("Revocation filter rebuilt with {} tokens", jtis.size());
+	}
+}
@@ -1,60 +1,205 @@
 package com.maggessibernardo.webserviceproject.services;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.maggessibernardo.webserviceproject.entities.User;
 import com.maggessibernardo.webserviceproject.repositories.UserRepository;
+import com.maggessibernardo.webserviceproject.services.execptions.BadRequestException;
 import com.maggessibernardo.webserviceproject.services.execptions.DatabaseException;
+import com.maggessibernardo.webserviceproject.services.execptions.PreconditionFailedException;
 import com.maggessibernardo.webserviceproject.services.execptions.ResourceNotFoundException;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 
 @Service
 public class UserService {
 	
+	public static final int MAX_BULK_DELETE = 1000;
+	
 	@Autowired
 	private UserRepository repository;
 	
+	@Autowired
+	private UserTokenVersions tokenVersions;
+	
+	@Autowired
+	private EntityManager entityManager;
+	
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	
+	@Autowired
+	private OptimisticRetry retry;
+	
+	@Autowired
+	private SingleFlight singleFlight;
+	
+	// Campos alteráveis por PATCH (application/merge-patch+json)
+	private static final MergePatch PATCH = new MergePatch(User.class,
+			Map.of("name", String.class, "email", String.class, "phone", String.class));
+	
 	public List<User> findAll(){
 		return repository.findAll();
 	}
+	// Leituras concorrentes do mesmo usuário compartilham uma consulta; o usuário sai desanexado
 	public User findById(Long id) {
-		Optional<User> obj = repository.findById(id);
+		Optional<User> obj = Optional.ofNullable(singleFlight.load("user", id, () -> repository.findById(id).orElse(null)));
 		return obj.orElseThrow(() -> new ResourceNotFoundException(id));//TRATAMENTO DE EXCEPTION PERSONALIZADA
 	}
+	// Vários usuários em consultas IN por lote, na ordem pedida
+	public MultiGet.Result<User> findAllById(Collection<Long> ids) {
+		return MultiGet.load(ids, repository::findAllById, User::getId);
+	}
 	public User insert(User obj) {
 		return repository.save(obj);
 	}
 	
 	public void delete(Long id) {
-	    Optional<User> obj = repository.findById(id);
-	    if (obj.isEmpty()) {
-	        throw new ResourceNotFoundException(id); // Lançar exceção se não encontrar o usuário
-	    }
-	    try {
-	        repository.deleteById(id);
-	    } catch (DataIntegrityViolationException e) {
-	        throw new DatabaseException(e.getMessage());
-	    }
+		DeleteResult result = deleteAll(List.of(id)).get(0);
+		if (result.outcome() == DeleteOutcome.NOT_FOUND) {
+			throw new ResourceNotFoundException(id); // Lançar exceção se não encontrar o usuário
+		}
+		if (result.outcome() == DeleteOutcome.REFERENCED) {
+			throw new DatabaseException("User " + id + " is the client of existing orders");
+		}
+	}
+	
+	/**
+	 * Remove vários usuários com uma consulta de verificação (EXISTS em tb_order e
+	 * tb_order_archive) e um único DELETE, sem carregar as entidades.
+	 * @param ids - Ids dos usuários (no máximo {@link #MAX_BULK_DELETE}).
+	 * @return Resultado de cada id, na ordem recebida (duplicados aparecem uma vez).
+	 */
+	public List<DeleteResult> deleteAll(Collection<Long> ids) {
+		Set<Long> requested = new LinkedHashSet<>(ids);
+		requested.remove(null);
+		if (requested.isEmpty() || requested.size() > MAX_BULK_DELETE) {
+			throw new BadRequestException("Between 1 and " + MAX_BULK_DELETE + " ids are required");
+		}
+		Map<Long, DeleteOutcome> outcomes = new HashMap<>();
+		Map<Long, String> emails = new HashMap<>();
+		List<Long> free = new ArrayList<>();
+		for (UserRepository.DeleteCandidate candidate : repository.findDeleteCandidates(requested)) {
+			if (candidate.getReferenced()) {
+				outcomes.put(candidate.getId(), DeleteOutcome.REFERENCED);
+			} else {
+				free.add(candidate.getId());
+				emails.put(candidate.getId(), candidate.getEmail());
+			}
+		}
+		if (!free.isEmpty()) {
+			int deleted = repository.deleteUnreferenced(free);
+			// Algum usuário ganhou um pedido entre a verificação e o DELETE
+			Set<Long> remaining = deleted == free.size() ? Set.of() : new HashSet<>(
+					repository.findDeleteCandidates(free).stream().map(UserRepository.DeleteCandidate::getId).toList());
+			for (Long id : free) {
+				if (remaining.contains(id)) {
+					outcomes.put(id, DeleteOutcome.REFERENCED);
+				} else {
+					outcomes.put(id, DeleteOutcome.DELETED);
+					// Sem a linha, os tokens do usuário removido deixam de valer; só o cache é descartado
+					tokenVersions.forget(emails.get(id));
+				}
+			}
+		}
+		List<DeleteResult> results = new ArrayList<>(requested.size());
+		for (Long id : requested) {
+			results.add(new DeleteResult(id, outcomes.getOrDefault(id, DeleteOutcome.NOT_FOUND)));
+		}
+		return results;
 	}
 
+	/**
+	 * Substitui os dados do usuário. Escritas concorrentes no mesmo usuário são
+	 * detectadas pela versão; como o PUT é idempotente, a perdedora é repetida
+	 * sobre a versão atual (ver {@link OptimisticRetry}).
+	 */
 	public User update(Long id, User obj) {
-		try {
-			User entity = repository.getReferenceById(id);
-			updateData(entity,obj);
-			return repository.save(entity);
-		}catch(EntityNotFoundException e) {
-			throw new ResourceNotFoundException(id);
+		return retry.execute("user.update", () -> transactionTemplate.execute(status -> {
+			try {
+				User entity = repository.getReferenceById(id);
+				String oldEmail = entity.getEmail();
+				updateData(entity,obj);
+				User saved = repository.saveAndFlush(entity);
+				// E-mail alterado: tokens já emitidos carregam o subject antigo (o papel não muda por aqui)
+				if (!Objects.equals(oldEmail, saved.getEmail())) {
+					tokenVersions.bump(saved.getId(), oldEmail, saved.getEmail());
+				}
+				return saved;
+			}catch(EntityNotFoundException e) {
+				throw new ResourceNotFoundException(id);
+			}
+		}));
+	}
+	/**
+	 * Aplica um JSON Merge Patch. Com a versão esperada (If-Match) e sem troca de
+	 * e-mail, vira um único UPDATE das colunas enviadas, sem leitura; caso
+	 * contrário o usuário é carregado e só as colunas alteradas são gravadas.
+	 * @param expectedVersion - Versão do If-Match, ou null.
+	 * @return Usuário atualizado (null quando não foi carregado) e a nova versão.
+	 */
+	public MergePatch.Result<User> patch(Long id, Map<String, Object> document, Long expectedVersion) {
+		// Sem If-Match o patch vale sobre a versão atual, então um conflito pode ser repetido
+		if (expectedVersion == null) {
+			return retry.execute("user.patch", () -> applyPatch(id, document, null));
 		}
+		return applyPatch(id, document, expectedVersion);
 	}
+	
+	private MergePatch.Result<User> applyPatch(Long id, Map<String, Object> document, Long expectedVersion) {
+		return transactionTemplate.execute(status -> {
+			Map<String, Object> changes = PATCH.validate(document);
+			// A troca de e-mail precisa do e-mail antigo para invalidar os tokens
+			if (expectedVersion != null && !changes.isEmpty() && !changes.containsKey("email")) {
+				if (PATCH.update(entityManager, id, expectedVersion, changes) == 1) {
+					return new MergePatch.Result<>(null, expectedVersion + 1);
+				}
+				if (!repository.existsById(id)) {
+					throw new ResourceNotFoundException(id);
+				}
+				throw new PreconditionFailedException(id, expectedVersion);
+			}
+			User entity = repository.findById(id).orElseThrow(() -> new ResourceNotFoundException(id));
+			if (expectedVersion != null && expectedVersion.longValue() != entity.getVersion()) {
+				throw new PreconditionFailedException(id, expectedVersion);
+			}
+			String oldEmail = entity.getEmail();
+			PATCH.applyTo(entity, changes);
+			repository.saveAndFlush(entity);
+			if (!Objects.equals(oldEmail, entity.getEmail())) {
+				tokenVersions.bump(entity.getId(), oldEmail, entity.getEmail());
+			}
+			return new MergePatch.Result<>(entity, entity.getVersion());
+		});
+	}
+	
 	private void updateData(User entity,User obj) {
 		entity.setName(obj.getName());
 		entity.setEmail(obj.getEmail());
 		entity.setPhone(obj.getPhone());
 	}
+	
+	public enum DeleteOutcome {
+		DELETED, REFERENCED, NOT_FOUND
+	}
+	
+	/**
+	 * Resultado da remoção de um usuário em DELETE /users?ids=.
+	 */
+	public record DeleteResult(Long id, DeleteOutcome outcome) {
+	}
 }
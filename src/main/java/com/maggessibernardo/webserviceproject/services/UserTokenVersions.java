@@ -0,0 +1,105 @@
+package com.maggessibernardo.webserviceproject.services;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Versão de permissões de cada usuário, usada para invalidar tokens
+ * autocontidos.
+ *
+ * O token carrega o id do usuário e a versão vigente quando foi emitido (claims
+ * "uid" e "pv"); quando o papel ou o e-mail de um usuário muda, a versão é
+ * incrementada na coluna tb_user.permissions_version e os tokens anteriores
+ * deixam de ser aceitos. Tokens de usuários removidos, ou cujo e-mail passou a
+ * ser de outro usuário, não batem com nenhuma linha e também são recusados.
+ *
+ * A coluna é lida por e-mail (índice único) e fica em cache por
+ * app.jwt.permissions-cache-ttl; alterações feitas neste nó limpam o cache depois
+ * do commit, e as feitas em outros nós valem aqui em no máximo esse tempo.
+ */
+@Component
+public class UserTokenVersions {
+
+	/**
+	 * Id do usuário e versão atual de permissões.
+	 */
+	public record Stamp(long userId, long version) {
+	}
+
+	private final JdbcTemplate jdbcTemplate;
+	private final Cache<String, Optional<Stamp>> stamps;
+
+	public UserTokenVersions(JdbcTemplate jdbcTemplate,
+			@Value("${app.jwt.permissions-cache-ttl:5s}") Duration cacheTtl) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.stamps = Caffeine.newBuilder()
+				.maximumSize(100_000)
+				.expireAfterWrite(cacheTtl)
+				.build();
+	}
+
+	/**
+	 * @param username - E-mail do usuário (subject do token).
+	 * @return Id e versão atual de permissões, ou null se não houver usuário com o e-mail.
+	 */
+	public Stamp current(String username) {
+		return stamps.get(username, key -> Optional.ofNullable(load(key))).orElse(null);
+	}
+
+	/**
+	 * Versão em cache, sem ir ao banco.
+	 * @return null se o e-mail não estiver em cache; vazio se estiver em cache sem usuário.
+	 */
+	public Optional<Stamp> cached(String username) {
+		return stamps.getIfPresent(username);
+	}
+
+	protected Stamp load(String username) {
+		return jdbcTemplate.query("select id, permissions_version from tb_user where email = ?",
+				rs -> rs.next() ? new Stamp(rs.getLong(1), rs.getLong(2)) : null, username);
+	}
+
+	/**
+	 * Invalida todos os tokens emitidos até agora para o usuário. Deve rodar na
+	 * transação da alteração.
+	 * @param userId - Id do usuário.
+	 * @param usernames - E-mails (antigo e novo) cujo cache deve ser descartado.
+	 */
+	public void bump(long userId, String... usernames) {
+		jdbcTemplate.update("update tb_user set permissions_version = permissions_version + 1 where id = ?", userId);
+		forget(usernames);
+	}
+
+	/**
+	 * Descarta o cache dos e-mails, agora e de novo depois do commit da transação
+	 * atual (um token lido no meio-tempo teria guardado a versão antiga).
+	 */
+	public void forget(String... usernames) {
+		for (String username : usernames) {
+			if (username != null) {
+				stamps.invalidate(username);
+			}
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					for (String username : usernames) {
+						if (username != null) {
+							stamps.invalidate(username);
+						}
+					}
+				}
+			});
+		}
+	}
+}
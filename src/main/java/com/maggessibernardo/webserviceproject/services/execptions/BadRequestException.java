@@ -0,0 +1,14 @@
+package com.maggessibernardo.webserviceproject.services.execptions;
+
+/**
+ * Parâmetro, cabeçalho ou corpo da requisição inválido (400).
+ */
+public class BadRequestException extends RuntimeException{
+
+	private static final long serialVersionUID = 1L;
+	
+	public BadRequestException(String message) {
+		super(message);
+	}
+
+}
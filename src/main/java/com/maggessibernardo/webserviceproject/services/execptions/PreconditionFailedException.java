@@ -0,0 +1,14 @@
+package com.maggessibernardo.webserviceproject.services.execptions;
+
+/**
+ * A versão informada em If-Match não é mais a versão atual do recurso (412).
+ */
+public class PreconditionFailedException extends RuntimeException{
+
+	private static final long serialVersionUID = 1L;
+	
+	public PreconditionFailedException(Object id, long expectedVersion) {
+		super("Resource " + id + " is no longer at version " + expectedVersion);
+	}
+
+}
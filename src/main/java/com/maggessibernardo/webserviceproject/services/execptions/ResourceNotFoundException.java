@@ -1,11 +1,35 @@
 package com.maggessibernardo.webserviceproject.services.execptions;
 
+/**
+ * Recurso não encontrado (404).
+ *
+ * É uma exceção de controle de fluxo: ids inexistentes são comuns (inclusive de
+ * robôs testando ids aleatórios) e o stack trace nunca é usado, então ele não é
+ * capturado, e a mensagem só é montada se alguém a ler.
+ */
 public class ResourceNotFoundException extends RuntimeException{
 
 	private static final long serialVersionUID = 1L;
 	
+	private final Object id;
+	
 	public ResourceNotFoundException(Object id) {
-		super("Resource not found. ID:  "+id);
+		this(id, false); // Sem stack trace e sem exceções suprimidas
+	}
+	
+	// Com writableStackTrace, captura o stack trace (comparação de custo no NotFoundBenchmarkTest)
+	protected ResourceNotFoundException(Object id, boolean writableStackTrace) {
+		super(null, null, false, writableStackTrace);
+		this.id = id;
+	}
+	
+	public Object getId() {
+		return id;
+	}
+	
+	@Override
+	public String getMessage() {
+		return "Resource not found. ID:  "+id;
 	}
 
 }
@@ -0,0 +1,14 @@
+package com.maggessibernardo.webserviceproject.services.execptions;
+
+/**
+ * Limite de uso atingido; o cliente pode tentar de novo mais tarde (429).
+ */
+public class TooManyRequestsException extends RuntimeException{
+
+	private static final long serialVersionUID = 1L;
+	
+	public TooManyRequestsException(String message) {
+		super(message);
+	}
+
+}
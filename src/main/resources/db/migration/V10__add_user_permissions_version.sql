@@ -0,0 +1,4 @@
+-- Versão de permissões do usuário (UserTokenVersions): incrementada quando o papel
+-- ou o e-mail mudam, invalida os tokens autocontidos emitidos antes, em todos os nós
+
+alter table tb_user add column permissions_version bigint default 0 not null;
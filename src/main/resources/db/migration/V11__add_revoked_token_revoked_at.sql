@@ -0,0 +1,6 @@
+-- Momento da revogação (TokenRevocationService): cada nó busca periodicamente as
+-- revogações feitas nos outros desde a última busca
+
+alter table tb_revoked_token add column revoked_at timestamp(6) with time zone default current_timestamp not null;
+
+create index idx_revoked_token_revoked_at on tb_revoked_token (revoked_at);
@@ -0,0 +1,11 @@
+-- Versão do catálogo (CatalogCache): incrementada a cada escrita de produtos,
+-- categorias ou vínculos, para que cada nó saiba, com uma leitura de uma linha,
+-- se o catálogo em memória ainda está atual
+
+create table tb_catalog_version (
+    id int not null,
+    version bigint not null,
+    primary key (id)
+);
+
+insert into tb_catalog_version (id, version) values (1, 0);
@@ -0,0 +1,61 @@
+-- Esquema inicial, equivalente ao que o Hibernate gerava com ddl-auto=update
+
+create table tb_category (
+    id bigint generated by default as identity,
+    name varchar(255),
+    primary key (id)
+);
+
+create table tb_product (
+    id bigint generated by default as identity,
+    description varchar(255),
+    img_url varchar(255),
+    name varchar(255),
+    price float(53),
+    primary key (id)
+);
+
+create table tb_product_category (
+    product_id bigint not null,
+    category_id bigint not null,
+    primary key (product_id, category_id)
+);
+
+create table tb_user (
+    id bigint generated by default as identity,
+    email varchar(255),
+    name varchar(255),
+    password varchar(255),
+    phone varchar(255),
+    role varchar(255),
+    primary key (id)
+);
+
+create table tb_order (
+    id bigint generated by default as identity,
+    moment timestamp(6) with time zone,
+    order_status integer,
+    client_id bigint,
+    primary key (id)
+);
+
+create table tb_order_item (
+    price float(53) not null,
+    quantity integer,
+    product_id bigint not null,
+    order_id bigint not null,
+    primary key (order_id, product_id)
+);
+
+create table tb_payment (
+    moment timestamp(6) with time zone,
+    order_id bigint not null,
+    primary key (order_id)
+);
+
+alter table tb_order add constraint fk_order_client foreign key (client_id) references tb_user;
+alter table tb_order_item add constraint fk_order_item_product foreign key (product_id) references tb_product;
+alter table tb_order_item add constraint fk_order_item_order foreign key (order_id) references tb_order;
+alter table tb_payment add constraint fk_payment_order foreign key (order_id) references tb_order;
+alter table tb_product_category add constraint fk_product_category_category foreign key (category_id) references tb_category;
+alter table tb_product_category add constraint fk_product_category_product foreign key (product_id) references tb_product;
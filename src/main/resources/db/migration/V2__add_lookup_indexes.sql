@@ -0,0 +1,14 @@
+-- Índices para os caminhos de consulta mais frequentes
+
+-- UserRepository.findByEmail roda em toda requisição autenticada
+create unique index uk_user_email on tb_user (email);
+
+-- Pedidos de um cliente (User.orders) e histórico por período
+create index idx_order_client_moment on tb_order (client_id, moment);
+create index idx_order_moment on tb_order (moment);
+
+-- Itens de um produto (Product.getOrders)
+create index idx_order_item_product on tb_order_item (product_id);
+
+-- Produtos de uma categoria (Category.products)
+create index idx_product_category_category on tb_product_category (category_id);
@@ -0,0 +1,5 @@
+-- Histórico de pedidos por cliente com paginação por chave (GET /users/{id}/orders):
+-- o índice segue a mesma ordem da consulta (moment desc, id desc), então cada página
+-- é uma leitura contígua do índice, independentemente de quantos pedidos o cliente tem.
+drop index idx_order_client_moment;
+create index idx_order_client_history on tb_order (client_id, moment desc, id desc);
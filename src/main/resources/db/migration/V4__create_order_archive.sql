@@ -0,0 +1,14 @@
+-- Pedidos arquivados (OrderArchiveService): cada linha guarda o pedido completo,
+-- com itens e pagamento, em um único blob comprimido. client_id e moment ficam
+-- fora do blob para permitir consultas sem descompactar.
+
+create table tb_order_archive (
+    id bigint not null,
+    client_id bigint,
+    moment timestamp(6) with time zone,
+    archived_at timestamp(6) with time zone not null,
+    payload varbinary(1048576) not null,
+    primary key (id)
+);
+
+create index idx_order_archive_client on tb_order_archive (client_id, moment desc);
@@ -0,0 +1,9 @@
+-- Tokens JWT revogados (TokenRevocationService), mantidos até a expiração do token
+
+create table tb_revoked_token (
+    jti varchar(64) not null,
+    expires_at timestamp(6) with time zone not null,
+    primary key (jti)
+);
+
+create index idx_revoked_token_expires on tb_revoked_token (expires_at);
@@ -0,0 +1,4 @@
+-- Versão para controle otimista (@Version) e ETag/If-Match em PATCH
+
+alter table tb_user add column version bigint default 0 not null;
+alter table tb_product add column version bigint default 0 not null;
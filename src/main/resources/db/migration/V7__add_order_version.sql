@@ -0,0 +1,3 @@
+-- Versão para controle otimista (@Version) dos pedidos
+
+alter table tb_order add column version bigint default 0 not null;
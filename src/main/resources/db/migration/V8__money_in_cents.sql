@@ -0,0 +1,11 @@
+-- Preços passam de float(53) para bigint em centavos (Money/MoneyConverter):
+-- somas e médias no banco ficam exatas
+
+alter table tb_product add column price_cents bigint;
+update tb_product set price_cents = cast(round(price * 100) as bigint);
+alter table tb_product drop column price;
+
+alter table tb_order_item add column price_cents bigint default 0 not null;
+update tb_order_item set price_cents = cast(round(price * 100) as bigint);
+alter table tb_order_item alter column price_cents drop default;
+alter table tb_order_item drop column price;
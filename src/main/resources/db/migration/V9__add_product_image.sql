@@ -0,0 +1,5 @@
+-- Imagem do produto no armazenamento local endereçado por conteúdo (ProductImageService):
+-- SHA-256 do arquivo original e o seu tipo (image/png, image/jpeg, image/gif)
+
+alter table tb_product add column image_hash varchar(64);
+alter table tb_product add column image_type varchar(32);
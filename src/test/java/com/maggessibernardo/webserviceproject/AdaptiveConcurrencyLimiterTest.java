@@ -0,0 +1,59 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.maggessibernardo.webserviceproject.services.AdaptiveConcurrencyLimiter;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    void testRejectsAboveLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, TARGET, 0.5);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    void testLimitShrinksOnSlowResponsesAndGrowsOnFastOnes() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 8, 2, 10, TARGET, 0.5);
+
+        limiter.tryAcquire();
+        limiter.release(TARGET * 2);
+        assertEquals(4, limiter.getLimit());
+
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+        }
+        limiter.release(TARGET / 2);
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void testDecreasesAtMostOncePerWindow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 16, 2, 20, TARGET, 0.5);
+        long now = TimeUnit.SECONDS.toNanos(10);
+        for (int i = 0; i < 8; i++) {
+            limiter.tryAcquire();
+        }
+
+        // Oito requisições lentas admitidas juntas: uma redução, não oito
+        for (int i = 0; i < 8; i++) {
+            limiter.release(TARGET * 2, now + i);
+        }
+        assertEquals(8, limiter.getLimit());
+
+        // Uma requisição admitida depois da redução ainda lenta: reduz de novo
+        limiter.tryAcquire();
+        limiter.release(TARGET * 2, now + TARGET * 3);
+        assertEquals(4, limiter.getLimit());
+    }
+}
@@ -0,0 +1,201 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.maggessibernardo.webserviceproject.config.CatalogSnapshotProperties;
+import com.maggessibernardo.webserviceproject.entities.Category;
+import com.maggessibernardo.webserviceproject.entities.Money;
+import com.maggessibernardo.webserviceproject.entities.Product;
+import com.maggessibernardo.webserviceproject.repositories.ProductRepository;
+import com.maggessibernardo.webserviceproject.services.CatalogCache;
+import com.maggessibernardo.webserviceproject.services.CatalogCache.Source;
+import com.maggessibernardo.webserviceproject.services.ProductService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest(properties = { "app.catalog.snapshot.enabled=true",
+		"app.catalog.snapshot.file=target/test-catalog/catalog.snapshot", "app.catalog.snapshot.refresh-interval=1h" })
+class CatalogSnapshotTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private CatalogCache catalogCache;
+
+	@Test
+	void testRestartPrimesFromSnapshotUnlessDatabaseChanged(@TempDir Path directory) throws Exception {
+		Path file = directory.resolve("catalog.snapshot");
+		CatalogCache first = cache(file);
+		assertEquals(Source.DATABASE, first.prime());
+		assertTrue(Files.exists(file));
+		assertEquals(productRepository.count(), first.products().size());
+		assertEquals(links(), linksOf(first));
+
+		// Outro processo sobre o mesmo banco: o mesmo catálogo, sem consultar as tabelas
+		CatalogCache restarted = cache(file);
+		assertEquals(Source.SNAPSHOT, restarted.prime());
+		assertEquals(linksOf(first), linksOf(restarted));
+		Product before = first.products().get(0);
+		Product after = restarted.product(before.getId());
+		assertEquals(before.getName(), after.getName());
+		assertEquals(before.getPrice(), after.getPrice());
+		assertEquals(before.getVersion(), after.getVersion());
+
+		// Alteração por fora da aplicação: o refresh só confere a versão do catálogo e as
+		// contagens, então percebe quando o escritor incrementa tb_catalog_version
+		jdbcTemplate.update("update tb_product set name = 'Renamed Outside', version = version + 1 where id = ?",
+				before.getId());
+		restarted.refresh();
+		assertEquals(before.getName(), restarted.product(before.getId()).getName());
+		jdbcTemplate.update("update tb_catalog_version set version = version + 1 where id = 1");
+		restarted.refresh();
+		assertEquals("Renamed Outside", restarted.product(before.getId()).getName());
+
+		// O snapshot regravado vale; um produto novo depois dele o torna obsoleto
+		assertEquals(Source.SNAPSHOT, cache(file).prime());
+		productRepository.save(new Product(null, "After Snapshot", "", Money.of("1.00"), ""));
+		assertEquals(Source.DATABASE, cache(file).prime());
+	}
+
+	@Test
+	void testCorruptSnapshotIsDiscarded(@TempDir Path directory) throws Exception {
+		Path file = directory.resolve("catalog.snapshot");
+		cache(file).prime();
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length / 2] ^= 0x5A;
+		Files.write(file, bytes);
+		CatalogCache cache = cache(file);
+		assertEquals(Source.DATABASE, cache.prime());
+		assertEquals(Source.SNAPSHOT, cache(file).prime());
+
+		Files.write(file, new byte[] { 1, 2, 3 });
+		assertEquals(Source.DATABASE, cache(file).prime());
+	}
+
+	@Test
+	void testChangesThatKeepVersionsAndSizesAreDetected(@TempDir Path directory) throws Exception {
+		Path file = directory.resolve("catalog.snapshot");
+		CatalogCache cache = cache(file);
+		cache.prime();
+		Product product = cache.products().get(0);
+		Category category = product.getCategories().iterator().next();
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+				"select product_id, category_id from tb_product_category order by product_id, category_id");
+		Map<String, Object> a = rows.get(0);
+		Map<String, Object> b = rows.stream()
+				.filter(row -> !row.get("product_id").equals(a.get("product_id"))
+						&& !row.get("category_id").equals(a.get("category_id")))
+				.findFirst().orElseThrow();
+
+		// O banco em memória é compartilhado com os outros testes: as mudanças são desfeitas no fim
+		try {
+			// Mesmo tamanho de nome, sem incrementar versões: ainda assim o banco mudou
+			jdbcTemplate.update("update tb_category set name = translate(name, 'aeiou', 'eioua') where id = ?",
+					category.getId());
+			assertEquals(Source.DATABASE, cache(file).prime());
+			jdbcTemplate.update("update tb_product set description = concat(description, '!') where id = ?",
+					product.getId());
+			assertEquals(Source.DATABASE, cache(file).prime());
+
+			// Dois vínculos trocados mantêm contagens e somas
+			swapLinks(a.get("product_id"), a.get("category_id"), b.get("product_id"), b.get("category_id"));
+			CatalogCache swapped = cache(file);
+			assertEquals(Source.DATABASE, swapped.prime());
+			assertEquals(links(), linksOf(swapped));
+		} finally {
+			jdbcTemplate.update("update tb_category set name = ? where id = ?", category.getName(), category.getId());
+			jdbcTemplate.update("update tb_product set description = ? where id = ?", product.getDescription(),
+					product.getId());
+			if (jdbcTemplate.queryForObject("select count(*) from tb_product_category where product_id = ?"
+					+ " and category_id = ?", Long.class, a.get("product_id"), a.get("category_id")) == 0) {
+				swapLinks(a.get("product_id"), b.get("category_id"), b.get("product_id"), a.get("category_id"));
+			}
+		}
+	}
+
+	// Troca os vínculos (productA, categoryA) e (productB, categoryB) por (productA, categoryB) e (productB, categoryA)
+	private void swapLinks(Object productA, Object categoryA, Object productB, Object categoryB) {
+		jdbcTemplate.update("delete from tb_product_category where product_id = ? and category_id = ?", productA,
+				categoryA);
+		jdbcTemplate.update("delete from tb_product_category where product_id = ? and category_id = ?", productB,
+				categoryB);
+		jdbcTemplate.update("insert into tb_product_category (product_id, category_id) values (?, ?), (?, ?)",
+				productA, categoryB, productB, categoryA);
+	}
+
+	@Test
+	void testReadsReturnCopies() {
+		catalogCache.refresh();
+		Product product = catalogCache.products().get(0);
+		String name = product.getName();
+		product.setName("Changed By Caller");
+		product.getCategories().clear();
+		catalogCache.category(1L).setName("Changed By Caller");
+
+		assertEquals(name, catalogCache.product(product.getId()).getName());
+		assertEquals(name, productService.findById(product.getId()).getName());
+		assertNotEquals("Changed By Caller", catalogCache.category(1L).getName());
+		assertEquals(links().get(product.getId()), linksOf(catalogCache).get(product.getId()));
+	}
+
+	@Test
+	void testWritesInvalidateTheCatalog() {
+		catalogCache.refresh();
+		assertTrue(catalogCache.isAvailable());
+		Product product = productRepository.save(new Product(null, "Before Patch", "", Money.of("2.00"), ""));
+		catalogCache.refresh();
+		assertEquals("Before Patch", productService.findById(product.getId()).getName());
+
+		productService.patch(product.getId(), Map.of("name", "After Patch"), null);
+		assertFalse(catalogCache.isAvailable());
+		assertEquals("After Patch", productService.findById(product.getId()).getName());
+
+		catalogCache.refresh();
+		assertTrue(catalogCache.isAvailable());
+		assertEquals("After Patch", catalogCache.product(product.getId()).getName());
+	}
+
+	private CatalogCache cache(Path file) {
+		CatalogSnapshotProperties props = new CatalogSnapshotProperties();
+		props.setEnabled(true);
+		props.setFile(file);
+		return new CatalogCache(jdbcTemplate, props, new SimpleMeterRegistry());
+	}
+
+	private Map<Long, Set<Long>> links() {
+		Map<Long, Set<Long>> links = productRepository.findAll().stream()
+				.collect(Collectors.toMap(Product::getId, product -> Set.of()));
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+				"select product_id, category_id from tb_product_category");
+		Map<Long, Set<Long>> linked = rows.stream().collect(Collectors.groupingBy(
+				row -> ((Number) row.get("product_id")).longValue(),
+				Collectors.mapping(row -> ((Number) row.get("category_id")).longValue(), Collectors.toSet())));
+		links.putAll(linked);
+		return links;
+	}
+
+	private static Map<Long, Set<Long>> linksOf(CatalogCache cache) {
+		return cache.products().stream().collect(Collectors.toMap(Product::getId,
+				product -> product.getCategories().stream().map(Category::getId).collect(Collectors.toSet())));
+	}
+}
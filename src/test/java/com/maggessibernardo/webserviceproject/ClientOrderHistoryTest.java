@@ -0,0 +1,170 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maggessibernardo.webserviceproject.entities.Order;
+import com.maggessibernardo.webserviceproject.entities.User;
+import com.maggessibernardo.webserviceproject.entities.enums.OrderStatus;
+import com.maggessibernardo.webserviceproject.repositories.OrderRepository;
+import com.maggessibernardo.webserviceproject.repositories.UserRepository;
+import com.maggessibernardo.webserviceproject.services.JwtService;
+
+@SpringBootTest(properties = "app.rate-limit.enabled=false")
+@AutoConfigureMockMvc
+class ClientOrderHistoryTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String bearer;
+    private User client;
+    private final List<Order> orders = new ArrayList<>();
+
+    // O banco em memória é compartilhado com os outros testes: os dados são removidos no fim
+    @BeforeEach
+    void setUp() {
+        bearer = "Bearer " + jwtService.generateToken(userDetailsService.loadUserByUsername("admin@admin.com"));
+        client = userRepository.save(new User(null, "History User", "history@example.com", "999999999", "123456", "ROLE_USER"));
+        order("2040-01-01T10:00:00Z", OrderStatus.PAID);
+        order("2040-01-02T10:00:00Z", OrderStatus.SHIPPED);
+        order("2040-01-03T10:00:00Z", OrderStatus.PAID);
+        // Mesmo momento: o id desempata a ordem
+        order("2040-01-04T10:00:00Z", OrderStatus.WAITING_PAYMENT);
+        order("2040-01-04T10:00:00Z", OrderStatus.PAID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll(orders);
+        userRepository.delete(client);
+    }
+
+    @Test
+    void testPagesFollowTheCursorWithoutGapsOrRepeats() throws Exception {
+        List<Long> expected = orders.stream()
+                .sorted(Comparator.comparing(Order::getMoment).thenComparing(Order::getId).reversed())
+                .map(Order::getId).toList();
+
+        List<Long> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String after = null;
+        do {
+            MvcResult result = mockMvc.perform(history("size", "2", after))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            List<Long> page = ids(result);
+            pageSizes.add(page.size());
+            seen.addAll(page);
+            after = result.getResponse().getHeader("X-Next-Cursor");
+            if (after != null) {
+                assertTrue(result.getResponse().getHeader(HttpHeaders.LINK).contains("after=" + after));
+            } else {
+                assertNull(result.getResponse().getHeader(HttpHeaders.LINK));
+            }
+        } while (after != null);
+
+        assertEquals(List.of(2, 2, 1), pageSizes);
+        assertEquals(expected, seen);
+
+        // Página exata: sem cursor quando não há mais pedidos
+        MvcResult all = mockMvc.perform(history("size", "5", null)).andExpect(status().isOk()).andReturn();
+        assertEquals(expected, ids(all));
+        assertNull(all.getResponse().getHeader("X-Next-Cursor"));
+    }
+
+    @Test
+    void testFiltersByPeriodAndStatus() throws Exception {
+        // "from" inclusivo, "to" exclusivo
+        MvcResult period = mockMvc.perform(get("/users/{id}/orders", client.getId()).header("Authorization", bearer)
+                .param("from", "2040-01-02T10:00:00Z").param("to", "2040-01-04T10:00:00Z"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(List.of(orders.get(2).getId(), orders.get(1).getId()), ids(period));
+
+        MvcResult paid = mockMvc.perform(history("status", "PAID", null))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(List.of(orders.get(4).getId(), orders.get(2).getId(), orders.get(0).getId()), ids(paid));
+
+        // O cursor mantém os filtros da página anterior
+        MvcResult first = mockMvc.perform(history("status", "PAID", null).param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String after = first.getResponse().getHeader("X-Next-Cursor");
+        MvcResult second = mockMvc.perform(history("status", "PAID", after).param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(List.of(orders.get(0).getId()), ids(second));
+    }
+
+    @Test
+    void testInvalidCursorAndPageSizeAreBadRequests() throws Exception {
+        mockMvc.perform(history("after", "not-a-cursor", null))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor: not-a-cursor"));
+        mockMvc.perform(history("size", "0", null))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(history("size", "101", null))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testUnknownUserIsNotFound() throws Exception {
+        mockMvc.perform(get("/users/{id}/orders", Long.MAX_VALUE).header("Authorization", bearer))
+                .andExpect(status().isNotFound());
+    }
+
+    private MockHttpServletRequestBuilder history(String param, String value, String after) {
+        MockHttpServletRequestBuilder request = get("/users/{id}/orders", client.getId())
+                .header("Authorization", bearer).param(param, value);
+        return after != null ? request.param("after", after) : request;
+    }
+
+    private List<Long> ids(MvcResult result) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode order : objectMapper.readTree(result.getResponse().getContentAsString())) {
+            ids.add(order.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private void order(String moment, OrderStatus status) {
+        orders.add(orderRepository.save(new Order(null, Instant.parse(moment), status, client)));
+    }
+}
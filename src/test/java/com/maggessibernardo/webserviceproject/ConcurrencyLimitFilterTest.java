@@ -0,0 +1,52 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.maggessibernardo.webserviceproject.services.ConcurrencyLimitFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // Um único lugar por grupo, alvo de latência alto para o limite não mudar no teste
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(registry, List.of("/orders/**"), 3,
+            1, 1, 60_000, 1, 1, 60_000, 1, 0.9);
+
+    @Test
+    void testRequestOverTheLimitGets503WithRetryAfter() throws Exception {
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        AtomicInteger served = new AtomicInteger();
+        MockHttpServletResponse first = new MockHttpServletResponse();
+
+        // A segunda requisição do mesmo grupo chega enquanto a primeira ainda ocupa o lugar
+        filter.doFilter(new MockHttpServletRequest("GET", "/orders/1"), first, (request, response) -> {
+            served.incrementAndGet();
+            filter.doFilter(new MockHttpServletRequest("GET", "/orders/2"), rejected,
+                    (req, res) -> served.incrementAndGet());
+            // O outro grupo tem o seu próprio limite
+            filter.doFilter(new MockHttpServletRequest("GET", "/categories"), new MockHttpServletResponse(),
+                    (req, res) -> served.incrementAndGet());
+        });
+
+        assertEquals(200, first.getStatus());
+        assertEquals(503, rejected.getStatus());
+        assertEquals("3", rejected.getHeader("Retry-After"));
+        assertEquals(2, served.get());
+        assertEquals(1, registry.get("http.concurrency.rejected").tag("group", "heavy").functionCounter().count());
+
+        // Liberado o lugar, a próxima passa
+        MockHttpServletResponse next = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/orders/2"), next, (req, res) -> served.incrementAndGet());
+        assertEquals(200, next.getStatus());
+        assertEquals(3, served.get());
+    }
+}
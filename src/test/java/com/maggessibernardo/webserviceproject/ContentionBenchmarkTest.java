@@ -0,0 +1,117 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.maggessibernardo.webserviceproject.entities.User;
+import com.maggessibernardo.webserviceproject.services.UserService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+
+/**
+ * Mede a vazão de PUT /users/{id} (UserService.update) com muitos escritores
+ * concorrentes disputando poucas linhas, e confere que nenhuma escrita aceita foi
+ * perdida: cada atualização bem-sucedida incrementa a versão exatamente uma vez.
+ * Desligado por padrão; para executar:
+ *
+ * mvn test -Dtest=ContentionBenchmarkTest -Dbenchmark=true [-Dbenchmark.writers=64]
+ *     [-Dbenchmark.hot-rows=4] [-Dbenchmark.writes=200]
+ *
+ * O resultado fica em target/benchmark-reports.
+ */
+@SpringBootTest(properties = { "app.rate-limit.enabled=false", "spring.jpa.show-sql=false" })
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ContentionBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentionBenchmarkTest.class);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void testConcurrentWriters() throws Exception {
+        int writers = Integer.getInteger("benchmark.writers", 64);
+        int hotRows = Integer.getInteger("benchmark.hot-rows", 4);
+        int writes = Integer.getInteger("benchmark.writes", 200);
+
+        long run = System.nanoTime();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < hotRows; i++) {
+            users.add(userService.insert(new User(null, "Hot " + i, "hot" + i + "-" + run + "@bench.com", "0", "x", "ROLE_USER")));
+        }
+
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        double retriesBefore = retries();
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < writes; i++) {
+                    User target = users.get((writer + i) % hotRows);
+                    // Telefone sempre diferente, para que toda escrita aceita altere a linha
+                    User data = new User(null, target.getName(), target.getEmail(), writer + "-" + i, null, null);
+                    try {
+                        userService.update(target.getId(), data);
+                        succeeded.incrementAndGet();
+                    } catch (OptimisticLockingFailureException e) {
+                        conflicts.incrementAndGet(); // Seria um 409
+                    }
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        pool.shutdown();
+
+        long versions = 0;
+        for (User user : users) {
+            versions += userService.findById(user.getId()).getVersion() - user.getVersion();
+        }
+        String report = String.format(Locale.ROOT,
+                "{\"writers\":%d,\"hotRows\":%d,\"attempted\":%d,\"succeeded\":%d,\"conflicts409\":%d,"
+                        + "\"retries\":%.0f,\"writesPerSecond\":%.0f}",
+                writers, hotRows, (long) writers * writes, succeeded.get(), conflicts.get(),
+                retries() - retriesBefore, succeeded.get() / seconds);
+        Path dir = Path.of("target", "benchmark-reports");
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("contention-" + System.currentTimeMillis() + ".json"), report);
+        log.info("Contention benchmark: {}", report);
+        assertEquals(succeeded.get(), versions);
+    }
+
+    private double retries() {
+        return Search.in(registry).name("optimistic.lock.retries").tag("operation", "user.update").counters()
+                .stream().mapToDouble(c -> c.count()).sum();
+    }
+}
@@ -0,0 +1,97 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.maggessibernardo.webserviceproject.config.DataGeneratorConfig;
+import com.maggessibernardo.webserviceproject.config.DataGeneratorProperties;
+
+class DataGeneratorTest {
+
+	// Colunas comparadas; a senha fica de fora porque o hash BCrypt usa um sal aleatório
+	private static final Map<String, String> TABLES = new LinkedHashMap<>();
+	static {
+		TABLES.put("tb_category", "select id, name from tb_category order by id");
+		TABLES.put("tb_product", "select id, name, description, price_cents, img_url from tb_product order by id");
+		TABLES.put("tb_user", "select id, name, email, phone, role from tb_user order by id");
+		TABLES.put("tb_product_category",
+				"select product_id, category_id from tb_product_category order by product_id, category_id");
+		TABLES.put("tb_order", "select id, moment, order_status, client_id from tb_order order by id");
+		TABLES.put("tb_order_item",
+				"select order_id, product_id, quantity, price_cents from tb_order_item order by order_id, product_id");
+		TABLES.put("tb_payment", "select order_id, moment from tb_payment order by order_id");
+	}
+
+	@Test
+	void testSameSeedGeneratesTheSameData() throws Exception {
+		Map<String, String> first = generate(7);
+		Map<String, String> second = generate(7);
+		assertEquals(first, second);
+
+		Map<String, String> other = generate(8);
+		for (String table : new String[] { "tb_product", "tb_user", "tb_order", "tb_order_item" }) {
+			assertNotEquals(first.get(table), other.get(table), table);
+		}
+	}
+
+	/**
+	 * Gera uma massa pequena em um banco novo e devolve o checksum de cada tabela.
+	 */
+	private static Map<String, String> generate(long seed) throws Exception {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:datagen-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		try {
+			Flyway.configure().dataSource(dataSource).load().migrate();
+
+			DataGeneratorProperties props = new DataGeneratorProperties();
+			props.setSeed(seed);
+			props.setUsers(50);
+			props.setProducts(40);
+			props.setCategories(6);
+			props.setOrders(300);
+			props.setBatchSize(64);
+			new DataGeneratorConfig(jdbcTemplate, new BCryptPasswordEncoder(4), props).run();
+			assertEquals(300, jdbcTemplate.queryForObject("select count(*) from tb_order", Integer.class));
+			assertTrue(jdbcTemplate.queryForObject("select count(*) from tb_order_item", Integer.class) >= 300);
+
+			Map<String, String> checksums = new LinkedHashMap<>();
+			TABLES.forEach((table, sql) -> checksums.put(table, checksum(jdbcTemplate, sql)));
+
+			// A identidade continua depois dos ids gerados
+			jdbcTemplate.update("insert into tb_category (name) values ('After')");
+			assertEquals(7, jdbcTemplate.queryForObject("select id from tb_category where name = 'After'", Long.class));
+			return checksums;
+		} finally {
+			jdbcTemplate.execute("shutdown");
+		}
+	}
+
+	private static String checksum(JdbcTemplate jdbcTemplate, String sql) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			jdbcTemplate.query(sql, rs -> {
+				for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+					digest.update(String.valueOf(rs.getObject(i)).getBytes(StandardCharsets.UTF_8));
+					digest.update((byte) 0);
+				}
+			});
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
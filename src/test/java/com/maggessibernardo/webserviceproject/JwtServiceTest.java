@@ -0,0 +1,130 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.time.Duration;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.maggessibernardo.webserviceproject.config.JwtProperties;
+import com.maggessibernardo.webserviceproject.services.JwtKeyRing;
+import com.maggessibernardo.webserviceproject.services.JwtService;
+import com.maggessibernardo.webserviceproject.services.UserTokenVersions;
+import com.maggessibernardo.webserviceproject.services.UserTokenVersions.Stamp;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+
+class JwtServiceTest {
+
+	private static final String OLD_SECRET = "old-secret-with-at-least-32-bytes!!";
+	private static final String NEW_SECRET = "new-secret-with-at-least-32-bytes!!";
+
+	private final UserDetails user = User.withUsername("maria@gmail.com").password("").authorities("ROLE_USER").build();
+
+	@Test
+	void testTokensSignedWithRotatedKeyRemainValid() {
+		String oldToken = service("k1", "k1", OLD_SECRET).generateToken(user);
+
+		JwtService rotated = service("k2", "k1", OLD_SECRET, "k2", NEW_SECRET);
+		String newToken = rotated.generateToken(user);
+
+		assertTrue(rotated.isTokenValid(oldToken, user));
+		assertTrue(rotated.isTokenValid(newToken, user));
+		assertEquals("k2", Jwts.parserBuilder()
+				.setSigningKey(NEW_SECRET.getBytes(StandardCharsets.UTF_8)).build()
+				.parseClaimsJws(newToken).getHeader().getKeyId());
+	}
+
+	@Test
+	void testTokenWithRetiredKeyIsRejected() {
+		String oldToken = service("k1", "k1", OLD_SECRET).generateToken(user);
+
+		JwtService retired = service("k2", "k2", NEW_SECRET);
+
+		assertThrows(JwtException.class, () -> retired.extractAllClaims(oldToken));
+	}
+
+	@Test
+	void testKeysAreLoadedFromKeystore(@TempDir Path dir) throws Exception {
+		char[] password = "changeit".toCharArray();
+		KeyStore keyStore = KeyStore.getInstance("PKCS12");
+		keyStore.load(null, password);
+		keyStore.setEntry("ks1", new KeyStore.SecretKeyEntry(
+				new SecretKeySpec(NEW_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256")),
+				new KeyStore.PasswordProtection(password));
+		Path file = dir.resolve("jwt-keys.p12");
+		try (OutputStream out = Files.newOutputStream(file)) {
+			keyStore.store(out, password);
+		}
+
+		JwtProperties props = new JwtProperties();
+		props.setActiveKeyId("ks1");
+		props.getKeystore().setPath(file.toString());
+		props.getKeystore().setPassword("changeit");
+		JwtService fromKeystore = new JwtService(new JwtKeyRing(props), props, new FixedVersions());
+
+		String token = fromKeystore.generateToken(user);
+		assertTrue(service("ks1", "ks1", NEW_SECRET).isTokenValid(token, user));
+	}
+
+	@Test
+	void testSelfContainedClaimsFollowPermissionsVersion() {
+		JwtProperties props = new JwtProperties();
+		props.getKeys().put("k1", OLD_SECRET);
+		FixedVersions versions = new FixedVersions();
+		JwtService jwtService = new JwtService(new JwtKeyRing(props), props, versions);
+		String token = jwtService.generateToken(user);
+
+		UserDetails fromToken = jwtService.toUserDetails(jwtService.extractAllClaims(token));
+		assertEquals("maria@gmail.com", fromToken.getUsername());
+		assertEquals("ROLE_USER", fromToken.getAuthorities().iterator().next().getAuthority());
+
+		// Versão incrementada (papel ou e-mail alterados) em qualquer nó
+		versions.stamp = new Stamp(7, 1);
+		assertNull(jwtService.toUserDetails(jwtService.extractAllClaims(token)));
+		String current = jwtService.generateToken(user);
+		assertNotNull(jwtService.toUserDetails(jwtService.extractAllClaims(current)));
+
+		// E-mail passou a ser de outro usuário, ou o usuário foi removido
+		versions.stamp = new Stamp(8, 1);
+		assertNull(jwtService.toUserDetails(jwtService.extractAllClaims(current)));
+		versions.stamp = null;
+		assertNull(jwtService.toUserDetails(jwtService.extractAllClaims(current)));
+		assertFalse(JwtService.isSelfContained(jwtService.extractAllClaims(jwtService.generateToken(user))));
+	}
+
+	// Versões fixas, sem banco e sem cache
+	private static class FixedVersions extends UserTokenVersions {
+
+		private Stamp stamp = new Stamp(7, 0);
+
+		FixedVersions() {
+			super(null, Duration.ZERO);
+		}
+
+		@Override
+		protected Stamp load(String username) {
+			return stamp;
+		}
+	}
+
+	private static JwtService service(String active, String... kidSecretPairs) {
+		JwtProperties props = new JwtProperties();
+		props.setActiveKeyId(active);
+		for (int i = 0; i < kidSecretPairs.length; i += 2) {
+			props.getKeys().put(kidSecretPairs[i], kidSecretPairs[i + 1]);
+		}
+		return new JwtService(new JwtKeyRing(props), props, new FixedVersions());
+	}
+}
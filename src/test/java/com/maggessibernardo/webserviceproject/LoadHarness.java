@@ -0,0 +1,221 @@
+package com.maggessibernardo.webserviceproject;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Gerador de carga HTTP em modelo aberto (taxa de chegada constante).
+ *
+ * Cada endpoint recebe requisições em instantes pré-calculados
+ * (início + n / taxa), independentemente de as anteriores já terem respondido,
+ * e cada requisição roda em uma virtual thread. A latência é medida a partir do
+ * instante em que a requisição deveria ter sido enviada, e não de quando foi de
+ * fato enviada, o que corrige o "coordinated omission": se o servidor trava,
+ * todas as requisições que deveriam ter saído nesse intervalo registram a espera.
+ *
+ * O resultado de cada execução é gravado em JSON, e um index.html com todas as
+ * execuções do diretório permite comparar versões lado a lado.
+ */
+class LoadHarness {
+
+	private static final long MAX_LATENCY_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+	private final URI baseUri;
+	private final String bearerToken;
+	private final HttpClient client;
+
+	LoadHarness(URI baseUri, String bearerToken) {
+		this.baseUri = baseUri;
+		this.bearerToken = bearerToken;
+		this.client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(5))
+				.executor(Executors.newVirtualThreadPerTaskExecutor())
+				.build();
+	}
+
+	/**
+	 * Executa a carga em todos os endpoints ao mesmo tempo.
+	 * @param paths - Caminhos a exercitar (ex.: /orders).
+	 * @param ratePerSecond - Taxa de chegada por endpoint.
+	 * @param warmup - Duração do aquecimento (não registrado).
+	 * @param duration - Duração da medição.
+	 */
+	List<EndpointResult> run(List<String> paths, double ratePerSecond, Duration warmup, Duration duration)
+			throws InterruptedException {
+		drive(paths, ratePerSecond, warmup, false);
+		return drive(paths, ratePerSecond, duration, true);
+	}
+
+	private List<EndpointResult> drive(List<String> paths, double ratePerSecond, Duration duration, boolean record)
+			throws InterruptedException {
+		List<EndpointLoad> loads = new ArrayList<>();
+		List<Thread> schedulers = new ArrayList<>();
+		try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (String path : paths) {
+				EndpointLoad load = new EndpointLoad(path);
+				loads.add(load);
+				schedulers.add(Thread.ofPlatform().name("load-" + path).start(
+						() -> schedule(load, requests, ratePerSecond, duration)));
+			}
+			for (Thread scheduler : schedulers) {
+				scheduler.join();
+			}
+			// O close() do executor espera as requisições em andamento
+		}
+		List<EndpointResult> results = new ArrayList<>();
+		if (record) {
+			for (EndpointLoad load : loads) {
+				results.add(load.result(ratePerSecond, duration));
+			}
+		}
+		return results;
+	}
+
+	private void schedule(EndpointLoad load, ExecutorService requests, double ratePerSecond, Duration duration) {
+		HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(load.path))
+				.timeout(Duration.ofSeconds(30))
+				.header("Authorization", "Bearer " + bearerToken)
+				.header("Accept", "application/json")
+				.GET()
+				.build();
+		long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+		long start = System.nanoTime();
+		long end = start + duration.toNanos();
+		for (long n = 0;; n++) {
+			long intended = start + n * intervalNanos;
+			if (intended >= end) {
+				return;
+			}
+			long wait = intended - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			requests.execute(() -> send(load, request, intended));
+		}
+	}
+
+	private void send(EndpointLoad load, HttpRequest request, long intendedStart) {
+		int status;
+		try {
+			status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+		} catch (IOException e) {
+			status = -1;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+		load.recorder.recordValue(Math.min(latencyMicros, MAX_LATENCY_MICROS));
+		if (status < 200 || status >= 300) {
+			load.errors.increment();
+			load.statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+		}
+	}
+
+	private static final class EndpointLoad {
+		final String path;
+		final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+		final LongAdder errors = new LongAdder();
+		final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+		EndpointLoad(String path) {
+			this.path = path;
+		}
+
+		EndpointResult result(double rate, Duration duration) {
+			Histogram histogram = recorder.getIntervalHistogram();
+			Map<String, Long> errorsByStatus = new LinkedHashMap<>();
+			statuses.forEach((status, count) -> errorsByStatus.put(Integer.toString(status), count.sum()));
+			return new EndpointResult(path, rate, duration.toSeconds(), histogram.getTotalCount(), errors.sum(),
+					errorsByStatus, histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+					histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9),
+					histogram.getMaxValue());
+		}
+	}
+
+	/**
+	 * Resultado de um endpoint; latências em microssegundos.
+	 */
+	record EndpointResult(String path, double targetRate, long durationSeconds, long count, long errors,
+			Map<String, Long> errorsByStatus, long p50, long p90, long p99, long p999, long max) {
+	}
+
+	/**
+	 * Grava o resultado da execução em JSON e regenera o index.html do diretório.
+	 * @return Caminho do arquivo JSON gravado.
+	 */
+	static Path writeReport(Path directory, String label, List<EndpointResult> results) throws IOException {
+		Files.createDirectories(directory);
+		ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+		Map<String, Object> run = new LinkedHashMap<>();
+		run.put("label", label);
+		run.put("timestamp", Instant.now().toString());
+		run.put("javaVersion", System.getProperty("java.version"));
+		run.put("endpoints", results);
+		Path json = directory.resolve(label + "-" + System.currentTimeMillis() + ".json");
+		mapper.writeValue(json.toFile(), run);
+		writeIndex(directory, mapper);
+		return json;
+	}
+
+	private static void writeIndex(Path directory, ObjectMapper mapper) throws IOException {
+		StringBuilder html = new StringBuilder();
+		html.append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Load reports</title>")
+				.append("<style>body{font-family:sans-serif}table{border-collapse:collapse}")
+				.append("td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}</style></head><body>")
+				.append("<h1>Load reports</h1><p>Latências em ms, corrigidas para coordinated omission.</p>")
+				.append("<table><tr><th>run</th><th>when</th><th>endpoint</th><th>rate/s</th><th>count</th>")
+				.append("<th>errors</th><th>p50</th><th>p90</th><th>p99</th><th>p99.9</th><th>max</th></tr>");
+		List<Path> files;
+		try (Stream<Path> stream = Files.list(directory)) {
+			files = stream.filter(p -> p.toString().endsWith(".json")).sorted().toList();
+		}
+		for (Path file : files) {
+			JsonNode run = mapper.readTree(file.toFile());
+			for (JsonNode endpoint : run.path("endpoints")) {
+				html.append("<tr><td>").append(escape(run.path("label").asText()))
+						.append("</td><td>").append(escape(run.path("timestamp").asText()))
+						.append("</td><td>").append(escape(endpoint.path("path").asText()))
+						.append("</td><td>").append(endpoint.path("targetRate").asDouble())
+						.append("</td><td>").append(endpoint.path("count").asLong())
+						.append("</td><td>").append(endpoint.path("errors").asLong());
+				for (String percentile : List.of("p50", "p90", "p99", "p999", "max")) {
+					html.append("</td><td>").append(String.format("%.2f", endpoint.path(percentile).asLong() / 1000.0));
+				}
+				html.append("</td></tr>");
+			}
+		}
+		html.append("</table></body></html>");
+		Files.writeString(directory.resolve("index.html"), html);
+	}
+
+	private static String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+	}
+}
@@ -0,0 +1,66 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import com.maggessibernardo.webserviceproject.services.JwtService;
+
+/**
+ * Mede a latência ponta a ponta (incluindo autenticação JWT) dos endpoints de
+ * listagem. Desligado por padrão; para executar:
+ *
+ * mvn test -Dtest=LoadHarnessTest -Dload=true [-Dload.rate=200] [-Dload.duration=30]
+ *     [-Dload.warmup=10] [-Dload.label=minha-versao]
+ *
+ * Os relatórios ficam em target/load-reports (um JSON por execução e um index.html).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "app.rate-limit.enabled=false")
+@EnabledIfSystemProperty(named = "load", matches = "true")
+class LoadHarnessTest {
+
+	private static final Logger log = LoggerFactory.getLogger(LoadHarnessTest.class);
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private UserDetailsService userDetailsService;
+
+	@Test
+	void testListEndpointsUnderConstantArrivalRate() throws Exception {
+		double rate = Double.parseDouble(System.getProperty("load.rate", "200"));
+		Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup", 10));
+		Duration duration = Duration.ofSeconds(Long.getLong("load.duration", 30));
+		String label = System.getProperty("load.label", "local");
+
+		String token = jwtService.generateToken(userDetailsService.loadUserByUsername("admin@admin.com"));
+		LoadHarness harness = new LoadHarness(URI.create("http://localhost:" + port), token);
+
+		List<LoadHarness.EndpointResult> results = harness.run(
+				List.of("/users", "/orders", "/products", "/categories"), rate, warmup, duration);
+		Path report = LoadHarness.writeReport(Path.of("target", "load-reports"), label, results);
+
+		log.info("Load report written to {}", report.toAbsolutePath());
+		for (LoadHarness.EndpointResult result : results) {
+			log.info("{}", result);
+			assertTrue(result.count() > 0);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.maggessibernardo.webserviceproject.entities.Money;
+import com.maggessibernardo.webserviceproject.entities.Product;
+import com.maggessibernardo.webserviceproject.repositories.ProductRepository;
+import com.maggessibernardo.webserviceproject.services.JwtService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MergePatchTest {
+
+    private static final String MERGE_PATCH = "application/merge-patch+json";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        bearer = "Bearer " + jwtService.generateToken(userDetailsService.loadUserByUsername("admin@admin.com"));
+    }
+
+    @Test
+    void testPatchProductWithAndWithoutIfMatch() throws Exception {
+        Product product = productRepository.save(new Product(null, "Patch Product", "Before", Money.of("10.00"), ""));
+        String path = "/products/" + product.getId();
+
+        mockMvc.perform(get(path).header("Authorization", bearer))
+                .andExpect(header().string("ETag", "\"0\""));
+
+        // Versão informada: UPDATE direto, sem corpo na resposta
+        mockMvc.perform(patch(path).header("Authorization", bearer).header("If-Match", "\"0\"")
+                        .contentType(MERGE_PATCH).content("{\"price\": 12.5}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        // Versão desatualizada
+        mockMvc.perform(patch(path).header("Authorization", bearer).header("If-Match", "\"0\"")
+                        .contentType(MERGE_PATCH).content("{\"price\": 99}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(patch(path).header("Authorization", bearer)
+                        .contentType(MERGE_PATCH).content("{\"name\": \"Patched\", \"description\": null}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(jsonPath("$.name").value("Patched"))
+                .andExpect(jsonPath("$.description").doesNotExist())
+                .andExpect(jsonPath("$.price").value(12.5));
+
+        mockMvc.perform(patch(path).header("Authorization", bearer)
+                        .contentType(MERGE_PATCH).content("{\"id\": 1}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testPatchMissingUserWithIfMatchReturns404() throws Exception {
+        mockMvc.perform(patch("/users/987654321").header("Authorization", bearer).header("If-Match", "\"0\"")
+                        .contentType(MERGE_PATCH).content("{\"phone\": \"977777777\"}"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,37 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maggessibernardo.webserviceproject.entities.Money;
+
+class MoneyTest {
+
+	@Test
+	void testArithmeticIsExact() {
+		assertEquals(Money.of("0.30"), Money.of("0.10").plus(Money.of("0.20")));
+		assertEquals(Money.of("59.97"), Money.of("19.99").times(3));
+		assertEquals(1999, Money.of(19.99).cents());
+		assertEquals(Money.of("1.01"), Money.ofRounded(1.005));
+		assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).times(2));
+	}
+
+	@Test
+	void testRejectsFractionsOfACent() {
+		assertThrows(IllegalArgumentException.class, () -> Money.of("0.001"));
+		assertThrows(IllegalArgumentException.class, () -> Money.of(12.345));
+	}
+
+	@Test
+	void testJsonIsADecimalNumber() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		assertEquals("90.50", mapper.writeValueAsString(Money.of("90.5")));
+		assertEquals(Money.of("90.50"), mapper.readValue("90.5", Money.class));
+		assertEquals(Money.ofCents(100), mapper.readValue("1", Money.class));
+		assertEquals(new BigDecimal("90.50"), Money.of("90.5").toBigDecimal());
+	}
+}
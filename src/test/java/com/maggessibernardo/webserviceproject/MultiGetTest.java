@@ -0,0 +1,104 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.maggessibernardo.webserviceproject.entities.Order;
+import com.maggessibernardo.webserviceproject.entities.Product;
+import com.maggessibernardo.webserviceproject.repositories.OrderRepository;
+import com.maggessibernardo.webserviceproject.repositories.ProductRepository;
+import com.maggessibernardo.webserviceproject.services.JwtService;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.maggessibernardo.webserviceproject.MultiGetTest$SqlCounter")
+@AutoConfigureMockMvc
+class MultiGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        bearer = "Bearer " + jwtService.generateToken(userDetailsService.loadUserByUsername("admin@admin.com"));
+    }
+
+    @Test
+    void testProductsKeepRequestOrderAndReportMissing() throws Exception {
+        List<Long> ids = productRepository.findAll().stream().map(Product::getId).limit(2).toList();
+        Long missing = 999_999_999L;
+
+        mockMvc.perform(get("/products").param("ids", ids.get(1) + "," + missing + "," + ids.get(0) + "," + ids.get(1))
+                        .header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains(ids.get(1).intValue(), ids.get(0).intValue())))
+                .andExpect(jsonPath("$.items[0].categories").isArray())
+                .andExpect(jsonPath("$.missing", contains(missing.intValue())));
+    }
+
+    @Test
+    void testOrdersLoadRelationsInFewQueries() throws Exception {
+        List<Long> ids = orderRepository.findAll().stream().map(Order::getId).limit(3).toList();
+        String param = String.join(",", ids.stream().map(String::valueOf).toList());
+
+        SqlCounter.count.set(0);
+        mockMvc.perform(get("/orders").param("ids", param).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(ids.size())))
+                .andExpect(jsonPath("$.items[0].client.id").exists())
+                .andExpect(jsonPath("$.missing", empty()));
+        // Pedidos com cliente, pagamento, itens e produtos, mais um lote de categorias
+        assertTrue(SqlCounter.count.get() <= 2, () -> SqlCounter.count.get() + " statements");
+    }
+
+    @Test
+    void testRejectsTooManyIds() throws Exception {
+        String param = String.join(",", LongStream.rangeClosed(1, 1001).mapToObj(String::valueOf).toList());
+        mockMvc.perform(get("/users").param("ids", param).header("Authorization", bearer))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Conta os comandos SQL preparados pelo Hibernate.
+     */
+    public static class SqlCounter implements StatementInspector {
+
+        private static final long serialVersionUID = 1L;
+
+        static final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public String inspect(String sql) {
+            count.incrementAndGet();
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.maggessibernardo.webserviceproject.services.JwtService;
+import com.maggessibernardo.webserviceproject.services.ProductService;
+import com.maggessibernardo.webserviceproject.services.execptions.ResourceNotFoundException;
+
+/**
+ * Mede a vazão de respostas 404 para ids aleatórios (tráfego de robôs) antes e
+ * depois da exceção sem stack trace: o "antes" é a mesma requisição com o serviço
+ * lançando uma ResourceNotFoundException com stack trace, capturado na pilha real
+ * da requisição. Também compara o custo isolado de criar as duas exceções.
+ * Desligado por padrão; para executar:
+ *
+ * mvn test -Dtest=NotFoundBenchmarkTest -Dbenchmark=true [-Dbenchmark.requests=20000]
+ *
+ * O resultado fica em target/benchmark-reports.
+ */
+@SpringBootTest(properties = { "app.rate-limit.enabled=false", "spring.jpa.show-sql=false" })
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class NotFoundBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(NotFoundBenchmarkTest.class);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    // Só substitui a exceção quando fullStack está ligado
+    @MockitoSpyBean
+    private ProductService productService;
+
+    private volatile boolean fullStack;
+
+    // Profundidade típica da pilha (filtros, Spring Security, MVC, proxies) quando o serviço lança a exceção
+    private static final int REQUEST_STACK_DEPTH = Integer.getInteger("benchmark.depth", 150);
+
+    @Test
+    void testNotFoundThroughput() throws Exception {
+        int requests = Integer.getInteger("benchmark.requests", 20_000);
+        String bearer = "Bearer " + jwtService.generateToken(userDetailsService.loadUserByUsername("admin@admin.com"));
+        doAnswer(invocation -> {
+            try {
+                return invocation.callRealMethod();
+            } catch (ResourceNotFoundException e) {
+                throw fullStack ? new FullStackNotFoundException(e.getId()) : e;
+            }
+        }).when(productService).findById(any());
+
+        // Alternadas, para que aquecimento e GC pesem igual nas duas variantes
+        double fullStackPerSecond = 0;
+        double stacklessPerSecond = 0;
+        for (int round = 0; round < 3; round++) {
+            fullStack = true;
+            fullStackPerSecond = throughput(bearer, requests);
+            fullStack = false;
+            stacklessPerSecond = throughput(bearer, requests);
+        }
+
+        // Custo isolado da exceção: antes (stack trace completo) e depois (sem stack trace)
+        double fullStackNanos = nanosPerException(() -> new RuntimeException("Resource not found. ID:  1"));
+        double stacklessNanos = nanosPerException(() -> new ResourceNotFoundException(1L));
+
+        String report = String.format(Locale.ROOT,
+                "{\"requests\":%d,\"fullStackNotFoundPerSecond\":%.0f,\"stacklessNotFoundPerSecond\":%.0f,"
+                        + "\"stackDepth\":%d,\"fullStackExceptionNanos\":%.0f,\"stacklessExceptionNanos\":%.0f,"
+                        + "\"java\":\"%s\",\"processors\":%d}",
+                requests, fullStackPerSecond, stacklessPerSecond, REQUEST_STACK_DEPTH, fullStackNanos,
+                stacklessNanos, Runtime.version(), Runtime.getRuntime().availableProcessors());
+        Path dir = Path.of("target", "benchmark-reports");
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("not-found-" + System.currentTimeMillis() + ".json"), report);
+        log.info("404 benchmark: {}", report);
+        assertTrue(stacklessNanos < fullStackNanos);
+    }
+
+    // A última rodada de cada variante vale; as anteriores são aquecimento
+    private double throughput(String bearer, int requests) throws Exception {
+        SplittableRandom random = new SplittableRandom(42);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            probe(bearer, random);
+        }
+        return requests / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private void probe(String bearer, SplittableRandom random) throws Exception {
+        long id = 1_000_000_000L + random.nextLong(1_000_000_000L);
+        int status = mockMvc.perform(get("/products/" + id).header("Authorization", bearer))
+                .andReturn().getResponse().getStatus();
+        assertEquals(404, status);
+    }
+
+    private static double nanosPerException(Supplier<RuntimeException> factory) {
+        int iterations = 200_000;
+        long sink = 0;
+        for (int round = 0; round < 2; round++) { // a primeira rodada é aquecimento
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += atDepth(REQUEST_STACK_DEPTH, factory).hashCode() & 1;
+            }
+            if (round == 1) {
+                assertTrue(sink >= 0);
+                return (System.nanoTime() - start) / (double) iterations;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    // O 404 de antes: a mesma exceção, com stack trace
+    private static class FullStackNotFoundException extends ResourceNotFoundException {
+
+        private static final long serialVersionUID = 1L;
+
+        FullStackNotFoundException(Object id) {
+            super(id, true);
+        }
+    }
+
+    private static RuntimeException atDepth(int depth, Supplier<RuntimeException> factory) {
+        return depth <= 0 ? factory.get() : atDepth(depth - 1, factory);
+    }
+}
@@ -0,0 +1,53 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import com.maggessibernardo.webserviceproject.entities.User;
+import com.maggessibernardo.webserviceproject.services.OptimisticRetry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OptimisticRetryTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OptimisticRetry retry = new OptimisticRetry(registry, 3, Duration.ofMillis(1), Duration.ofMillis(5));
+
+    @Test
+    void testRetriesConflictsUntilSuccess() {
+        AtomicInteger calls = new AtomicInteger();
+        String result = retry.execute("test", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(User.class, 1L);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+        assertEquals(2, registry.get("optimistic.lock.retries").tag("operation", "test").counter().count());
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttemptsAndIgnoresOtherErrors() {
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> retry.execute("test", () -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(User.class, 1L);
+        }));
+        assertEquals(3, calls.get());
+        assertEquals(1, registry.get("optimistic.lock.conflicts").tag("operation", "test").counter().count());
+
+        calls.set(0);
+        assertThrows(IllegalStateException.class, () -> retry.execute("test", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException();
+        }));
+        assertEquals(1, calls.get());
+    }
+}
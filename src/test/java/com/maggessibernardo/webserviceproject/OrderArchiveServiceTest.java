@@ -0,0 +1,143 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.DeflaterOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.maggessibernardo.webserviceproject.config.ArchiveProperties;
+import com.maggessibernardo.webserviceproject.entities.Money;
+import com.maggessibernardo.webserviceproject.entities.Order;
+import com.maggessibernardo.webserviceproject.entities.OrderItem;
+import com.maggessibernardo.webserviceproject.entities.Payment;
+import com.maggessibernardo.webserviceproject.entities.Product;
+import com.maggessibernardo.webserviceproject.entities.User;
+import com.maggessibernardo.webserviceproject.entities.enums.OrderStatus;
+import com.maggessibernardo.webserviceproject.services.OrderArchiveService;
+
+@DataJpaTest
+@Import(OrderArchiveService.class)
+@EnableConfigurationProperties(ArchiveProperties.class)
+class OrderArchiveServiceTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private OrderArchiveService archiveService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void testArchivedOrderIsMovedAndRebuilt() {
+		User user = entityManager.persist(new User(null, "Archive User", "archive@example.com", "999999999", "123456", "ROLE_USER"));
+		Product product = entityManager.persist(new Product(null, "Archived Product", "Old sale", Money.of("25.50"), ""));
+		Order old = entityManager.persist(new Order(null, Instant.parse("2020-03-01T10:00:00Z"), OrderStatus.DELIVERED, user));
+		entityManager.persist(new OrderItem(old, product, 3, Money.of("25.50")));
+		old.setPayment(new Payment(null, Instant.parse("2020-03-01T11:00:00Z"), old));
+		Order pending = entityManager.persist(new Order(null, Instant.parse("2020-03-02T10:00:00Z"), OrderStatus.WAITING_PAYMENT, user));
+		entityManager.flush();
+		entityManager.clear();
+
+		int archived = archiveService.archiveOlderThan(Instant.parse("2021-01-01T00:00:00Z"));
+
+		assertEquals(1, archived);
+		assertNull(entityManager.find(Order.class, old.getId()));
+		assertNotNull(entityManager.find(Order.class, pending.getId()));
+
+		Order restored = archiveService.findById(old.getId()).orElseThrow();
+		assertEquals(OrderStatus.DELIVERED, restored.getOrderStatus());
+		assertEquals(user.getId(), restored.getClient().getId());
+		assertEquals(Money.of("76.50"), restored.getTotal());
+		assertEquals("Archived Product", restored.getItems().iterator().next().getProduct().getName());
+		assertEquals(Instant.parse("2020-03-01T11:00:00Z"), restored.getPayment().getMoment());
+		assertTrue(archiveService.findById(pending.getId()).isEmpty());
+	}
+
+	@Test
+	void testVersionOneSnapshotWithDoublePricesIsStillReadable() throws IOException {
+		Product product = entityManager.persist(new Product(null, "Legacy Product", "Old format", Money.of("19.99"), ""));
+		entityManager.flush();
+
+		// Formato 1: preço do item em double
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+			out.writeByte(1);
+			out.writeLong(990001L);
+			out.writeLong(Instant.parse("2019-01-01T00:00:00Z").getEpochSecond());
+			out.writeInt(0);
+			out.writeByte(OrderStatus.DELIVERED.getCode());
+			out.writeBoolean(false);
+			out.writeBoolean(false);
+			out.writeBoolean(false);
+			out.writeInt(1);
+			out.writeLong(product.getId());
+			out.writeInt(3);
+			out.writeDouble(19.99);
+		}
+		jdbcTemplate.update("insert into tb_order_archive (id, client_id, moment, archived_at, payload) values (?, ?, ?, ?, ?)",
+				990001L, null, Timestamp.from(Instant.parse("2019-01-01T00:00:00Z")), Timestamp.from(Instant.now()),
+				bytes.toByteArray());
+
+		Order restored = archiveService.findById(990001L).orElseThrow();
+		assertEquals(Money.of("19.99"), restored.getItems().iterator().next().getPrice());
+		assertEquals(Money.of("59.97"), restored.getTotal());
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void testConcurrentStatusChangeIsNotLost() throws Exception {
+		Long orderId = transactionTemplate.execute(status -> {
+			User user = entityManager.persist(new User(null, "Racing User", "racing@example.com", "999999999", "123456", "ROLE_USER"));
+			return entityManager.persist(new Order(null, Instant.parse("2019-05-01T10:00:00Z"), OrderStatus.DELIVERED, user)).getId();
+		});
+		try {
+			// Outra transação muda o status e só confirma depois que o arquivamento começou
+			CountDownLatch updated = new CountDownLatch(1);
+			Thread transition = Thread.ofVirtual().start(() -> transactionTemplate.executeWithoutResult(status -> {
+				jdbcTemplate.update("update tb_order set order_status = ? where id = ?",
+						OrderStatus.WAITING_PAYMENT.getCode(), orderId);
+				updated.countDown();
+				sleep(300);
+			}));
+			updated.await();
+
+			assertEquals(0, archiveService.archiveOlderThan(Instant.parse("2020-01-01T00:00:00Z")));
+			transition.join();
+			assertEquals(OrderStatus.WAITING_PAYMENT.getCode(), jdbcTemplate.queryForObject(
+					"select order_status from tb_order where id = ?", Integer.class, orderId));
+			assertTrue(archiveService.findById(orderId).isEmpty());
+		} finally {
+			jdbcTemplate.update("delete from tb_order where id = ?", orderId);
+			jdbcTemplate.update("delete from tb_user where email = 'racing@example.com'");
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.maggessibernardo.webserviceproject.config.ArchiveProperties;
+import com.maggessibernardo.webserviceproject.entities.Order;
+import com.maggessibernardo.webserviceproject.entities.User;
+import com.maggessibernardo.webserviceproject.entities.enums.OrderStatus;
+import com.maggessibernardo.webserviceproject.services.OrderArchiveService;
+import com.maggessibernardo.webserviceproject.services.OrderService;
+import com.maggessibernardo.webserviceproject.services.OrderStatusStream;
+import com.maggessibernardo.webserviceproject.services.OrderService.StatusTransitionResult;
+import com.maggessibernardo.webserviceproject.services.SingleFlight;
+import com.maggessibernardo.webserviceproject.services.execptions.BadRequestException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@Import({ OrderService.class, OrderArchiveService.class, SingleFlight.class, OrderStatusStream.class,
+		SimpleMeterRegistry.class })
+@EnableConfigurationProperties(ArchiveProperties.class)
+class OrderStatusTransitionTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Test
+	void testOnlyLegalTransitionsAreApplied() {
+		User user = entityManager.persist(new User(null, "Bulk User", "bulk@example.com", "999999999", "123456", "ROLE_USER"));
+		Order paid = entityManager.persist(new Order(null, Instant.parse("2024-05-01T10:00:00Z"), OrderStatus.PAID, user));
+		Order waiting = entityManager.persist(new Order(null, Instant.parse("2024-05-01T11:00:00Z"), OrderStatus.WAITING_PAYMENT, user));
+		Order shipped = entityManager.persist(new Order(null, Instant.parse("2024-05-01T12:00:00Z"), OrderStatus.SHIPPED, user));
+		entityManager.flush();
+
+		StatusTransitionResult result = orderService.transitionStatus(
+				List.of(paid.getId(), waiting.getId(), shipped.getId(), paid.getId(), -1L), OrderStatus.SHIPPED);
+
+		assertEquals(4, result.requested());
+		assertEquals(1, result.updated());
+		assertEquals(3, result.skipped());
+		assertEquals(OrderStatus.SHIPPED, entityManager.find(Order.class, paid.getId()).getOrderStatus());
+		assertEquals(OrderStatus.WAITING_PAYMENT, entityManager.find(Order.class, waiting.getId()).getOrderStatus());
+	}
+
+	@Test
+	void testTransitionToPaidCreatesPayments() {
+		User user = entityManager.persist(new User(null, "Paying User", "paying@example.com", "999999999", "123456", "ROLE_USER"));
+		Order first = entityManager.persist(new Order(null, Instant.parse("2024-05-01T10:00:00Z"), OrderStatus.WAITING_PAYMENT, user));
+		Order second = entityManager.persist(new Order(null, Instant.parse("2024-05-01T11:00:00Z"), OrderStatus.WAITING_PAYMENT, user));
+		Order shipped = entityManager.persist(new Order(null, Instant.parse("2024-05-01T12:00:00Z"), OrderStatus.SHIPPED, user));
+		entityManager.flush();
+
+		StatusTransitionResult result = orderService.transitionStatus(
+				List.of(first.getId(), second.getId(), shipped.getId()), OrderStatus.PAID);
+		entityManager.clear();
+
+		assertEquals(2, result.updated());
+		for (Order order : List.of(first, second)) {
+			Order reloaded = entityManager.find(Order.class, order.getId());
+			assertEquals(OrderStatus.PAID, reloaded.getOrderStatus());
+			assertNotNull(reloaded.getPayment());
+			assertNotNull(reloaded.getPayment().getMoment());
+		}
+		assertNull(entityManager.find(Order.class, shipped.getId()).getPayment());
+	}
+
+	@Test
+	void testTransitionToInitialStatusIsRejected() {
+		assertThrows(BadRequestException.class,
+				() -> orderService.transitionStatus(List.of(1L), OrderStatus.WAITING_PAYMENT));
+	}
+}
@@ -0,0 +1,134 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import com.maggessibernardo.webserviceproject.entities.Order;
+import com.maggessibernardo.webserviceproject.entities.User;
+import com.maggessibernardo.webserviceproject.entities.enums.OrderStatus;
+import com.maggessibernardo.webserviceproject.repositories.OrderRepository;
+import com.maggessibernardo.webserviceproject.repositories.UserRepository;
+import com.maggessibernardo.webserviceproject.services.JwtService;
+import com.maggessibernardo.webserviceproject.services.OrderService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = { "app.rate-limit.enabled=false", "app.order-stream.max-per-client=1" })
+class OrderStreamTest {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private UserDetailsService userDetailsService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Test
+	void testStreamReceivesOnlyOwnOrderChanges() throws Exception {
+		User client = userRepository.save(new User(null, "Stream Client", "stream-" + System.nanoTime() + "@gmail.com",
+				"966666666", "123456", "ROLE_USER"));
+		Order own = orderRepository.save(new Order(null, Instant.now(), OrderStatus.WAITING_PAYMENT, client));
+		Order other = orderRepository.save(new Order(null, Instant.now(), OrderStatus.WAITING_PAYMENT,
+				userRepository.findByEmail("alex@gmail.com").get()));
+
+		String token = jwtService.generateToken(userDetailsService.loadUserByUsername(client.getEmail()));
+		HttpResponse<Stream<String>> response = HttpClient.newHttpClient().send(
+				HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/orders/stream"))
+						.header("Authorization", "Bearer " + token)
+						.header("Accept", "text/event-stream")
+						.build(),
+				HttpResponse.BodyHandlers.ofLines());
+		assertEquals(200, response.statusCode());
+		assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"));
+
+		// O pedido de outro cliente muda antes; o primeiro evento recebido tem que ser o próprio
+		orderService.transitionStatus(List.of(other.getId()), OrderStatus.PAID);
+		orderService.transitionStatus(List.of(own.getId()), OrderStatus.PAID);
+
+		Iterator<String> lines = response.body().iterator();
+		CompletableFuture<List<String>> event = CompletableFuture.supplyAsync(() -> {
+			String name = null;
+			while (lines.hasNext()) {
+				String line = lines.next();
+				if (line.startsWith("event:")) {
+					name = line.substring("event:".length());
+				} else if (line.startsWith("data:")) {
+					return List.of(name, line.substring("data:".length()));
+				}
+			}
+			return List.of();
+		});
+		List<String> received = event.get(10, TimeUnit.SECONDS);
+		response.body().close();
+
+		assertEquals("payment", received.get(0));
+		assertTrue(received.get(1).contains("\"orderId\":" + own.getId()), received.get(1));
+		assertTrue(received.get(1).contains("\"orderStatus\":\"PAID\""), received.get(1));
+	}
+
+	@Test
+	void testStreamsPerClientAreCapped() throws Exception {
+		User client = userRepository.save(new User(null, "Stream Cap", "stream-cap-" + System.nanoTime() + "@gmail.com",
+				"966666666", "123456", "ROLE_USER"));
+		User otherClient = userRepository.save(new User(null, "Stream Other",
+				"stream-other-" + System.nanoTime() + "@gmail.com", "966666666", "123456", "ROLE_USER"));
+		HttpResponse<Stream<String>> first = open(client.getEmail());
+		try {
+			assertEquals(200, first.statusCode());
+			HttpResponse<Stream<String>> second = open(client.getEmail());
+			assertEquals(429, second.statusCode());
+			second.body().close();
+
+			// O limite é por cliente
+			HttpResponse<Stream<String>> other = open(otherClient.getEmail());
+			assertEquals(200, other.statusCode());
+			other.body().close();
+		} finally {
+			first.body().close();
+		}
+	}
+
+	private HttpResponse<Stream<String>> open(String email) throws Exception {
+		String token = jwtService.generateToken(userDetailsService.loadUserByUsername(email));
+		return HttpClient.newHttpClient().send(
+				HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/orders/stream"))
+						.header("Authorization", "Bearer " + token)
+						.header("Accept", "text/event-stream")
+						.build(),
+				HttpResponse.BodyHandlers.ofLines());
+	}
+
+	@Test
+	void testStreamRequiresToken() throws Exception {
+		HttpResponse<Void> response = HttpClient.newHttpClient().send(
+				HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/orders/stream")).build(),
+				HttpResponse.BodyHandlers.discarding());
+		assertEquals(403, response.statusCode());
+	}
+}
@@ -0,0 +1,184 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import com.maggessibernardo.webserviceproject.entities.Money;
+import com.maggessibernardo.webserviceproject.entities.Product;
+import com.maggessibernardo.webserviceproject.repositories.ProductRepository;
+import com.maggessibernardo.webserviceproject.services.JwtService;
+import com.maggessibernardo.webserviceproject.services.ThumbnailCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = { "app.rate-limit.enabled=false", "app.images.store-dir=target/test-images/store",
+				"app.images.cache-dir=target/test-images/cache" })
+class ProductImageTest {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private UserDetailsService userDetailsService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@Test
+	void testUploadAndServeWithCachingAndRanges() throws Exception {
+		Product product = productRepository.save(new Product(null, "Image Product", "With image", Money.of("10.00"), ""));
+		byte[] png = png(400, 300);
+		String token = jwtService.generateToken(userDetailsService.loadUserByUsername("admin@admin.com"));
+
+		HttpResponse<String> upload = client.send(HttpRequest.newBuilder(uri("/products/" + product.getId() + "/image"))
+				.header("Authorization", "Bearer " + token).header("Content-Type", "image/png")
+				.PUT(HttpRequest.BodyPublishers.ofByteArray(png)).build(), HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, upload.statusCode(), upload.body());
+		String imgUrl = productRepository.findById(product.getId()).orElseThrow().getImgUrl();
+		assertTrue(imgUrl.startsWith("/products/" + product.getId() + "/image?v="), imgUrl);
+
+		// Original, sem autenticação: conteúdo idêntico e cache imutável na URL versionada
+		HttpResponse<byte[]> original = get(imgUrl, null);
+		assertEquals(200, original.statusCode());
+		assertArrayEquals(png, original.body());
+		assertEquals("image/png", original.headers().firstValue("Content-Type").orElseThrow());
+		assertTrue(original.headers().firstValue("Cache-Control").orElseThrow().contains("immutable"));
+		String etag = original.headers().firstValue("ETag").orElseThrow();
+
+		HttpResponse<byte[]> unversioned = get("/products/" + product.getId() + "/image", null);
+		assertEquals("public, max-age=3600", unversioned.headers().firstValue("Cache-Control").orElseThrow());
+
+		assertEquals(304, get(imgUrl, builder -> builder.header("If-None-Match", etag)).statusCode());
+
+		HttpResponse<byte[]> partial = get(imgUrl, builder -> builder.header("Range", "bytes=10-19"));
+		assertEquals(206, partial.statusCode());
+		assertEquals("bytes 10-19/" + png.length, partial.headers().firstValue("Content-Range").orElseThrow());
+		assertArrayEquals(Arrays.copyOfRange(png, 10, 20), partial.body());
+
+		HttpResponse<byte[]> outside = get(imgUrl, builder -> builder.header("Range", "bytes=" + png.length + "-"));
+		assertEquals(416, outside.statusCode());
+
+		// Miniatura: gerada no primeiro pedido, servida do cache no segundo
+		String thumbnailUrl = imgUrl + "&size=64";
+		HttpResponse<byte[]> thumbnail = get(thumbnailUrl, null);
+		assertEquals(200, thumbnail.statusCode());
+		BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(thumbnail.body()));
+		assertEquals(64, decoded.getWidth());
+		assertEquals(48, decoded.getHeight());
+		assertArrayEquals(thumbnail.body(), get(thumbnailUrl, null).body());
+		assertNotEquals(etag, thumbnail.headers().firstValue("ETag").orElseThrow());
+
+		assertEquals(400, get(imgUrl + "&size=65", null).statusCode());
+	}
+
+	@Test
+	void testCacheEvictsLeastRecentlyUsed(@TempDir Path directory) throws IOException {
+		ThumbnailCache cache = new ThumbnailCache(directory, 250, new SimpleMeterRegistry());
+		FileChannel a = cache.get("a", file -> Files.write(file, new byte[100]));
+		cache.get("b", file -> Files.write(file, new byte[100])).close();
+		cache.get("a", file -> fail("a is cached")).close();
+		FileChannel b = cache.get("b", file -> fail("b is cached"));
+		cache.get("c", file -> Files.write(file, new byte[100])).close();
+
+		assertTrue(Files.exists(directory.resolve("b")));
+		assertFalse(Files.exists(directory.resolve("a")));
+		assertEquals(200, cache.getTotalBytes());
+		// a foi aberto antes de ser descartado: continua legível até ser fechado
+		assertEquals(100, a.read(ByteBuffer.allocate(200)));
+		a.close();
+		b.close();
+
+		// Reindexado a partir do disco
+		assertEquals(200, new ThumbnailCache(directory, 250, new SimpleMeterRegistry()).getTotalBytes());
+	}
+
+	@Test
+	void testImageWithTooManyPixelsIsRejected() throws Exception {
+		Product product = productRepository.save(new Product(null, "Bomb Product", "", Money.of("1.00"), ""));
+		String token = jwtService.generateToken(userDetailsService.loadUserByUsername("admin@admin.com"));
+		HttpResponse<String> upload = client.send(HttpRequest.newBuilder(uri("/products/" + product.getId() + "/image"))
+				.header("Authorization", "Bearer " + token).header("Content-Type", "image/png")
+				.PUT(HttpRequest.BodyPublishers.ofByteArray(pngHeader(100_000, 100_000))).build(),
+				HttpResponse.BodyHandlers.ofString());
+		assertEquals(400, upload.statusCode(), upload.body());
+		assertNull(productRepository.findById(product.getId()).orElseThrow().getImageHash());
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	private HttpResponse<byte[]> get(String path, UnaryOperator<HttpRequest.Builder> headers)
+			throws Exception {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path));
+		if (headers != null) {
+			builder = headers.apply(builder);
+		}
+		return client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+	}
+
+	private static byte[] png(int width, int height) throws IOException {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(Color.ORANGE);
+		graphics.fillRect(0, 0, width, height);
+		graphics.setColor(Color.BLUE);
+		graphics.fillOval(50, 50, 200, 150);
+		graphics.dispose();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+
+	// Só a assinatura e o IHDR: as dimensões declaradas, sem os pixels
+	private static byte[] pngHeader(int width, int height) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(out);
+		data.write(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' });
+		ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+		DataOutputStream ihdr = new DataOutputStream(chunk);
+		ihdr.writeBytes("IHDR");
+		ihdr.writeInt(width);
+		ihdr.writeInt(height);
+		ihdr.write(new byte[] { 1, 0, 0, 0, 0 }); // 1 bit, tons de cinza
+		CRC32 crc = new CRC32();
+		crc.update(chunk.toByteArray());
+		data.writeInt(13);
+		data.write(chunk.toByteArray());
+		data.writeInt((int) crc.getValue());
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,180 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maggessibernardo.webserviceproject.entities.Money;
+import com.maggessibernardo.webserviceproject.entities.Product;
+import com.maggessibernardo.webserviceproject.repositories.ProductRepository;
+import com.maggessibernardo.webserviceproject.services.CsvReader;
+import com.maggessibernardo.webserviceproject.services.JwtService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = { "app.rate-limit.enabled=false", "app.import.work-dir=target/test-imports",
+				"app.import.batch-size=2", "app.import.max-size=1KB" })
+class ProductImportTest {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private UserDetailsService userDetailsService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@Test
+	void testImportUpsertsProductsAndCategoryLinks() throws Exception {
+		Long existing = productRepository.save(new Product(null, "To Update", "Old", Money.of("10.00"), "")).getId();
+		String csv = "id,name,price,description,categories\r\n"
+				// O mesmo produto duas vezes no mesmo lote: o lote falha nos vínculos e é refeito linha a linha
+				+ existing + ",Updated Once,11.00,First,Books\r\n"
+				+ existing + ",Updated Twice,12.50,Second,books|Electronics\r\n"
+				+ ",Imported Phone,199.90,\"Phone, with \"\"quotes\"\"\nand two lines\",Electronics|Computers\r\n"
+				+ ",Bad Price,abc,,\r\n"
+				+ ",Unknown Category,5.00,,Toys\r\n"
+				+ "999999,Missing,1.00,,\r\n"
+				+ ",Plain,0.99,,\r\n";
+
+		HttpResponse<String> accepted = client.send(HttpRequest.newBuilder(uri("/products/import"))
+				.header("Authorization", "Bearer " + adminToken())
+				.header("Content-Type", "multipart/form-data; boundary=import-boundary")
+				.POST(HttpRequest.BodyPublishers.ofString("--import-boundary\r\n"
+						+ "Content-Disposition: form-data; name=\"file\"; filename=\"products.csv\"\r\n"
+						+ "Content-Type: text/csv\r\n\r\n" + csv + "\r\n--import-boundary--\r\n", StandardCharsets.UTF_8))
+				.build(), HttpResponse.BodyHandlers.ofString());
+		assertEquals(202, accepted.statusCode(), accepted.body());
+		String location = accepted.headers().firstValue("Location").orElseThrow();
+
+		JsonNode status = awaitFinished(URI.create(location));
+		assertEquals("COMPLETED", status.get("state").asText(), status.toString());
+		assertEquals(100, status.get("progress").asInt());
+		assertEquals(7, status.get("rows").asLong());
+		assertEquals(2, status.get("inserted").asLong());
+		assertEquals(2, status.get("updated").asLong());
+		assertEquals(3, status.get("failed").asLong());
+		List<Long> errorLines = status.get("errors").findValues("line").stream().map(JsonNode::asLong).sorted().toList();
+		assertEquals(List.of(6L, 7L, 8L), errorLines);
+		assertTrue(status.toString().contains("Unknown category 'Toys'"), status.toString());
+		assertTrue(status.toString().contains("Product 999999 not found"), status.toString());
+
+		assertEquals(1250L, jdbcTemplate.queryForObject("select price_cents from tb_product where id = ?", Long.class,
+				existing));
+		assertEquals(2L, jdbcTemplate.queryForObject("select version from tb_product where id = ?", Long.class,
+				existing));
+		assertEquals(List.of("Books", "Electronics"), categoryNames(existing));
+
+		Long phone = jdbcTemplate.queryForObject("select id from tb_product where name = 'Imported Phone'", Long.class);
+		assertEquals("Phone, with \"quotes\"\nand two lines",
+				jdbcTemplate.queryForObject("select description from tb_product where id = ?", String.class, phone));
+		assertEquals(List.of("Computers", "Electronics"), categoryNames(phone));
+		assertEquals(99L, jdbcTemplate.queryForObject("select price_cents from tb_product where name = 'Plain'",
+				Long.class));
+	}
+
+	@Test
+	void testCsvBodyIsStreamedUpToMaxSize() throws Exception {
+		HttpResponse<String> accepted = client.send(HttpRequest.newBuilder(uri("/products/import?filename=body.csv"))
+				.header("Authorization", "Bearer " + adminToken())
+				.header("Content-Type", "text/csv")
+				.POST(HttpRequest.BodyPublishers.ofString("name,price\r\nFrom Body,3.50\r\n"))
+				.build(), HttpResponse.BodyHandlers.ofString());
+		assertEquals(202, accepted.statusCode(), accepted.body());
+		URI location = URI.create(accepted.headers().firstValue("Location").orElseThrow());
+		assertFalse(location.toString().contains("filename"), location.toString());
+
+		JsonNode status = awaitFinished(location);
+		assertEquals("COMPLETED", status.get("state").asText(), status.toString());
+		assertEquals("body.csv", status.get("fileName").asText());
+		assertEquals(1, status.get("inserted").asLong());
+		assertEquals(350L, jdbcTemplate.queryForObject("select price_cents from tb_product where name = 'From Body'",
+				Long.class));
+
+		// Acima de app.import.max-size: recusado antes de agendar a importação
+		String large = "name,price\r\n" + "Too Large,1.00\r\n".repeat(100);
+		HttpResponse<String> rejected = client.send(HttpRequest.newBuilder(uri("/products/import"))
+				.header("Authorization", "Bearer " + adminToken())
+				.header("Content-Type", "text/csv")
+				.POST(HttpRequest.BodyPublishers.ofString(large))
+				.build(), HttpResponse.BodyHandlers.ofString());
+		assertEquals(400, rejected.statusCode(), rejected.body());
+		assertEquals(0L, jdbcTemplate.queryForObject("select count(*) from tb_product where name = 'Too Large'",
+				Long.class));
+	}
+
+	@Test
+	void testCsvReaderHandlesQuotesLineEndingsAndBom() throws Exception {
+		try (CsvReader csv = new CsvReader(new StringReader("\uFEFFa,b\r\n\r\n\"x,1\",\"multi\r\nline\"\n,\"\"\"q\"\"\"\n"))) {
+			assertEquals(List.of("a", "b"), csv.next());
+			assertEquals(1, csv.getLine());
+			assertEquals(List.of("x,1", "multi\r\nline"), csv.next());
+			assertEquals(3, csv.getLine());
+			assertEquals(List.of("", "\"q\""), csv.next());
+			assertEquals(5, csv.getLine());
+			assertNull(csv.next());
+		}
+		try (CsvReader csv = new CsvReader(new StringReader("a,\"open\nb,c\n"))) {
+			assertThrows(IllegalArgumentException.class, csv::next);
+		}
+		try (CsvReader csv = new CsvReader(new StringReader("\"" + "x".repeat(100)), 50)) {
+			assertThrows(IllegalArgumentException.class, csv::next);
+		}
+	}
+
+	private JsonNode awaitFinished(URI location) throws Exception {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (true) {
+			HttpResponse<String> response = client.send(HttpRequest.newBuilder(location)
+					.header("Authorization", "Bearer " + adminToken()).build(), HttpResponse.BodyHandlers.ofString());
+			assertEquals(200, response.statusCode(), response.body());
+			JsonNode status = objectMapper.readTree(response.body());
+			String state = status.get("state").asText();
+			if (!state.equals("QUEUED") && !state.equals("RUNNING")) {
+				return status;
+			}
+			assertTrue(System.currentTimeMillis() < deadline, "Import did not finish: " + status);
+			Thread.sleep(50);
+		}
+	}
+
+	private List<String> categoryNames(Long productId) {
+		return jdbcTemplate.queryForList("select c.name from tb_product_category pc"
+				+ " join tb_category c on c.id = pc.category_id where pc.product_id = ? order by c.name", String.class,
+				productId);
+	}
+
+	private String adminToken() {
+		return jwtService.generateToken(userDetailsService.loadUserByUsername("admin@admin.com"));
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+}
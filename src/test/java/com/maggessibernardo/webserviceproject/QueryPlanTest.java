@@ -0,0 +1,142 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.maggessibernardo.webserviceproject.entities.Money;
+import com.maggessibernardo.webserviceproject.entities.Order;
+import com.maggessibernardo.webserviceproject.entities.OrderItem;
+import com.maggessibernardo.webserviceproject.entities.Product;
+import com.maggessibernardo.webserviceproject.entities.User;
+import com.maggessibernardo.webserviceproject.entities.enums.OrderStatus;
+import com.maggessibernardo.webserviceproject.repositories.OrderRepository;
+import com.maggessibernardo.webserviceproject.repositories.UserRepository;
+
+/**
+ * Garante que as consultas dos caminhos quentes usam índice. O SQL gerado pelo
+ * Hibernate é capturado e reexecutado com EXPLAIN no H2; o teste falha se o plano
+ * contiver uma varredura completa da tabela ("tableScan").
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.maggessibernardo.webserviceproject.QueryPlanTest$SqlCapture")
+class QueryPlanTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private User user;
+	private Product product;
+
+	@BeforeEach
+	void setUp() {
+		user = entityManager.persist(new User(null, "Plan User", "plan@example.com", "999999999", "123456", "ROLE_USER"));
+		product = entityManager.persist(new Product(null, "Plan Product", "Indexed lookups", Money.of("10.00"), ""));
+		Order order = entityManager.persist(new Order(null, Instant.parse("2024-01-01T00:00:00Z"), OrderStatus.PAID, user));
+		entityManager.persist(new OrderItem(order, product, 1, Money.of("10.00")));
+		entityManager.flush();
+		entityManager.clear();
+		SqlCapture.clear();
+	}
+
+	@Test
+	void testFindByEmailUsesIndex() throws Exception {
+		userRepository.findByEmail("plan@example.com");
+		assertIndexed(SqlCapture.last(), "plan@example.com");
+	}
+
+	@Test
+	void testOrdersByClientUseIndex() throws Exception {
+		entityManager.find(User.class, user.getId()).getOrders().size();
+		assertIndexed(SqlCapture.last(), user.getId());
+	}
+
+	@Test
+	void testOrderItemsByProductUseIndex() throws Exception {
+		entityManager.find(Product.class, product.getId()).getOrders();
+		assertIndexed(SqlCapture.last(), product.getId());
+	}
+
+	@Test
+	void testClientHistoryPageUsesIndex() throws Exception {
+		Instant from = Instant.EPOCH;
+		Instant before = Instant.parse("2025-01-01T00:00:00Z");
+		orderRepository.findClientHistory(user.getId(), from, before, Long.MIN_VALUE, null, Limit.of(21));
+		assertIndexed(SqlCapture.first(), user.getId(), from, before, before, Long.MIN_VALUE, null, null, 21);
+	}
+
+	private void assertIndexed(String sql, Object... parameters) throws Exception {
+		String plan = explain(sql, parameters);
+		assertFalse(plan.contains("tableScan"), () -> "Full table scan in plan:\n" + plan);
+	}
+
+	private String explain(String sql, Object... parameters) throws Exception {
+		try (Connection con = dataSource.getConnection();
+				PreparedStatement ps = con.prepareStatement("explain " + sql)) {
+			for (int i = 0; i < parameters.length; i++) {
+				ps.setObject(i + 1, parameters[i]);
+			}
+			try (ResultSet rs = ps.executeQuery()) {
+				StringBuilder plan = new StringBuilder();
+				while (rs.next()) {
+					plan.append(rs.getString(1)).append('\n');
+				}
+				return plan.toString();
+			}
+		}
+	}
+
+	/**
+	 * Guarda o último SQL preparado pelo Hibernate.
+	 */
+	public static class SqlCapture implements StatementInspector {
+
+		private static final long serialVersionUID = 1L;
+
+		private static final List<String> statements = new ArrayList<>();
+
+		@Override
+		public synchronized String inspect(String sql) {
+			statements.add(sql);
+			return sql;
+		}
+
+		static synchronized void clear() {
+			statements.clear();
+		}
+
+		static synchronized String first() {
+			assertFalse(statements.isEmpty(), "No SQL was captured");
+			return statements.get(0);
+		}
+
+		static synchronized String last() {
+			assertFalse(statements.isEmpty(), "No SQL was captured");
+			return statements.get(statements.size() - 1);
+		}
+	}
+}
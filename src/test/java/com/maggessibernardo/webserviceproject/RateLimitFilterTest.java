@@ -0,0 +1,55 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.maggessibernardo.webserviceproject.entities.User;
+import com.maggessibernardo.webserviceproject.repositories.UserRepository;
+import com.maggessibernardo.webserviceproject.services.JwtService;
+
+@SpringBootTest(properties = { "app.rate-limit.default-policy.capacity=2",
+        "app.rate-limit.default-policy.refill-per-second=0.01" })
+@AutoConfigureMockMvc
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testRequestsOverTheLimitGet429WithHeaders() throws Exception {
+        userRepository.save(new User(null, "Limited", "limited@example.com", "999999999", "123456", "ROLE_USER"));
+        String bearer = "Bearer " + jwtService.generateToken(userDetailsService.loadUserByUsername("limited@example.com"));
+
+        mockMvc.perform(get("/categories").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(header().string("RateLimit-Limit", "2"))
+                .andExpect(header().string("RateLimit-Remaining", "1"))
+                .andExpect(header().doesNotExist("Retry-After"));
+        mockMvc.perform(get("/categories").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(header().string("RateLimit-Remaining", "0"));
+        // Um token a cada 100 s
+        mockMvc.perform(get("/categories").header("Authorization", bearer))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("RateLimit-Limit", "2"))
+                .andExpect(header().string("RateLimit-Remaining", "0"))
+                .andExpect(header().string("RateLimit-Reset", "200"))
+                .andExpect(header().string("Retry-After", "100"));
+    }
+}
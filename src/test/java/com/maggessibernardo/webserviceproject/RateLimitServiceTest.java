@@ -0,0 +1,96 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.maggessibernardo.webserviceproject.config.RateLimitProperties;
+import com.maggessibernardo.webserviceproject.services.RateLimitService;
+import com.maggessibernardo.webserviceproject.services.RateLimitService.Decision;
+
+class RateLimitServiceTest {
+
+    private static final List<SimpleGrantedAuthority> USER = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    private static final List<SimpleGrantedAuthority> ADMIN = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    void testBurstThenRefill() {
+        RateLimitService service = service();
+
+        // Rajada: a capacidade inteira de uma vez, depois recusa até o próximo token
+        for (int remaining = 2; remaining >= 0; remaining--) {
+            Decision decision = service.tryConsume("a@example.com", USER);
+            assertTrue(decision.allowed());
+            assertEquals(3, decision.limit());
+            assertEquals(remaining, decision.remaining());
+        }
+        Decision rejected = service.tryConsume("a@example.com", USER);
+        assertFalse(rejected.allowed());
+        assertEquals(0, rejected.remaining());
+        assertEquals(1, rejected.retryAfterSeconds());
+        assertEquals(3, rejected.resetSeconds());
+
+        // Meio intervalo não repõe um token inteiro
+        advance(500);
+        rejected = service.tryConsume("a@example.com", USER);
+        assertFalse(rejected.allowed());
+        assertEquals(1, rejected.retryAfterSeconds());
+
+        // Um token por segundo
+        advance(500);
+        assertTrue(service.tryConsume("a@example.com", USER).allowed());
+        assertFalse(service.tryConsume("a@example.com", USER).allowed());
+
+        // Parado, o bucket enche de novo, mas não passa da capacidade
+        advance(60_000);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(service.tryConsume("a@example.com", USER).allowed());
+        }
+        assertFalse(service.tryConsume("a@example.com", USER).allowed());
+
+        // Os buckets são por usuário
+        assertTrue(service.tryConsume("b@example.com", USER).allowed());
+    }
+
+    @Test
+    void testPolicyFollowsTheRole() {
+        RateLimitService service = service();
+
+        Decision admin = service.tryConsume("admin@example.com", ADMIN);
+        assertEquals(10, admin.limit());
+        assertEquals(9, admin.remaining());
+        assertEquals(3, service.tryConsume("user@example.com", USER).limit());
+        assertEquals(3, service.tryConsume("none@example.com", List.of()).limit());
+
+        // Papel alterado: recomeça com o bucket cheio da nova política
+        for (int i = 0; i < 2; i++) {
+            service.tryConsume("user@example.com", USER);
+        }
+        assertFalse(service.tryConsume("user@example.com", USER).allowed());
+        Decision promoted = service.tryConsume("user@example.com", ADMIN);
+        assertTrue(promoted.allowed());
+        assertEquals(9, promoted.remaining());
+    }
+
+    private RateLimitService service() {
+        RateLimitProperties props = new RateLimitProperties();
+        props.getDefaultPolicy().setCapacity(3);
+        props.getDefaultPolicy().setRefillPerSecond(1);
+        RateLimitProperties.Policy admin = new RateLimitProperties.Policy();
+        admin.setCapacity(10);
+        admin.setRefillPerSecond(5);
+        props.getRoles().put("ROLE_ADMIN", admin);
+        return new RateLimitService(props, now::get);
+    }
+
+    private void advance(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
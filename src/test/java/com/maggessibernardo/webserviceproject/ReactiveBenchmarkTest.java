@@ -0,0 +1,83 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import com.maggessibernardo.webserviceproject.reactive.ReactiveReadServer;
+import com.maggessibernardo.webserviceproject.repositories.OrderRepository;
+import com.maggessibernardo.webserviceproject.services.JwtService;
+
+/**
+ * Compara a pilha reativa (WebFlux + R2DBC) com os *Resource servlet nos mesmos
+ * endpoints de leitura, à mesma taxa de chegada. Com taxas altas, as requisições
+ * em andamento se acumulam e a diferença aparece nos percentis altos. Desligado
+ * por padrão; para executar:
+ *
+ * mvn test -Dtest=ReactiveBenchmarkTest -Dload=true [-Dload.rate=200] [-Dload.duration=30]
+ *     [-Dload.warmup=10]
+ *
+ * Os relatórios ("servlet" e "reactive") ficam em target/load-reports, lado a lado
+ * no index.html. Os 503 do lado servlet vêm do ConcurrencyLimitFilter, que
+ * descarta carga de propósito; a pilha reativa não tem esse limite.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = { "app.rate-limit.enabled=false", "app.reactive.enabled=true", "app.reactive.port=0",
+				"spring.jpa.show-sql=false" })
+@EnabledIfSystemProperty(named = "load", matches = "true")
+class ReactiveBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(ReactiveBenchmarkTest.class);
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ReactiveReadServer reactiveServer;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private UserDetailsService userDetailsService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Test
+	void testServletVersusReactive() throws Exception {
+		double rate = Double.parseDouble(System.getProperty("load.rate", "200"));
+		Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup", 10));
+		Duration duration = Duration.ofSeconds(Long.getLong("load.duration", 30));
+
+		String token = jwtService.generateToken(userDetailsService.loadUserByUsername("admin@admin.com"));
+		List<String> paths = List.of("/products", "/categories", "/orders/" + orderRepository.findAll().get(0).getId());
+
+		LoadHarness servlet = new LoadHarness(URI.create("http://localhost:" + port), token);
+		List<LoadHarness.EndpointResult> servletResults = servlet.run(paths, rate, warmup, duration);
+		LoadHarness.writeReport(Path.of("target", "load-reports"), "servlet", servletResults);
+
+		LoadHarness reactive = new LoadHarness(URI.create("http://localhost:" + reactiveServer.getPort()), token);
+		List<LoadHarness.EndpointResult> reactiveResults = reactive.run(paths, rate, warmup, duration);
+		Path report = LoadHarness.writeReport(Path.of("target", "load-reports"), "reactive", reactiveResults);
+
+		log.info("Load reports written to {}", report.getParent().toAbsolutePath());
+		for (int i = 0; i < paths.size(); i++) {
+			log.info("servlet  {}", servletResults.get(i));
+			log.info("reactive {}", reactiveResults.get(i));
+			assertTrue(reactiveResults.get(i).count() > 0);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.maggessibernardo.webserviceproject.entities.Order;
+import com.maggessibernardo.webserviceproject.reactive.ReactiveReadServer;
+import com.maggessibernardo.webserviceproject.repositories.CategoryRepository;
+import com.maggessibernardo.webserviceproject.repositories.OrderRepository;
+import com.maggessibernardo.webserviceproject.repositories.ProductRepository;
+import com.maggessibernardo.webserviceproject.services.JwtService;
+
+@SpringBootTest(properties = { "app.reactive.enabled=true", "app.reactive.port=0" })
+class ReactiveReadTest {
+
+    @Autowired
+    private ReactiveReadServer server;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private WebTestClient client;
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + server.getPort()).build();
+        bearer = "Bearer " + jwtService.generateToken(userDetailsService.loadUserByUsername("admin@admin.com"));
+    }
+
+    @Test
+    void testListsMatchTheDatabase() {
+        client.get().uri("/categories").header("Authorization", bearer).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo((int) categoryRepository.count());
+
+        // NDJSON: um produto por linha, com as categorias agrupadas
+        List<String> lines = client.get().uri("/products").header("Authorization", bearer)
+                .accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(String.class).getResponseBody().collectList().block();
+        assertEquals(productRepository.count(), lines.size());
+        assertTrue(lines.get(0).contains("\"categories\":["));
+    }
+
+    @Test
+    void testOrderById() {
+        Long id = orderRepository.findAll().get(0).getId();
+        Order order = orderRepository.findByIdIn(List.of(id)).get(0);
+        client.get().uri("/orders/{id}", order.getId()).header("Authorization", bearer).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(order.getId().intValue())
+                .jsonPath("$.orderStatus").isEqualTo(order.getOrderStatus().name())
+                .jsonPath("$.client.id").isEqualTo(order.getClient().getId().intValue())
+                .jsonPath("$.client.password").doesNotExist()
+                .jsonPath("$.items.length()").isEqualTo(order.getItems().size())
+                .jsonPath("$.total").isEqualTo(order.getTotal().toBigDecimal().doubleValue());
+
+        client.get().uri("/orders/999999999").header("Authorization", bearer).exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.error").isEqualTo("Resource not found");
+    }
+
+    @Test
+    void testRequiresToken() {
+        client.get().uri("/products").exchange().expectStatus().isForbidden();
+        client.get().uri("/products").header("Authorization", "Bearer invalid").exchange().expectStatus().isForbidden();
+    }
+}
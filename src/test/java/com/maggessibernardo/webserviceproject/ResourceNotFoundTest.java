@@ -0,0 +1,44 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.maggessibernardo.webserviceproject.services.JwtService;
+import com.maggessibernardo.webserviceproject.services.execptions.ResourceNotFoundException;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ResourceNotFoundTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Test
+    void testMissingIdsReturn404() throws Exception {
+        String bearer = "Bearer " + jwtService.generateToken(userDetailsService.loadUserByUsername("admin@admin.com"));
+        for (String path : new String[] { "/products", "/categories", "/orders", "/users" }) {
+            mockMvc.perform(get(path + "/987654321").header("Authorization", bearer))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.message").value("Resource not found. ID:  987654321"));
+        }
+    }
+
+    @Test
+    void testExceptionHasNoStackTrace() {
+        assertEquals(0, new ResourceNotFoundException(1L).getStackTrace().length);
+    }
+}
@@ -0,0 +1,72 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.maggessibernardo.webserviceproject.config.ArchiveProperties;
+import com.maggessibernardo.webserviceproject.entities.Money;
+import com.maggessibernardo.webserviceproject.entities.Order;
+import com.maggessibernardo.webserviceproject.entities.OrderItem;
+import com.maggessibernardo.webserviceproject.entities.Product;
+import com.maggessibernardo.webserviceproject.entities.User;
+import com.maggessibernardo.webserviceproject.entities.enums.OrderStatus;
+import com.maggessibernardo.webserviceproject.services.OrderArchiveService;
+import com.maggessibernardo.webserviceproject.services.OrderService;
+import com.maggessibernardo.webserviceproject.services.OrderService.SalesSummary;
+import com.maggessibernardo.webserviceproject.services.OrderStatusStream;
+import com.maggessibernardo.webserviceproject.services.SingleFlight;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@Import({ OrderService.class, OrderArchiveService.class, SingleFlight.class, OrderStatusStream.class,
+		SimpleMeterRegistry.class })
+@EnableConfigurationProperties(ArchiveProperties.class)
+class SalesSummaryTest {
+
+	private static final Instant FROM = Instant.parse("2031-01-01T00:00:00Z");
+	private static final Instant TO = Instant.parse("2031-02-01T00:00:00Z");
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Test
+	void testSumsAndAveragesAreExact() {
+		User user = entityManager.persist(new User(null, "Summary User", "summary@example.com", "999999999", "123456", "ROLE_USER"));
+		Product dime = entityManager.persist(new Product(null, "Dime", "0.10", Money.of("0.10"), ""));
+		Product twenty = entityManager.persist(new Product(null, "Twenty", "0.20", Money.of("0.20"), ""));
+		Order first = entityManager.persist(new Order(null, Instant.parse("2031-01-10T10:00:00Z"), OrderStatus.PAID, user));
+		Order second = entityManager.persist(new Order(null, Instant.parse("2031-01-11T10:00:00Z"), OrderStatus.SHIPPED, user));
+		entityManager.persist(new OrderItem(first, dime, 1, dime.getPrice()));
+		entityManager.persist(new OrderItem(first, twenty, 1, twenty.getPrice()));
+		entityManager.persist(new OrderItem(second, dime, 3, dime.getPrice()));
+		entityManager.flush();
+
+		SalesSummary all = orderService.summarize(FROM, TO, null);
+		assertEquals(2, all.orders());
+		assertEquals(3, all.items());
+		assertEquals(5, all.units());
+		assertEquals(Money.of("0.60"), all.revenue());
+		assertEquals(Money.of("0.30"), all.averageOrderValue());
+		assertEquals(Money.of("0.12"), all.averageUnitPrice());
+
+		SalesSummary paid = orderService.summarize(FROM, TO, OrderStatus.PAID);
+		assertEquals(1, paid.orders());
+		assertEquals(Money.of("0.30"), paid.revenue());
+
+		SalesSummary empty = orderService.summarize(TO, null, OrderStatus.CANCELED);
+		assertEquals(Money.ZERO, empty.revenue());
+		assertNull(empty.averageOrderValue());
+	}
+}
@@ -1,5 +1,6 @@
 package com.maggessibernardo.webserviceproject;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -7,8 +8,17 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.maggessibernardo.webserviceproject.entities.User;
+import com.maggessibernardo.webserviceproject.repositories.RevokedTokenRepository;
+import com.maggessibernardo.webserviceproject.repositories.UserRepository;
+import com.maggessibernardo.webserviceproject.services.JwtService;
+import com.maggessibernardo.webserviceproject.services.TokenRevocationService;
+import com.maggessibernardo.webserviceproject.services.UserTokenVersions;
+
 @SpringBootTest
 @AutoConfigureMockMvc
 class SecurityTest {
@@ -16,9 +26,74 @@ class SecurityTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserTokenVersions tokenVersions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
     @Test
     void testUnauthorizedAccess() throws Exception {
         mockMvc.perform(get("/api/protected-endpoint"))
                 .andExpect(status().isForbidden());
     }
+
+    @Test
+    void testLogoutRevokesToken() throws Exception {
+        String bearer = "Bearer " + jwtService.generateToken(userDetailsService.loadUserByUsername("admin@admin.com"));
+
+        mockMvc.perform(get("/categories").header("Authorization", bearer))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", bearer))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/categories").header("Authorization", bearer))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testLogoutWithInvalidTokenIsUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer not.a.token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testRevocationReachesOtherNodesOnSync() throws Exception {
+        String token = jwtService.generateToken(userDetailsService.loadUserByUsername("admin@admin.com"));
+        String jti = jwtService.extractAllClaims(token).getId();
+        TokenRevocationService otherNode = new TokenRevocationService(revokedTokenRepository, 0.01);
+        otherNode.rebuild();
+
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+        assertFalse(otherNode.isRevoked(jti));
+        otherNode.sync();
+        assertTrue(otherNode.isRevoked(jti));
+    }
+
+    @Test
+    void testPermissionsVersionComesFromTheDatabase() throws Exception {
+        userRepository.save(new User(null, "Versions", "versions@example.com", "999999999", "123456", "ROLE_USER"));
+        String bearer = "Bearer " + jwtService.generateToken(userDetailsService.loadUserByUsername("versions@example.com"));
+        mockMvc.perform(get("/categories").header("Authorization", bearer))
+                .andExpect(status().isOk());
+
+        // Incremento feito por outro nó: vale aqui quando o cache expira
+        jdbcTemplate.update("update tb_user set permissions_version = permissions_version + 1 where email = ?",
+                "versions@example.com");
+        tokenVersions.forget("versions@example.com");
+        mockMvc.perform(get("/categories").header("Authorization", bearer))
+                .andExpect(status().isForbidden());
+    }
 }
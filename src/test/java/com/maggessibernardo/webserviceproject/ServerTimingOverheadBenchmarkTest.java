@@ -0,0 +1,60 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.maggessibernardo.webserviceproject.services.RequestTiming;
+
+/**
+ * Mede o custo, por requisição, dos pontos de medição do Server-Timing com
+ * app.server-timing.enabled=false: o que sobra no caminho é a consulta à
+ * RequestTiming da thread no JwtAuthenticationFilter e no SingleFlight. O limite
+ * aceito é 1µs. Desligado por padrão; para executar:
+ *
+ * mvn test -Dtest=ServerTimingOverheadBenchmarkTest -Dbenchmark=true
+ *
+ * O resultado fica em target/benchmark-reports.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ServerTimingOverheadBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(ServerTimingOverheadBenchmarkTest.class);
+
+	@Test
+	void testDisabledOverheadIsBelowOneMicrosecond() throws Exception {
+		int iterations = 10_000_000;
+		long sink = 0;
+		double nanos = 0;
+		for (int round = 0; round < 3; round++) { // as primeiras rodadas são aquecimento
+			long start = System.nanoTime();
+			for (int i = 0; i < iterations; i++) {
+				// Mesmo padrão do filtro de autenticação, mais a consulta do SingleFlight
+				RequestTiming timing = RequestTiming.current();
+				long begin = timing != null ? System.nanoTime() : 0;
+				sink += begin;
+				if (timing != null) {
+					timing.auth(System.nanoTime() - begin);
+				}
+				sink += RequestTiming.current() == null ? 1 : 0;
+			}
+			nanos = (System.nanoTime() - start) / (double) iterations;
+		}
+		assertEquals(3L * iterations, sink);
+
+		String report = String.format(Locale.ROOT, "{\"iterations\":%d,\"disabledOverheadNanos\":%.2f}", iterations,
+				nanos);
+		Path dir = Path.of("target", "benchmark-reports");
+		Files.createDirectories(dir);
+		Files.writeString(dir.resolve("server-timing-" + System.currentTimeMillis() + ".json"), report);
+		log.info("Server-Timing overhead benchmark: {}", report);
+		assertTrue(nanos < 1_000, "disabled overhead " + nanos + " ns");
+	}
+}
@@ -0,0 +1,85 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import com.maggessibernardo.webserviceproject.services.JwtService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = { "app.server-timing.enabled=true", "app.server-timing.log-sample-rate=1",
+				"app.rate-limit.enabled=false" })
+class ServerTimingTest {
+
+	private static final Pattern METRIC = Pattern.compile("(\\w+);dur=([0-9.]+)(?:;desc=\"(\\d+) \\w+\")?");
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private UserDetailsService userDetailsService;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@Test
+	void testAuthenticatedReadReportsEveryStage() throws Exception {
+		String token = jwtService.generateToken(userDetailsService.loadUserByUsername("admin@admin.com"));
+		HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/orders/1"))
+				.header("Authorization", "Bearer " + token).GET().build(), HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, response.statusCode(), response.body());
+
+		Map<String, double[]> metrics = parse(response.headers().firstValue("Server-Timing").orElseThrow());
+		assertEquals(Set.of("auth", "db", "hydrate", "ser", "wait", "total"), metrics.keySet());
+		assertTrue(metrics.get("auth")[0] > 0);
+		assertTrue(metrics.get("db")[1] >= 1, "at least one statement");
+		assertTrue(metrics.get("hydrate")[1] >= 1, "at least one row");
+		assertTrue(metrics.get("ser")[0] > 0);
+		double stages = metrics.get("auth")[0] + metrics.get("db")[0] + metrics.get("hydrate")[0]
+				+ metrics.get("ser")[0] + metrics.get("wait")[0];
+		assertTrue(stages <= metrics.get("total")[0] + 0.01, "stages are exclusive");
+	}
+
+	@Test
+	void testRejectedRequestStillReportsTiming() throws Exception {
+		HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/categories")).GET().build(),
+				HttpResponse.BodyHandlers.ofString());
+		assertEquals(403, response.statusCode());
+		Map<String, double[]> metrics = parse(response.headers().firstValue("Server-Timing").orElseThrow());
+		assertTrue(metrics.get("auth")[0] < 1, "no token to parse");
+		assertEquals(0, metrics.get("db")[1]);
+		assertEquals(0, metrics.get("ser")[0]);
+	}
+
+	// Nome -> {duração em ms, contagem da descrição (ou -1)}
+	private static Map<String, double[]> parse(String header) {
+		Map<String, double[]> metrics = new HashMap<>();
+		for (String entry : header.split(", ")) {
+			Matcher matcher = METRIC.matcher(entry);
+			assertTrue(matcher.matches(), entry);
+			metrics.put(matcher.group(1), new double[] { Double.parseDouble(matcher.group(2)),
+					matcher.group(3) != null ? Double.parseDouble(matcher.group(3)) : -1 });
+		}
+		return metrics;
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+}
@@ -0,0 +1,149 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.maggessibernardo.webserviceproject.services.SingleFlight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void testConcurrentReadsShareOneLoad() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(registry, TransactionOperations.withoutTransaction(),
+                Duration.ofSeconds(5), true);
+        int callers = 32;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> singleFlight.load("product", 1L, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "p1";
+                })));
+            }
+            // Espera todos os chamadores entrarem antes de liberar a carga
+            while (coalesced("product") < callers - 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("p1", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+            singleFlight.shutdown();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, registry.get("singleflight.loads").tag("name", "product").counter().count());
+
+        // Terminada a carga, a próxima leitura vai ao banco de novo
+        SingleFlight next = new SingleFlight(registry, TransactionOperations.withoutTransaction(),
+                Duration.ofSeconds(5), true);
+        assertNull(next.load("product", 2L, () -> null));
+        next.shutdown();
+    }
+
+    @Test
+    void testSlowLoadFallsBackAfterMaxWait() {
+        SingleFlight singleFlight = new SingleFlight(registry, TransactionOperations.withoutTransaction(),
+                Duration.ofMillis(20), true);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        try {
+            String value = singleFlight.load("order", 1L, () -> {
+                if (loads.incrementAndGet() == 1) {
+                    await(release); // a carga compartilhada fica presa
+                }
+                return "o1";
+            });
+            assertEquals("o1", value);
+            assertEquals(2, loads.get());
+            assertEquals(1, registry.get("singleflight.timeouts").tag("name", "order").counter().count());
+        } finally {
+            release.countDown();
+            singleFlight.shutdown();
+        }
+    }
+
+    @Test
+    void testFollowersGetTheirOwnCopy() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(registry, TransactionOperations.withoutTransaction(),
+                Duration.ofSeconds(5), true);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<ArrayList<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                results.add(pool.submit(() -> singleFlight.load("category", 1L, () -> {
+                    await(release);
+                    return new ArrayList<>(List.of("c1"));
+                })));
+            }
+            while (coalesced("category") < 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            ArrayList<String> first = results.get(0).get(5, TimeUnit.SECONDS);
+            ArrayList<String> second = results.get(1).get(5, TimeUnit.SECONDS);
+            assertNotSame(first, second);
+            first.add("changed");
+            assertEquals(List.of("c1"), second);
+        } finally {
+            pool.shutdownNow();
+            singleFlight.shutdown();
+        }
+    }
+
+    @Test
+    void testLoadInsideTransactionIsNotShared() {
+        SingleFlight singleFlight = new SingleFlight(registry, TransactionOperations.withoutTransaction(),
+                Duration.ofSeconds(5), true);
+        Thread caller = Thread.currentThread();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertEquals("u1", singleFlight.load("user", 1L, () -> {
+                assertSame(caller, Thread.currentThread());
+                return "u1";
+            }));
+            assertNull(registry.find("singleflight.loads").tag("name", "user").counter());
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            singleFlight.shutdown();
+        }
+    }
+
+    // Os contadores só existem depois da primeira chamada com o nome
+    private double coalesced(String name) {
+        Counter counter = registry.find("singleflight.coalesced").tag("name", name).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.userdetails.User;
+
+import com.maggessibernardo.webserviceproject.config.JwtProperties;
+import com.maggessibernardo.webserviceproject.services.JwtKeyRing;
+import com.maggessibernardo.webserviceproject.services.JwtService;
+import com.maggessibernardo.webserviceproject.services.UserTokenVersions;
+
+/**
+ * Mede o tempo até a primeira requisição autenticada bem-sucedida (GET /categories),
+ * contado a partir do início do processo, com e sem o perfil de inicialização
+ * rápida. Requer o jar gerado com o perfil Maven "faststart":
+ *
+ * mvn -Pfaststart package -DskipTests
+ * mvn test -Dtest=StartupBenchmarkTest -Dstartup=true [-Dstartup.runs=5]
+ */
+@EnabledIfSystemProperty(named = "startup", matches = "true")
+class StartupBenchmarkTest {
+
+	private static final Logger log = LoggerFactory.getLogger(StartupBenchmarkTest.class);
+
+	private static final String JAR = "webserviceproject-0.0.1-SNAPSHOT.jar";
+
+	private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+	@Test
+	void testTimeToFirstSuccessfulRequest() throws Exception {
+		Path target = Path.of("target").toAbsolutePath();
+		Path archive = target.resolve("faststart/application.jsa");
+		assertTrue(Files.exists(archive), "Run 'mvn -Pfaststart package' first");
+
+		int runs = Integer.getInteger("startup.runs", 3);
+		// Mesma chave de app.jwt.keys.k1 em application.properties
+		JwtProperties jwt = new JwtProperties();
+		jwt.getKeys().put("k1", "SEU_SEGREDO_SUPER_SEGURO_AQUI_SECRETO_32_BYTES");
+		jwt.setActiveKeyId("k1");
+		// Sem banco aqui: o token sai sem versão de permissões e a aplicação carrega o usuário
+		UserTokenVersions noDatabase = mock(UserTokenVersions.class);
+		String token = new JwtService(new JwtKeyRing(jwt), jwt, noDatabase).generateToken(
+				User.withUsername("admin@admin.com").password("").authorities("ROLE_ADMIN").build());
+
+		long[] baseline = new long[runs];
+		long[] faststart = new long[runs];
+		for (int i = 0; i < runs; i++) {
+			baseline[i] = timeToFirstRequest(token, List.of("-jar", target.resolve(JAR).toString()));
+			faststart[i] = timeToFirstRequest(token, List.of(
+					"-XX:SharedArchiveFile=" + archive,
+					"-Dspring.aot.enabled=true",
+					"-jar", target.resolve("faststart").resolve(JAR).toString(),
+					"--spring.profiles.active=test,faststart"));
+		}
+
+		String report = String.format("{\"baselineMillis\":%s,\"faststartMillis\":%s,\"baselineMedian\":%d,\"faststartMedian\":%d,"
+				+ "\"java\":\"%s\",\"os\":\"%s %s\",\"processors\":%d}",
+				Arrays.toString(baseline), Arrays.toString(faststart), median(baseline), median(faststart),
+				Runtime.version(), System.getProperty("os.name"), System.getProperty("os.arch"),
+				Runtime.getRuntime().availableProcessors());
+		Files.createDirectories(target.resolve("startup-reports"));
+		Files.writeString(target.resolve("startup-reports").resolve("startup-" + System.currentTimeMillis() + ".json"), report);
+		log.info("Time to first successful request: {}", report);
+	}
+
+	private long timeToFirstRequest(String token, List<String> launchArgs) throws Exception {
+		int port;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		List<String> command = new ArrayList<>();
+		command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(launchArgs);
+		command.add("--server.port=" + port);
+
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/categories"))
+				.header("Authorization", "Bearer " + token)
+				.timeout(Duration.ofSeconds(5))
+				.build();
+
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(command).redirectErrorStream(true)
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+		try {
+			while (System.nanoTime() - start < Duration.ofMinutes(2).toNanos()) {
+				assertTrue(process.isAlive(), "Application exited before serving a request");
+				try {
+					if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+						return (System.nanoTime() - start) / 1_000_000;
+					}
+				} catch (ConnectException e) {
+					// Ainda não está ouvindo
+				} catch (IOException e) {
+					// Conexão recusada ou encerrada durante a inicialização
+				}
+				Thread.sleep(10);
+			}
+			fail("Application did not answer within 2 minutes");
+			return -1;
+		} finally {
+			process.destroy();
+			process.waitFor();
+		}
+	}
+
+	private static long median(long[] values) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+}
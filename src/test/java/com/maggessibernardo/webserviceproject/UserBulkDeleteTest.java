@@ -0,0 +1,68 @@
+package com.maggessibernardo.webserviceproject;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.maggessibernardo.webserviceproject.entities.Order;
+import com.maggessibernardo.webserviceproject.entities.User;
+import com.maggessibernardo.webserviceproject.entities.enums.OrderStatus;
+import com.maggessibernardo.webserviceproject.services.OptimisticRetry;
+import com.maggessibernardo.webserviceproject.services.SingleFlight;
+import com.maggessibernardo.webserviceproject.services.UserService;
+import com.maggessibernardo.webserviceproject.services.UserService.DeleteOutcome;
+import com.maggessibernardo.webserviceproject.services.UserService.DeleteResult;
+import com.maggessibernardo.webserviceproject.services.UserTokenVersions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@Import({ UserService.class, UserTokenVersions.class, OptimisticRetry.class, SingleFlight.class,
+		SimpleMeterRegistry.class })
+class UserBulkDeleteTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserTokenVersions tokenVersions;
+
+	@Test
+	void testOutcomesPerId() {
+		User free = entityManager.persist(new User(null, "Free", "free@example.com", "999999999", "123456", "ROLE_USER"));
+		User client = entityManager.persist(new User(null, "Client", "client@example.com", "999999999", "123456", "ROLE_USER"));
+		User archived = entityManager.persist(new User(null, "Archived", "archived@example.com", "999999999", "123456", "ROLE_USER"));
+		entityManager.persist(new Order(null, Instant.parse("2024-01-01T00:00:00Z"), OrderStatus.PAID, client));
+		entityManager.flush();
+		// Pedido só no arquivo: tb_order_archive não tem chave estrangeira para tb_user
+		entityManager.getEntityManager().createNativeQuery("insert into tb_order_archive"
+				+ " (id, client_id, moment, archived_at, payload) values (-100, ?, ?, ?, X'00')")
+				.setParameter(1, archived.getId())
+				.setParameter(2, Instant.parse("2020-01-01T00:00:00Z"))
+				.setParameter(3, Instant.now())
+				.executeUpdate();
+
+		List<DeleteResult> results = userService.deleteAll(
+				List.of(client.getId(), free.getId(), -1L, free.getId(), archived.getId()));
+
+		assertEquals(List.of(new DeleteResult(client.getId(), DeleteOutcome.REFERENCED),
+				new DeleteResult(free.getId(), DeleteOutcome.DELETED),
+				new DeleteResult(-1L, DeleteOutcome.NOT_FOUND),
+				new DeleteResult(archived.getId(), DeleteOutcome.REFERENCED)), results);
+		assertNull(entityManager.find(User.class, free.getId()));
+		assertNotNull(entityManager.find(User.class, client.getId()));
+		assertNotNull(entityManager.find(User.class, archived.getId()));
+		assertNull(tokenVersions.current("free@example.com"));
+		assertEquals(client.getId().longValue(), tokenVersions.current("client@example.com").userId());
+	}
+}
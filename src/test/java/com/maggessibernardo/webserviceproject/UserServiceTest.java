@@ -5,16 +5,22 @@ import static org.mockito.Mockito.*;
 
 import com.maggessibernardo.webserviceproject.entities.User;
 import com.maggessibernardo.webserviceproject.repositories.UserRepository;
+import com.maggessibernardo.webserviceproject.services.SingleFlight;
 import com.maggessibernardo.webserviceproject.services.UserService;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.time.Duration;
 import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +32,11 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    // Sem agrupamento de leituras: a carga roda direto, sem transação
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry(),
+            TransactionOperations.withoutTransaction(), Duration.ofSeconds(1), false);
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);